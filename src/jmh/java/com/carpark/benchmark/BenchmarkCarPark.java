@@ -0,0 +1,45 @@
+package com.carpark.benchmark;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.VehicleType;
+import com.carpark.repository.ParkingRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Car parks of a given size and occupancy for the benchmarks.
+ */
+final class BenchmarkCarPark {
+
+    private BenchmarkCarPark() {
+    }
+
+    static CarParkProperties properties(int spaces) {
+        CarParkProperties properties = new CarParkProperties();
+        properties.getZones().add(new CarParkProperties.Zone("A", 0, spaces));
+        return properties;
+    }
+
+    /**
+     * Parks {@code count} vehicles, which take the lowest-numbered spaces, and returns
+     * their registrations.
+     */
+    static String[] fill(ParkingRepository repository, int count) {
+        LocalDateTime timeIn = LocalDateTime.now().minusHours(2);
+        VehicleType[] types = VehicleType.values();
+        String[] registrations = new String[count];
+        for (int i = 0; i < count; i++) {
+            registrations[i] = registration(i);
+            repository.park(registrations[i], types[i % types.length], timeIn);
+        }
+        return registrations;
+    }
+
+    /**
+     * A UK-style current-format plate, unique for the first 1,757,600 vehicles.
+     */
+    static String registration(int i) {
+        return String.format("%c%c%02d %c%c%c", 'A' + i % 26, 'A' + i / 26 % 26, i / 676 % 100,
+                'A' + i / 67_600 % 26, 'A' + i / 1_757_600 % 26, 'A' + i % 7);
+    }
+}
@@ -0,0 +1,39 @@
+package com.carpark.benchmark;
+
+import com.carpark.service.BillIdGenerator;
+import com.carpark.service.RandomUuidBillIdGenerator;
+import com.carpark.service.TimeOrderedBillIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bill id throughput with every thread issuing ids at once, comparing the random
+ * UUID path with the time-ordered generator. Vary the thread count with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BillIdBenchmark {
+
+    @Param({"random-uuid", "time-ordered"})
+    public String strategy;
+
+    private BillIdGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = "random-uuid".equals(strategy)
+                ? new RandomUuidBillIdGenerator()
+                : new TimeOrderedBillIdGenerator(0);
+    }
+
+    @Benchmark
+    public String nextId() {
+        return generator.nextId();
+    }
+}
@@ -0,0 +1,143 @@
+package com.carpark.benchmark;
+
+import com.carpark.dto.BillRequest;
+import com.carpark.dto.BillResponse;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.dto.ParkVehicleResponse;
+import com.carpark.dto.ParkingStatusResponse;
+import com.carpark.dto.ZoneStatusResponse;
+import com.carpark.dto.json.ParkingJsonSerializers;
+import com.carpark.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding the response bodies and decoding the request bodies as JSON, CBOR and Smile,
+ * each mapper configured as the application configures it. Run with {@code -prof gc}
+ * to compare allocation; {@link #main} prints the payload sizes instead.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec \
+ *     -Dbenchmark.main=com.carpark.benchmark.BinaryFormatBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private Object parked;
+    private Object bill;
+    private Object status;
+    private Object error;
+    private byte[] parkRequest;
+    private byte[] billRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = mapper(format);
+        Map<String, Object> responses = responses();
+        parked = responses.get("park");
+        bill = responses.get("bill");
+        status = responses.get("status");
+        error = responses.get("error");
+        parkRequest = mapper.writeValueAsBytes(new ParkVehicleRequest("AB12 CDE", 1, "A"));
+        billRequest = mapper.writeValueAsBytes(new BillRequest("AB12 CDE"));
+    }
+
+    @Benchmark
+    public byte[] encodeParkResponse() throws IOException {
+        return mapper.writeValueAsBytes(parked);
+    }
+
+    @Benchmark
+    public byte[] encodeBillResponse() throws IOException {
+        return mapper.writeValueAsBytes(bill);
+    }
+
+    @Benchmark
+    public byte[] encodeStatusResponse() throws IOException {
+        return mapper.writeValueAsBytes(status);
+    }
+
+    @Benchmark
+    public byte[] encodeErrorResponse() throws IOException {
+        return mapper.writeValueAsBytes(error);
+    }
+
+    @Benchmark
+    public ParkVehicleRequest decodeParkRequest() throws IOException {
+        return mapper.readValue(parkRequest, ParkVehicleRequest.class);
+    }
+
+    @Benchmark
+    public BillRequest decodeBillRequest() throws IOException {
+        return mapper.readValue(billRequest, BillRequest.class);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String[] formats = {"json", "cbor", "smile"};
+        System.out.printf("%-14s %8s %8s %8s%n", "body", formats[0], formats[1], formats[2]);
+        Map<String, Object> bodies = responses();
+        bodies.put("park-request", new ParkVehicleRequest("AB12 CDE", 1, "A"));
+        bodies.put("bill-request", new BillRequest("AB12 CDE"));
+        for (Map.Entry<String, Object> body : bodies.entrySet()) {
+            StringBuilder row = new StringBuilder(String.format("%-14s", body.getKey()));
+            for (String format : formats) {
+                row.append(String.format(" %8d", mapper(format).writeValueAsBytes(body.getValue()).length));
+            }
+            System.out.println(row);
+        }
+    }
+
+    private static ObjectMapper mapper(String format) {
+        MapperBuilder<?, ?> builder = switch (format) {
+            case "json" -> JsonMapper.builder();
+            case "cbor" -> CBORMapper.builder();
+            case "smile" -> SmileMapper.builder();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        return builder.addModule(new JavaTimeModule())
+                .addModule(new SimpleModule()
+                        .addSerializer(new ParkingJsonSerializers.ParkVehicleResponseSerializer())
+                        .addSerializer(new ParkingJsonSerializers.BillResponseSerializer())
+                        .addSerializer(new ParkingJsonSerializers.ParkingStatusResponseSerializer())
+                        .addSerializer(new ParkingJsonSerializers.ErrorResponseSerializer()))
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static Map<String, Object> responses() {
+        LocalDateTime timeIn = LocalDateTime.of(2024, 3, 9, 7, 5, 3);
+        Map<String, Object> responses = new LinkedHashMap<>();
+        responses.put("park", new ParkVehicleResponse("AB12 CDE", 17, timeIn));
+        responses.put("bill", new BillResponse("018f2b6c-0d1e-7a2b-8c3d-4e5f60718293", "AB12 CDE", 12.35,
+                timeIn, timeIn.plusMinutes(95)));
+        responses.put("status", new ParkingStatusResponse(40, 10, List.of(
+                new ZoneStatusResponse("A", 0, 15, 10),
+                new ZoneStatusResponse("B", 1, 25, 0))));
+        responses.put("error", new ErrorResponse(409, "No available parking spaces", timeIn));
+        return responses;
+    }
+}
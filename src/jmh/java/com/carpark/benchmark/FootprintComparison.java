@@ -0,0 +1,71 @@
+package com.carpark.benchmark;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.VehicleType;
+import com.carpark.repository.ParkingRepository;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Retained heap of a fully occupied repository in each storage mode. The mapped mode
+ * writes its table to a temporary file that is deleted afterwards.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec \
+ *     -Dbenchmark.main=com.carpark.benchmark.FootprintComparison -Djmh.args=1000000
+ * </pre>
+ */
+public final class FootprintComparison {
+
+    private FootprintComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int spaces = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%-8s %12s %14s %14s%n", "mode", "spaces", "heap (MB)", "bytes/space");
+        for (CarParkProperties.StorageMode mode : CarParkProperties.StorageMode.values()) {
+            Path table = Files.createTempFile("occupancy", ".table");
+            Files.delete(table);
+            long before = usedHeap();
+            ParkingRepository repository = fill(mode, spaces, table);
+            long after = usedHeap();
+            System.out.printf("%-8s %,12d %14.1f %14.1f%n", mode.name().toLowerCase(), spaces,
+                    (after - before) / (1024.0 * 1024.0), (after - before) / (double) spaces);
+            if (repository.countOccupiedSpaces() != spaces) {
+                throw new IllegalStateException("Repository was not filled");
+            }
+            repository.close();
+            Files.deleteIfExists(table);
+        }
+    }
+
+    private static ParkingRepository fill(CarParkProperties.StorageMode mode, int spaces, Path table) {
+        CarParkProperties properties = new CarParkProperties();
+        properties.getZones().add(new CarParkProperties.Zone("A", 0, spaces));
+        properties.getStorage().setMode(mode);
+        properties.getStorage().setPath(table.toString());
+        ParkingRepository repository = new ParkingRepository(properties);
+        LocalDateTime timeIn = LocalDateTime.now();
+        VehicleType[] types = VehicleType.values();
+        for (int i = 0; i < spaces; i++) {
+            // UK-style current-format plates: two letters, two digits, three letters
+            String reg = String.format("%c%c%02d %c%c%c", 'A' + i % 26, 'A' + i / 26 % 26, i / 676 % 100,
+                    'A' + i / 67_600 % 26, 'A' + i / 1_757_600 % 26, 'A' + i % 7);
+            repository.park(reg, types[i % types.length], timeIn.plusSeconds(i % 3600));
+        }
+        return repository;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,56 @@
+package com.carpark.benchmark;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.exception.CarParkFullException;
+import com.carpark.repository.ParkingRepository;
+import com.carpark.service.ParkingService;
+import com.carpark.service.TimeOrderedBillIdGenerator;
+import com.carpark.service.tariff.CompiledTariff;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An entry refused by {@link ParkingService} because every space is taken: the path a
+ * flood of arrivals at a full site takes. Its cost should not depend on the size of
+ * the car park.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class FullCarParkBenchmark {
+
+    @Param({"50", "10000", "1000000"})
+    public int spaces;
+
+    private ParkingRepository repository;
+    private ParkingService service;
+    private final ParkVehicleRequest late = new ParkVehicleRequest("LATE 1", 2, null);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new ParkingRepository(BenchmarkCarPark.properties(spaces));
+        service = new ParkingService(repository, new TimeOrderedBillIdGenerator(0),
+                CompiledTariff.compile(new CarParkProperties.Tariff()), new SimpleMeterRegistry());
+        BenchmarkCarPark.fill(repository, spaces);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Benchmark
+    public Object parkWhenFull() {
+        try {
+            return service.parkVehicle(late);
+        } catch (CarParkFullException e) {
+            return e;
+        }
+    }
+}
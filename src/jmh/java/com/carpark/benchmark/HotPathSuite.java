@@ -0,0 +1,63 @@
+package com.carpark.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Runs the repository, service and pricing benchmarks once per thread count and saves
+ * each run as JMH JSON, so runs before and after a change can be compared.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec \
+ *     -Dbenchmark.main=com.carpark.benchmark.HotPathSuite -Djmh.args="1,4,8 target/jmh"
+ * </pre>
+ *
+ * The first argument lists the thread counts (default 1,4), the second the output
+ * directory (default {@code target/jmh}); any further arguments are passed to JMH, for
+ * example {@code -p spaces=50,10000} to narrow the parameters.
+ */
+public final class HotPathSuite {
+
+    private static final String[] BENCHMARKS = {
+            RepositoryBenchmark.class.getSimpleName(),
+            ParkingServiceBenchmark.class.getSimpleName(),
+            TariffBenchmark.class.getSimpleName()
+    };
+
+    private HotPathSuite() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException, CommandLineOptionException {
+        int[] threadCounts = Arrays.stream((args.length > 0 ? args[0] : "1,4").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Path output = Paths.get(args.length > 1 ? args[1] : "target/jmh");
+        CommandLineOptions extra = new CommandLineOptions(Arrays.copyOfRange(args, Math.min(2, args.length), args.length));
+        Files.createDirectories(output);
+
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder().parent(extra);
+            for (String benchmark : BENCHMARKS) {
+                options.include(benchmark);
+            }
+            Path result = output.resolve("hot-paths-" + threads + "-threads.json");
+            new Runner(options
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(result.toString())
+                    .build()).run();
+            System.out.println("Results saved to " + result);
+        }
+    }
+}
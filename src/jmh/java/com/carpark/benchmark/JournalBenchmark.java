@@ -0,0 +1,80 @@
+package com.carpark.benchmark;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.VehicleType;
+import com.carpark.repository.ParkingRepository;
+import com.carpark.repository.journal.OccupancyJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of one park or exit, including the wait for durability, with the journal
+ * off, writing to the page cache only, and forcing every group commit to disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    @Param({"off", "write", "fsync"})
+    public String journal;
+
+    private ParkingRepository repository;
+    private OccupancyJournal occupancyJournal;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CarParkProperties properties = new CarParkProperties();
+        properties.getZones().add(new CarParkProperties.Zone("A", 0, 10_000));
+        repository = new ParkingRepository(properties);
+        if (!"off".equals(journal)) {
+            directory = Files.createTempDirectory("journal-benchmark");
+            CarParkProperties.Journal config = properties.getJournal();
+            config.setDirectory(directory.toString());
+            config.setFsync("fsync".equals(journal));
+            occupancyJournal = new OccupancyJournal(config);
+            repository.restore(occupancyJournal.recover(repository.capacity()));
+            repository.setObserver(occupancyJournal);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (occupancyJournal != null) {
+            occupancyJournal.close();
+        }
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @State(Scope.Thread)
+    public static class Vehicle {
+        private final String prefix = "T" + THREAD_IDS.incrementAndGet() + "-";
+        private int next;
+
+        String nextReg() {
+            return prefix + (next++ & 0xFFFF);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void parkAndExit(Vehicle vehicle) {
+        String reg = vehicle.nextReg();
+        repository.park(reg, VehicleType.MEDIUM, LocalDateTime.now());
+        repository.awaitDurable();
+        repository.vacate(reg);
+        repository.awaitDurable();
+    }
+}
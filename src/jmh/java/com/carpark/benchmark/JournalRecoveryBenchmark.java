@@ -0,0 +1,81 @@
+package com.carpark.benchmark;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.Occupancy;
+import com.carpark.model.VehicleType;
+import com.carpark.repository.ParkingRepository;
+import com.carpark.repository.journal.OccupancyJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup time to rebuild a 100,000-space repository from a journal holding the
+ * given number of park and vacate events, either replaying all of them or loading a
+ * snapshot taken before the last 10,000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class JournalRecoveryBenchmark {
+
+    private static final int SPACES = 100_000;
+    private static final int TAIL_EVENTS = 10_000;
+
+    @Param({"1000000", "5000000"})
+    public int events;
+
+    @Param({"false", "true"})
+    public boolean snapshot;
+
+    private CarParkProperties properties;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-recovery-benchmark");
+        properties = new CarParkProperties();
+        properties.getZones().add(new CarParkProperties.Zone("A", 0, SPACES));
+        properties.getJournal().setDirectory(directory.toString());
+        properties.getJournal().setFsync(false);
+
+        LocalDateTime timeIn = LocalDateTime.now();
+        try (OccupancyJournal journal = new OccupancyJournal(properties.getJournal())) {
+            Occupancy[] state = journal.recover(SPACES);
+            for (int i = 0; i < events; i++) {
+                if (snapshot && i == events - TAIL_EVENTS) {
+                    journal.checkpoint(() -> state);
+                }
+                int space = i % SPACES;
+                if ((i / SPACES) % 2 == 0) {
+                    state[space] = new Occupancy("REG" + i, VehicleType.SMALL, timeIn);
+                    journal.parked(space + 1, state[space]);
+                } else {
+                    state[space] = null;
+                    journal.vacated(space + 1);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public ParkingRepository recover() throws IOException {
+        ParkingRepository repository = new ParkingRepository(properties);
+        try (OccupancyJournal journal = new OccupancyJournal(properties.getJournal())) {
+            repository.restore(journal.recover(repository.capacity()));
+        }
+        return repository;
+    }
+}
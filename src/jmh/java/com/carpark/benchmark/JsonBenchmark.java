@@ -0,0 +1,90 @@
+package com.carpark.benchmark;
+
+import com.carpark.dto.BillResponse;
+import com.carpark.dto.ParkVehicleResponse;
+import com.carpark.dto.ParkingStatusResponse;
+import com.carpark.dto.ZoneStatusResponse;
+import com.carpark.dto.json.ParkingJsonSerializers;
+import com.carpark.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing each response body to bytes, with the hand-written
+ * {@link ParkingJsonSerializers} or with Jackson's reflection-based serializers, and
+ * with or without pretty-printing. Run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"hand-written", "reflective", "reflective-indented"})
+    public String codec;
+
+    private ObjectMapper mapper;
+    private ParkVehicleResponse parked;
+    private BillResponse bill;
+    private ParkingStatusResponse status;
+    private ErrorResponse error;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JsonMapper.Builder builder = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        switch (codec) {
+            case "hand-written" -> builder.addModule(new SimpleModule()
+                    .addSerializer(new ParkingJsonSerializers.ParkVehicleResponseSerializer())
+                    .addSerializer(new ParkingJsonSerializers.BillResponseSerializer())
+                    .addSerializer(new ParkingJsonSerializers.ParkingStatusResponseSerializer())
+                    .addSerializer(new ParkingJsonSerializers.ErrorResponseSerializer()));
+            case "reflective" -> {
+            }
+            case "reflective-indented" -> builder.enable(SerializationFeature.INDENT_OUTPUT);
+            default -> throw new IllegalArgumentException("Unknown codec " + codec);
+        }
+        mapper = builder.build();
+
+        LocalDateTime timeIn = LocalDateTime.of(2024, 3, 9, 7, 5, 3);
+        parked = new ParkVehicleResponse("AB12 CDE", 17, timeIn);
+        bill = new BillResponse("018f2b6c-0d1e-7a2b-8c3d-4e5f60718293", "AB12 CDE", 12.35,
+                timeIn, timeIn.plusMinutes(95));
+        status = new ParkingStatusResponse(40, 10, List.of(
+                new ZoneStatusResponse("A", 0, 15, 10),
+                new ZoneStatusResponse("B", 1, 25, 0)));
+        error = new ErrorResponse(409, "No available parking spaces", LocalDateTime.now());
+    }
+
+    @Benchmark
+    public byte[] parkResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(parked);
+    }
+
+    @Benchmark
+    public byte[] billResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(bill);
+    }
+
+    @Benchmark
+    public byte[] statusResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(status);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(error);
+    }
+}
@@ -0,0 +1,74 @@
+package com.carpark.benchmark;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.dto.BillRequest;
+import com.carpark.dto.BillResponse;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.repository.ParkingRepository;
+import com.carpark.service.ParkingService;
+import com.carpark.service.TimeOrderedBillIdGenerator;
+import com.carpark.service.tariff.CompiledTariff;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A full park then bill-and-exit cycle through {@link ParkingService}, on a car park
+ * of the given size and occupancy. Occupancy is capped so that every benchmark thread
+ * can always find a free space.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class ParkingServiceBenchmark {
+
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    @Param({"50", "10000", "1000000"})
+    public int spaces;
+
+    @Param({"0.0", "0.5", "0.99"})
+    public double occupancy;
+
+    private ParkingRepository repository;
+    private ParkingService service;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        repository = new ParkingRepository(BenchmarkCarPark.properties(spaces));
+        service = new ParkingService(repository, new TimeOrderedBillIdGenerator(0),
+                CompiledTariff.compile(new CarParkProperties.Tariff()), new SimpleMeterRegistry());
+        BenchmarkCarPark.fill(repository, Math.min((int) (spaces * occupancy), spaces - params.getThreads()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Driver {
+        private ParkVehicleRequest park;
+        private BillRequest bill;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String reg = "BENCH" + THREAD_IDS.incrementAndGet();
+            park = new ParkVehicleRequest(reg, 2, null);
+            bill = new BillRequest(reg);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public BillResponse parkAndBill(Driver driver) {
+        service.parkVehicle(driver.park);
+        return service.generateBillAndExit(driver.bill);
+    }
+}
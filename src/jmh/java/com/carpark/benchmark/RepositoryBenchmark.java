@@ -0,0 +1,64 @@
+package com.carpark.benchmark;
+
+import com.carpark.model.ParkingSpace;
+import com.carpark.repository.ParkingRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository read paths on a car park of the given size, with the lowest-numbered
+ * spaces taken up to the given occupancy, as first-free allocation leaves them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"50", "10000", "1000000"})
+    public int spaces;
+
+    @Param({"0.0", "0.5", "0.99"})
+    public double occupancy;
+
+    private ParkingRepository repository;
+    private String[] parked;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new ParkingRepository(BenchmarkCarPark.properties(spaces));
+        parked = BenchmarkCarPark.fill(repository, (int) (spaces * occupancy));
+        if (parked.length == 0) {
+            parked = new String[] {"NOT PARKED"};
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Benchmark
+    public Optional<ParkingSpace> findFirstAvailableSpace() {
+        return repository.findFirstAvailableSpace();
+    }
+
+    /**
+     * Looks up a random parked vehicle, or a vehicle that is not parked when the car
+     * park is empty.
+     */
+    @Benchmark
+    public Optional<ParkingSpace> findByVehicleReg() {
+        return repository.findByVehicleReg(parked[ThreadLocalRandom.current().nextInt(parked.length)]);
+    }
+
+    @Benchmark
+    public long countAvailableSpaces() {
+        return repository.countAvailableSpaces();
+    }
+}
@@ -0,0 +1,99 @@
+package com.carpark.benchmark;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.dto.BillRequest;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.repository.ParkingRepository;
+import com.carpark.service.CarParkSites;
+import com.carpark.service.ParkingService;
+import com.carpark.service.TimeOrderedBillIdGenerator;
+import com.carpark.service.tariff.CompiledTariff;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What hosting many car parks in one instance costs: the time to build each count of
+ * sites, the heap they retain with a quarter of their spaces taken, and the time of a
+ * park then bill-and-exit cycle routed by id, with consecutive cycles going to
+ * different sites so each finds its site's state cold. Takes the site counts and the
+ * spaces per site.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec \
+ *     -Dbenchmark.main=com.carpark.benchmark.SiteScalingComparison -Djmh.args="1,100,500 200"
+ * </pre>
+ */
+public final class SiteScalingComparison {
+
+    private static final int WARMUP_CYCLES = 200_000;
+    private static final int MEASURED_CYCLES = 1_000_000;
+
+    private SiteScalingComparison() {
+    }
+
+    public static void main(String[] args) {
+        String[] counts = (args.length > 0 ? args[0] : "1,100,500").split(",");
+        int spaces = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        System.out.printf("%d spaces per site%n%n%8s %10s %12s %12s %14s%n",
+                spaces, "sites", "build ms", "heap (MB)", "KB/site", "ns/cycle");
+        for (String count : counts) {
+            int sites = Integer.parseInt(count.trim());
+            long before = usedHeap();
+            long start = System.nanoTime();
+            CarParkSites carParkSites = build(sites, spaces);
+            long built = System.nanoTime() - start;
+            long after = usedHeap();
+            List<String> ids = new ArrayList<>(carParkSites.ids());
+            run(carParkSites, ids, WARMUP_CYCLES);
+            start = System.nanoTime();
+            run(carParkSites, ids, MEASURED_CYCLES);
+            long measured = System.nanoTime() - start;
+            if (carParkSites.getStatus().getOccupiedSpaces() != sites * (spaces / 4)) {
+                throw new IllegalStateException("Sites did not return to their starting occupancy");
+            }
+            System.out.printf("%8d %10.1f %12.1f %12.1f %14.0f%n", sites, built / 1e6,
+                    (after - before) / (1024.0 * 1024.0), (after - before) / 1024.0 / sites,
+                    measured / (double) MEASURED_CYCLES);
+        }
+    }
+
+    private static CarParkSites build(int sites, int spaces) {
+        CarParkProperties properties = new CarParkProperties();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        TimeOrderedBillIdGenerator billIds = new TimeOrderedBillIdGenerator(0);
+        CompiledTariff tariff = CompiledTariff.compile(properties.getTariff());
+        Map<String, ParkingService> services = new LinkedHashMap<>();
+        for (int s = 0; s < sites; s++) {
+            String id = "site-" + s;
+            CarParkProperties.Site site = new CarParkProperties.Site();
+            site.getZones().add(new CarParkProperties.Zone("A", 0, spaces));
+            properties.getSites().put(id, site);
+            ParkingRepository repository = new ParkingRepository(properties.forSite(id));
+            BenchmarkCarPark.fill(repository, spaces / 4);
+            services.put(id, new ParkingService(repository, billIds, tariff, registry, id));
+        }
+        return new CarParkSites(services);
+    }
+
+    private static void run(CarParkSites carParkSites, List<String> ids, int cycles) {
+        for (int i = 0; i < cycles; i++) {
+            ParkingService service = carParkSites.get(ids.get(i % ids.size()));
+            String vehicleReg = "CYCLE " + (i & 0xFF);
+            service.parkVehicle(new ParkVehicleRequest(vehicleReg, 1, null));
+            service.generateBillAndExit(new BillRequest(vehicleReg));
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,87 @@
+package com.carpark.benchmark;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.VehicleType;
+import com.carpark.service.tariff.CompiledTariff;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices one stay, and re-prices every open session of a car park of the given size
+ * and occupancy in one pass, with the default tariff and with time-of-day bands and a
+ * daily cap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TariffBenchmark {
+
+    @Param({"50", "10000", "1000000"})
+    public int spaces;
+
+    @Param({"0.0", "0.5", "0.99"})
+    public double occupancy;
+
+    @Param({"default", "banded"})
+    public String tariff;
+
+    private CompiledTariff compiled;
+    private VehicleType[] types;
+    private LocalDateTime[] timesIn;
+    private LocalDateTime now;
+    private int sessions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CarParkProperties.Tariff rules = new CarParkProperties.Tariff();
+        if ("banded".equals(tariff)) {
+            rules.setDailyCap(new BigDecimal("30.00"));
+            for (int hour = 0; hour < 24; hour += 2) {
+                CarParkProperties.Band band = new CarParkProperties.Band();
+                band.setStart(LocalTime.of(hour, 0));
+                band.getRates().put(VehicleType.LARGE, BigDecimal.valueOf(20 + hour, 2));
+                rules.getBands().add(band);
+            }
+        }
+        compiled = CompiledTariff.compile(rules);
+        Random random = new Random(1);
+        now = LocalDateTime.of(2024, 6, 1, 12, 0);
+        sessions = Math.max(1, (int) (spaces * occupancy));
+        types = new VehicleType[sessions];
+        timesIn = new LocalDateTime[sessions];
+        for (int i = 0; i < sessions; i++) {
+            types[i] = VehicleType.values()[i % VehicleType.values().length];
+            timesIn[i] = now.minusMinutes(random.nextInt(3 * 24 * 60));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long charge(Cursor cursor) {
+        int i = cursor.next;
+        cursor.next = i + 1 == sessions ? 0 : i + 1;
+        return compiled.charge(types[i], timesIn[i], now);
+    }
+
+    @Benchmark
+    public long repriceAll() {
+        long total = 0;
+        for (int i = 0; i < sessions; i++) {
+            total += compiled.charge(types[i], timesIn[i], now);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,284 @@
+package com.carpark.benchmark.load;
+
+import com.carpark.CarParkApplication;
+import com.carpark.controller.gate.GateProtocol;
+import com.carpark.controller.gate.GateServer;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of entries and exits sent over HTTP and over the gate
+ * protocol, against one application on localhost serving both. Each of
+ * {@code connections=} clients parks a vehicle and bills it, over and over, as fast as
+ * the server answers:
+ *
+ * <ul>
+ *   <li>{@code http} - JSON over keep-alive HTTP/1.1, one request at a time per
+ *       connection</li>
+ *   <li>{@code gate} - the gate protocol, one request at a time per connection</li>
+ *   <li>{@code gate-pipelined} - the gate protocol with {@code depth=} requests in
+ *       flight per connection, a new one sent as each is answered</li>
+ * </ul>
+ *
+ * Unlike {@link LoadGenerator} the load is closed-loop, so it measures the most each
+ * path can sustain rather than latency at a given rate; latency counts from when a
+ * request was sent. Takes {@code connections=} (default 8), {@code depth=} (32),
+ * {@code modes=}, and the {@code duration=}, {@code warmup=}, {@code spaces=} and
+ * {@code app.NAME=VALUE} settings of {@link LoadTestOptions}.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec \
+ *     -Dbenchmark.main=com.carpark.benchmark.load.GateProtocolComparison -Djmh.args="connections=8 depth=32"
+ * </pre>
+ */
+public final class GateProtocolComparison {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private GateProtocolComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        int connections = Integer.parseInt(options.get("connections", "8"));
+        int depth = Integer.parseInt(options.get("depth", "32"));
+        List<String> modes = List.of(options.get("modes", "http,gate,gate-pipelined").split(","));
+
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--carpark.zones[0].name=A",
+                "--carpark.zones[0].level=0",
+                "--carpark.zones[0].spaces=" + options.spaces(),
+                // Both kinds of client stay connected for the whole run
+                "--server.tomcat.max-keep-alive-requests=-1",
+                "--carpark.gate.enabled=true",
+                "--carpark.gate.address=127.0.0.1",
+                "--carpark.gate.port=0",
+                "--carpark.gate.max-in-flight=" + Math.max(depth, 256)));
+        options.appProperties().forEach((name, value) -> appArgs.add("--" + name + "=" + value));
+        ConfigurableApplicationContext app = SpringApplication.run(CarParkApplication.class, appArgs.toArray(new String[0]));
+        ExecutorService clients = Executors.newFixedThreadPool(connections);
+        try {
+            int httpPort = Integer.parseInt(app.getEnvironment().getProperty("local.server.port"));
+            int gatePort = app.getBean(GateServer.class).port();
+            System.out.printf("%d connections, %s warm-up and %s measured per mode%n",
+                    connections, options.warmup(), options.duration());
+
+            List<String> rows = new ArrayList<>();
+            for (String mode : modes) {
+                List<Future<Long>> runs = new ArrayList<>();
+                List<Histogram> latencies = new ArrayList<>();
+                long measureFrom = System.nanoTime() + options.warmup().toNanos();
+                long end = measureFrom + options.duration().toNanos();
+                for (int c = 0; c < connections; c++) {
+                    Histogram histogram = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+                    latencies.add(histogram);
+                    String prefix = mode.charAt(0) + (mode.endsWith("pipelined") ? "P" : "") + c + "-";
+                    Callable<Long> client = switch (mode) {
+                        case "http" -> () -> http(httpPort, prefix, measureFrom, end, histogram);
+                        case "gate" -> () -> gate(gatePort, 1, prefix, measureFrom, end, histogram);
+                        case "gate-pipelined" -> () -> gate(gatePort, depth, prefix, measureFrom, end, histogram);
+                        default -> throw new IllegalArgumentException("Unknown mode " + mode
+                                + "; expected http, gate or gate-pipelined");
+                    };
+                    runs.add(clients.submit(client));
+                }
+                long errors = 0;
+                for (Future<Long> run : runs) {
+                    errors += run.get();
+                }
+                Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+                latencies.forEach(total::add);
+                double seconds = options.duration().toNanos() / 1e9;
+                rows.add(String.format("%-15s %10d %10.0f %9.1f %9.1f %9.1f %9.1f %7d",
+                        mode, total.getTotalCount(), total.getTotalCount() / seconds,
+                        micros(total, 50), micros(total, 99), micros(total, 99.9),
+                        total.getMaxValue() / 1e3, errors));
+            }
+
+            System.out.printf("%n%-15s %10s %10s %9s %9s %9s %9s %7s%n",
+                    "mode", "requests", "req/s", "p50 us", "p99 us", "p99.9 us", "max us", "errors");
+            rows.forEach(System.out::println);
+        } finally {
+            clients.shutdownNow();
+            app.close();
+        }
+    }
+
+    /**
+     * Parks and bills vehicles over one keep-alive HTTP connection until {@code end},
+     * and returns how many measured requests failed. Requests are written and
+     * responses read directly on the socket, so the client costs about as little as
+     * the gate protocol's.
+     */
+    private static long http(int port, String prefix, long measureFrom, long end, Histogram latencies)
+            throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port))) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ByteBuffer out = ByteBuffer.allocate(512);
+            ByteBuffer in = ByteBuffer.allocate(16 * 1024);
+            long errors = 0;
+            for (long n = 0; System.nanoTime() < end; n++) {
+                String vehicleReg = prefix + n;
+                errors += exchange(channel, out, in, "/parking",
+                        "{\"vehicleReg\":\"" + vehicleReg + "\",\"vehicleType\":1}", 201, measureFrom, latencies);
+                errors += exchange(channel, out, in, "/parking/bill",
+                        "{\"vehicleReg\":\"" + vehicleReg + "\"}", 200, measureFrom, latencies);
+            }
+            return errors;
+        }
+    }
+
+    private static int exchange(SocketChannel channel, ByteBuffer out, ByteBuffer in, String path, String json,
+                                int expected, long measureFrom, Histogram latencies) throws IOException {
+        long sent = System.nanoTime();
+        out.put(("POST " + path + " HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                + "Content-Length: " + json.length() + "\r\n\r\n" + json).getBytes(StandardCharsets.US_ASCII));
+        write(channel, out);
+        int status = readResponse(channel, in);
+        if (sent < measureFrom) {
+            return 0;
+        }
+        latencies.recordValue(Math.min(System.nanoTime() - sent, HIGHEST_TRACKABLE_NANOS));
+        return status == expected ? 0 : 1;
+    }
+
+    /**
+     * Reads one response, its body sized by {@code Content-Length} or chunked, and
+     * returns its status.
+     */
+    private static int readResponse(SocketChannel channel, ByteBuffer in) throws IOException {
+        in.clear();
+        int headerEnd;
+        while ((headerEnd = indexOf(in, "\r\n\r\n", 0)) < 0) {
+            read(channel, in);
+        }
+        String headers = new String(in.array(), 0, headerEnd, StandardCharsets.US_ASCII).toLowerCase();
+        int status = Integer.parseInt(headers.substring(9, 12));
+        int lengthAt = headers.indexOf("content-length:");
+        if (lengthAt >= 0) {
+            int length = Integer.parseInt(headers.substring(lengthAt + 15, headers.indexOf("\r\n", lengthAt)).trim());
+            while (in.position() < headerEnd + 4 + length) {
+                read(channel, in);
+            }
+        } else if (headers.contains("transfer-encoding: chunked")) {
+            while (indexOf(in, "0\r\n\r\n", headerEnd + 4) < 0) {
+                read(channel, in);
+            }
+        }
+        return status;
+    }
+
+    private static void read(SocketChannel channel, ByteBuffer in) throws IOException {
+        if (channel.read(in) < 0) {
+            throw new EOFException("HTTP connection closed by the server");
+        }
+    }
+
+    private static int indexOf(ByteBuffer in, String token, int from) {
+        byte[] bytes = in.array();
+        outer:
+        for (int i = from; i <= in.position() - token.length(); i++) {
+            for (int j = 0; j < token.length(); j++) {
+                if (bytes[i + j] != token.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parks and bills vehicles over one gate connection with up to {@code depth}
+     * requests unanswered until {@code end}, and returns how many measured requests
+     * failed. Even request ids park a vehicle and the following odd id bills it.
+     */
+    private static long gate(int port, int depth, String prefix, long measureFrom, long end,
+                             Histogram latencies) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port))) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ByteBuffer out = ByteBuffer.allocate(depth * 64);
+            ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+            // Ids in flight are always within depth of each other, so each has its own slot
+            long[] sentAt = new long[depth];
+            int next = 0;
+            int outstanding = 0;
+            long errors = 0;
+            while (outstanding < depth) {
+                sentAt[next % depth] = System.nanoTime();
+                request(out, next++, prefix);
+                outstanding++;
+            }
+            write(channel, out);
+            while (outstanding > 0) {
+                if (channel.read(in) < 0) {
+                    throw new EOFException("Gate connection closed by the server");
+                }
+                in.flip();
+                while (in.remaining() >= 4 && in.remaining() >= 4 + in.getInt(in.position())) {
+                    int length = in.getInt();
+                    int requestId = in.getInt();
+                    byte status = in.get();
+                    in.position(in.position() + length - 5);
+                    outstanding--;
+                    long now = System.nanoTime();
+                    long sent = sentAt[requestId % depth];
+                    if (sent >= measureFrom) {
+                        latencies.recordValue(Math.min(now - sent, HIGHEST_TRACKABLE_NANOS));
+                        if (status != GateProtocol.OK) {
+                            errors++;
+                        }
+                    }
+                    if (now < end) {
+                        sentAt[next % depth] = now;
+                        request(out, next++, prefix);
+                        outstanding++;
+                    }
+                }
+                in.compact();
+                write(channel, out);
+            }
+            return errors;
+        }
+    }
+
+    private static void request(ByteBuffer out, int requestId, String prefix) {
+        String vehicleReg = prefix + requestId / 2;
+        if (requestId % 2 == 0) {
+            GateProtocol.putPark(out, requestId, vehicleReg, 1, null);
+        } else {
+            GateProtocol.putBill(out, requestId, vehicleReg);
+        }
+    }
+
+    private static void write(SocketChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private static double micros(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e3;
+    }
+}
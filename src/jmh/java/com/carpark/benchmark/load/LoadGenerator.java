@@ -0,0 +1,323 @@
+package com.carpark.benchmark.load;
+
+import com.carpark.CarParkApplication;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of the HTTP API: starts the application on a free local port
+ * (or targets {@code url=}), sends a mix of entries, exits and status reads at a fixed
+ * rate, and reports latency percentiles per endpoint.
+ *
+ * Requests are scheduled open-loop: request {@code i} is due at {@code start + i / rate}
+ * whether or not earlier requests have completed, and its latency is measured from
+ * when it was due, not from when it was sent. A stall in the server therefore shows up
+ * in the latency of every request that should have been sent during it, instead of
+ * quietly lowering the request rate (coordinated omission).
+ *
+ * Exits leave with vehicles that this run parked; when none are parked the exit names
+ * an unknown vehicle, which exercises the 404 path. 409 and 404 responses are counted
+ * as rejections, not errors. The run exits with status 1 if any latency objective or
+ * the error budget is missed. See {@link LoadTestOptions} for the settings.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec \
+ *     -Dbenchmark.main=com.carpark.benchmark.load.LoadGenerator -Djmh.args="rate=1000 duration=60s"
+ * </pre>
+ *
+ * {@link ServingModeComparison} runs the same load against the servlet stack on
+ * platform and virtual threads and against the reactive stack.
+ */
+public final class LoadGenerator {
+
+    enum Endpoint {
+        ENTRY(201, 409),
+        EXIT(200, 404),
+        STATUS(200, -1);
+
+        private final int success;
+        private final int rejection;
+
+        Endpoint(int success, int rejection) {
+            this.success = success;
+            this.rejection = rejection;
+        }
+    }
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+    private final URI base;
+    private final HttpClient client;
+    private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+    private final ConcurrentLinkedQueue<String> parked = new ConcurrentLinkedQueue<>();
+    private final AtomicLong vehicles = new AtomicLong();
+    // Requests sent and not yet answered; however many a stalled server leaves outstanding
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Object drained = new Object();
+
+    private LoadGenerator(LoadTestOptions options, URI base, ExecutorService callbacks) {
+        this.options = options;
+        this.base = base;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(callbacks)
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new Stats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(execute(LoadTestOptions.parse(args)).passed() ? 0 : 1);
+    }
+
+    /**
+     * Runs the load test, starting and stopping the application unless {@code url=}
+     * names one, and prints and returns its results.
+     */
+    static Report execute(LoadTestOptions options) throws IOException, InterruptedException {
+        ConfigurableApplicationContext app = null;
+        URI base = options.url();
+        if (base == null) {
+            List<String> appArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN",
+                    "--carpark.zones[0].name=A",
+                    "--carpark.zones[0].level=0",
+                    "--carpark.zones[0].spaces=" + options.spaces(),
+                    "--spring.main.web-application-type=" + (options.reactive() ? "reactive" : "servlet"),
+                    "--spring.threads.virtual.enabled=" + options.virtualThreads()));
+            options.appProperties().forEach((name, value) -> appArgs.add("--" + name + "=" + value));
+            app = SpringApplication.run(CarParkApplication.class, appArgs.toArray(new String[0]));
+            base = URI.create("http://localhost:" + app.getEnvironment().getProperty("local.server.port"));
+        }
+
+        ExecutorService callbacks = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            return new LoadGenerator(options, base, callbacks).run();
+        } finally {
+            callbacks.shutdownNow();
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    private Report run() throws IOException, InterruptedException {
+        Endpoint[] schedule = weightedEndpoints(options.mix());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        System.out.printf("Sending %.0f requests/s to %s for %s after %s warm-up%n",
+                options.rate(), base, options.duration(), options.warmup());
+        if (options.url() == null) {
+            boolean virtual = options.virtualThreads() && Runtime.version().feature() >= 21;
+            System.out.println(options.reactive()
+                    ? "Requests are served by WebFlux on the Netty event loop"
+                    : "Requests are served on " + (virtual ? "virtual" : "platform") + " threads");
+        }
+
+        long maxLagNanos = 0;
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * intervalNanos);
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                maxLagNanos = Math.max(maxLagNanos, -wait);
+            }
+            Endpoint endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            send(endpoint, due, due >= measureFrom);
+        }
+
+        if (!awaitDrained(DRAIN_TIMEOUT)) {
+            System.out.println("Gave up waiting for " + inFlight.get() + " outstanding requests after "
+                    + DRAIN_TIMEOUT);
+        }
+        if (maxLagNanos > TimeUnit.MILLISECONDS.toNanos(10)) {
+            System.out.printf("Warning: the sender fell up to %.1f ms behind schedule; "
+                    + "latencies still count from when each request was due%n", maxLagNanos / 1e6);
+        }
+        return report();
+    }
+
+    private void send(Endpoint endpoint, long due, boolean measured) {
+        String vehicleReg = null;
+        HttpRequest.Builder request = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+        switch (endpoint) {
+            case ENTRY -> {
+                vehicleReg = "LT" + vehicles.incrementAndGet();
+                int vehicleType = ThreadLocalRandom.current().nextInt(1, 4);
+                request.uri(base.resolve("/parking")).header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"vehicleReg\":\"" + vehicleReg + "\",\"vehicleType\":" + vehicleType + "}"));
+            }
+            case EXIT -> {
+                String leaving = parked.poll();
+                String exitReg = leaving != null ? leaving : "UNKNOWN" + vehicles.incrementAndGet();
+                request.uri(base.resolve("/parking/bill")).header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"vehicleReg\":\"" + exitReg + "\"}"));
+            }
+            case STATUS -> request.uri(base.resolve("/parking")).GET();
+        }
+
+        String entering = vehicleReg;
+        inFlight.incrementAndGet();
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long latency = System.nanoTime() - due;
+                    int status = response == null ? -1 : response.statusCode();
+                    if (entering != null && status == Endpoint.ENTRY.success) {
+                        parked.add(entering);
+                    }
+                    if (measured) {
+                        stats.get(endpoint).record(endpoint, status, latency);
+                    }
+                    if (inFlight.decrementAndGet() == 0) {
+                        synchronized (drained) {
+                            drained.notifyAll();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Waits until every request sent has been answered, or the timeout passes.
+     * Returns whether they all were.
+     */
+    private boolean awaitDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (drained) {
+            while (inFlight.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(drained, remaining);
+            }
+        }
+        return true;
+    }
+
+    private Report report() throws IOException {
+        Path output = options.output();
+        Files.createDirectories(output);
+        boolean passed = true;
+        List<String> breaches = new ArrayList<>();
+        Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, Long> failures = new EnumMap<>(Endpoint.class);
+
+        System.out.printf("%n%-8s %9s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "rejected", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Stats endpointStats = stats.get(endpoint);
+            Histogram histogram = endpointStats.latencies.getIntervalHistogram();
+            long requests = histogram.getTotalCount();
+            long errors = endpointStats.errors.sum();
+            latencies.put(endpoint, histogram);
+            failures.put(endpoint, errors);
+            System.out.printf("%-8s %9d %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.name().toLowerCase(), requests, endpointStats.rejected.sum(), errors,
+                    millis(histogram, "p50"), millis(histogram, "p90"), millis(histogram, "p99"),
+                    millis(histogram, "p99.9"), millis(histogram, "max"));
+
+            Path file = output.resolve(endpoint.name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, 1e6);
+            }
+
+            if (requests > 0 && errors > options.maxErrorRate() * requests) {
+                breaches.add(String.format("%s: %d of %d requests failed", endpoint, errors, requests));
+            }
+            for (String percentile : LoadTestOptions.PERCENTILES) {
+                Duration slo = options.slo(endpoint, percentile);
+                if (slo != null && requests > 0 && millis(histogram, percentile) > slo.toNanos() / 1e6) {
+                    breaches.add(String.format("%s: %s %.2f ms exceeds %s",
+                            endpoint, percentile, millis(histogram, percentile), slo));
+                }
+            }
+        }
+        System.out.println("\nHistograms (milliseconds) written to " + output.toAbsolutePath());
+
+        for (String breach : breaches) {
+            System.out.println("SLO breached - " + breach);
+            passed = false;
+        }
+        System.out.println(passed ? "All SLOs met" : "FAILED");
+        return new Report(passed, latencies, failures);
+    }
+
+    static double millis(Histogram histogram, String percentile) {
+        long nanos = "max".equals(percentile)
+                ? histogram.getMaxValue()
+                : histogram.getValueAtPercentile(Double.parseDouble(percentile.substring(1)));
+        return nanos / 1e6;
+    }
+
+    private static Endpoint[] weightedEndpoints(Map<Endpoint, Integer> mix) {
+        List<Endpoint> schedule = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                schedule.add(endpoint);
+            }
+        });
+        if (schedule.isEmpty()) {
+            throw new IllegalArgumentException("The traffic mix has no weight");
+        }
+        return schedule.toArray(new Endpoint[0]);
+    }
+
+    /**
+     * Outcome of a run: whether every objective was met, and the measured latencies and
+     * failed requests per endpoint.
+     */
+    record Report(boolean passed, Map<Endpoint, Histogram> latencies, Map<Endpoint, Long> errors) {
+    }
+
+    private static final class Stats {
+        private final Recorder latencies = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        void record(Endpoint endpoint, int status, long latencyNanos) {
+            latencies.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+            if (status == endpoint.rejection) {
+                rejected.increment();
+            } else if (status != endpoint.success) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.carpark.benchmark.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Settings for a {@link LoadGenerator} run, given as {@code name=value} arguments.
+ *
+ * <pre>
+ *   rate=500                        requests per second, across all endpoints
+ *   duration=30s                    measured run, after the warm-up
+ *   warmup=5s                       traffic sent but not measured
+ *   spaces=10000                    size of the car park started for the run
+ *   mix=entry:45,exit:45,status:10  relative weight of each endpoint
+ *   url=http://host:8080            test a running instance instead of starting one
+ *   stack=servlet                   web stack of the started instance: servlet, or
+ *                                   reactive (WebFlux on Netty)
+ *   threads=platform                request threads of the servlet stack: platform,
+ *                                   or virtual (needs Java 21)
+ *   app.NAME=VALUE                  property of the started instance, for example
+ *                                   app.server.tomcat.threads.max=50
+ *   output=target/loadtest          where the histogram files are written
+ *   slo.p99=50ms                    latency objective for every endpoint; also p50,
+ *   slo.p99.9=200ms                 p90 and max, or per endpoint as slo.entry.p99
+ *   max-error-rate=0                fraction of requests allowed to fail
+ * </pre>
+ */
+final class LoadTestOptions {
+
+    static final String[] PERCENTILES = {"p50", "p90", "p99", "p99.9", "max"};
+
+    private final Map<String, String> values = new HashMap<>();
+    // Names set by an argument or by with(), as opposed to left at their default
+    private final Set<String> given = new HashSet<>();
+
+    private LoadTestOptions() {
+        values.put("rate", "500");
+        values.put("duration", "30s");
+        values.put("warmup", "5s");
+        values.put("spaces", "10000");
+        values.put("mix", "entry:45,exit:45,status:10");
+        values.put("output", "target/loadtest");
+        values.put("slo.p99", "50ms");
+        values.put("slo.p99.9", "200ms");
+        values.put("max-error-rate", "0");
+    }
+
+    /**
+     * Returns a copy with one setting changed.
+     */
+    LoadTestOptions with(String name, String value) {
+        LoadTestOptions options = new LoadTestOptions();
+        options.values.putAll(values);
+        options.given.addAll(given);
+        options.values.put(name, value);
+        options.given.add(name);
+        return options;
+    }
+
+    /**
+     * Returns whether the setting was given, rather than left at its default.
+     */
+    boolean has(String name) {
+        return given.contains(name);
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected name=value: " + arg);
+            }
+            options.values.put(arg.substring(0, equals), arg.substring(equals + 1));
+            options.given.add(arg.substring(0, equals));
+        }
+        return options;
+    }
+
+    double rate() {
+        return Double.parseDouble(values.get("rate"));
+    }
+
+    Duration duration() {
+        return DurationStyle.detectAndParse(values.get("duration"));
+    }
+
+    Duration warmup() {
+        return DurationStyle.detectAndParse(values.get("warmup"));
+    }
+
+    int spaces() {
+        return Integer.parseInt(values.get("spaces"));
+    }
+
+    /**
+     * Returns the base URL of the instance to test, or null to start one.
+     */
+    URI url() {
+        String url = values.get("url");
+        return url == null ? null : URI.create(url);
+    }
+
+    boolean virtualThreads() {
+        String threads = values.getOrDefault("threads", "platform");
+        return switch (threads) {
+            case "platform" -> false;
+            case "virtual" -> true;
+            default -> throw new IllegalArgumentException("threads must be platform or virtual: " + threads);
+        };
+    }
+
+    boolean reactive() {
+        String stack = values.getOrDefault("stack", "servlet");
+        return switch (stack) {
+            case "servlet" -> false;
+            case "reactive" -> true;
+            default -> throw new IllegalArgumentException("stack must be servlet or reactive: " + stack);
+        };
+    }
+
+    /**
+     * Returns the {@code app.} settings, without the prefix.
+     */
+    Map<String, String> appProperties() {
+        Map<String, String> properties = new TreeMap<>();
+        values.forEach((name, value) -> {
+            if (name.startsWith("app.")) {
+                properties.put(name.substring("app.".length()), value);
+            }
+        });
+        return properties;
+    }
+
+    Path output() {
+        return Paths.get(values.get("output"));
+    }
+
+    double maxErrorRate() {
+        return Double.parseDouble(values.get("max-error-rate"));
+    }
+
+    Map<LoadGenerator.Endpoint, Integer> mix() {
+        Map<LoadGenerator.Endpoint, Integer> mix = new EnumMap<>(LoadGenerator.Endpoint.class);
+        for (String part : values.get("mix").split(",")) {
+            String[] weight = part.split(":");
+            mix.put(LoadGenerator.Endpoint.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+
+    /**
+     * Returns the latency objective for the endpoint at the percentile, or null if
+     * there is none.
+     */
+    Duration slo(LoadGenerator.Endpoint endpoint, String percentile) {
+        String value = values.getOrDefault("slo." + endpoint.name().toLowerCase() + "." + percentile,
+                values.get("slo." + percentile));
+        return value == null ? null : DurationStyle.detectAndParse(value);
+    }
+}
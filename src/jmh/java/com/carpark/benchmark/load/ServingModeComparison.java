@@ -0,0 +1,97 @@
+package com.carpark.benchmark.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the same {@link LoadGenerator} load against the application served each way
+ * in turn, and prints their latencies side by side:
+ *
+ * <ul>
+ *   <li>{@code platform} - servlet stack on Tomcat's platform-thread pool</li>
+ *   <li>{@code virtual} - servlet stack on virtual threads (Java 21)</li>
+ *   <li>{@code reactive} - WebFlux on the Netty event loop</li>
+ * </ul>
+ *
+ * Takes the {@link LoadTestOptions} arguments plus {@code modes=}, a comma-separated
+ * list that defaults to every mode the runtime supports. Each run's histograms are
+ * written under {@code output/<mode>}. Unless told otherwise it drives 2000
+ * requests/s with the journal on, so every park and exit waits until the change is on
+ * disk: the case where a bounded pool runs out of threads. Raise {@code rate=} or
+ * lower {@code app.server.tomcat.threads.max=} to push further. The traffic mix must
+ * stay within the endpoints the reactive stack serves, which the default mix does.
+ *
+ * <pre>
+ * mvn -Pbenchmarks,java21 test-compile exec:exec \
+ *     -Dbenchmark.main=com.carpark.benchmark.load.ServingModeComparison -Djmh.args="rate=5000"
+ * </pre>
+ */
+public final class ServingModeComparison {
+
+    private ServingModeComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (options.url() != null) {
+            throw new IllegalArgumentException("The comparison starts its own instances; url= cannot be used");
+        }
+        if (!options.has("rate")) {
+            options = options.with("rate", "2000");
+        }
+        if (!options.has("app.carpark.journal.enabled")) {
+            options = options.with("app.carpark.journal.enabled", "true");
+        }
+        List<String> modes = List.of(options.get("modes",
+                Runtime.version().feature() >= 21 ? "platform,virtual,reactive" : "platform,reactive").split(","));
+        if (modes.contains("virtual") && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21, but this is Java "
+                    + Runtime.version().feature() + "; run with -Pjava21 on a JDK 21");
+        }
+
+        Map<LoadGenerator.Endpoint, Histogram[]> latencies = new EnumMap<>(LoadGenerator.Endpoint.class);
+        Map<LoadGenerator.Endpoint, long[]> errors = new EnumMap<>(LoadGenerator.Endpoint.class);
+        boolean passed = true;
+        for (int m = 0; m < modes.size(); m++) {
+            String mode = modes.get(m);
+            LoadTestOptions run = switch (mode) {
+                case "platform" -> options.with("stack", "servlet").with("threads", "platform");
+                case "virtual" -> options.with("stack", "servlet").with("threads", "virtual");
+                case "reactive" -> options.with("stack", "reactive");
+                default -> throw new IllegalArgumentException("Unknown mode " + mode
+                        + "; expected platform, virtual or reactive");
+            };
+            run = run.with("output", options.output().resolve(mode).toString());
+            if (!options.has("app.carpark.journal.directory")) {
+                run = run.with("app.carpark.journal.directory",
+                        Files.createTempDirectory("carpark-journal-" + mode).toString());
+            }
+            System.out.printf("%n=== %s ===%n", mode);
+            LoadGenerator.Report report = LoadGenerator.execute(run);
+            passed &= report.passed();
+            for (LoadGenerator.Endpoint endpoint : LoadGenerator.Endpoint.values()) {
+                latencies.computeIfAbsent(endpoint, e -> new Histogram[modes.size()])[m] =
+                        report.latencies().get(endpoint);
+                errors.computeIfAbsent(endpoint, e -> new long[modes.size()])[m] = report.errors().get(endpoint);
+            }
+        }
+
+        System.out.printf("%n%-8s %-9s %9s %9s %9s %9s %9s %7s%n",
+                "endpoint", "mode", "requests", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (LoadGenerator.Endpoint endpoint : LoadGenerator.Endpoint.values()) {
+            for (int m = 0; m < modes.size(); m++) {
+                Histogram histogram = latencies.get(endpoint)[m];
+                System.out.printf("%-8s %-9s %9d %9.2f %9.2f %9.2f %9.2f %7d%n",
+                        endpoint.name().toLowerCase(), modes.get(m), histogram.getTotalCount(),
+                        LoadGenerator.millis(histogram, "p50"), LoadGenerator.millis(histogram, "p99"),
+                        LoadGenerator.millis(histogram, "p99.9"), LoadGenerator.millis(histogram, "max"),
+                        errors.get(endpoint)[m]);
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+}
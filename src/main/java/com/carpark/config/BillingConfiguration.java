@@ -0,0 +1,30 @@
+package com.carpark.config;
+
+import com.carpark.service.BillIdGenerator;
+import com.carpark.service.RandomUuidBillIdGenerator;
+import com.carpark.service.TimeOrderedBillIdGenerator;
+import com.carpark.service.tariff.CompiledTariff;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chooses how bill identifiers are generated, with {@code carpark.billing.id-strategy},
+ * and compiles the {@code carpark.tariff.*} pricing rules.
+ */
+@Configuration
+public class BillingConfiguration {
+
+    @Bean
+    public BillIdGenerator billIdGenerator(CarParkProperties properties) {
+        CarParkProperties.Billing billing = properties.getBilling();
+        return switch (billing.getIdStrategy()) {
+            case TIME_ORDERED -> new TimeOrderedBillIdGenerator(billing.getNodeId());
+            case RANDOM_UUID -> new RandomUuidBillIdGenerator();
+        };
+    }
+
+    @Bean
+    public CompiledTariff compiledTariff(CarParkProperties properties) {
+        return CompiledTariff.compile(properties.getTariff());
+    }
+}
@@ -0,0 +1,231 @@
+package com.carpark.config;
+
+import com.carpark.model.VehicleType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Car park layout, bound from the {@code carpark.*} properties.
+ *
+ * Zones are listed in allocation order and their spaces are numbered consecutively,
+ * so the first zone holds spaces 1..n, the second n+1.., and so on.
+ *
+ * The zones describe the default car park. Further car parks served by the same
+ * instance are listed under {@code carpark.sites.<id>}, each with its own zones and
+ * sharing every other setting.
+ */
+@Data
+@ConfigurationProperties(prefix = "carpark")
+public class CarParkProperties {
+
+    /** Id under which the car park laid out by {@code carpark.zones} is served. */
+    public static final String DEFAULT_SITE = "default";
+
+    private static final Pattern SITE_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private List<Zone> zones = new ArrayList<>();
+
+    /** Further car parks, by id. */
+    private Map<String, Site> sites = new LinkedHashMap<>();
+
+    private Storage storage = new Storage();
+
+    private Journal journal = new Journal();
+
+    private Billing billing = new Billing();
+
+    private Tariff tariff = new Tariff();
+
+    private Stream stream = new Stream();
+
+    private Gate gate = new Gate();
+
+    /**
+     * A single level of 50 spaces, used when no zones are configured.
+     */
+    public static CarParkProperties defaults() {
+        CarParkProperties properties = new CarParkProperties();
+        properties.getZones().add(new Zone("A", 0, 50));
+        return properties;
+    }
+
+    /**
+     * Returns the settings of one of the {@link #getSites() sites}: its own zones, and
+     * everything else as configured here except that its occupancy table and journal
+     * are kept under a {@code sites/<id>} directory next to the default car park's.
+     *
+     * @throws IllegalArgumentException if the id is unusable in a path or URL, or
+     *                                  names no site
+     */
+    public CarParkProperties forSite(String id) {
+        if (!SITE_ID.matcher(id).matches() || DEFAULT_SITE.equals(id)) {
+            throw new IllegalArgumentException("Site ids must be 1 to 64 letters, digits, '-' or '_', "
+                    + "and not '" + DEFAULT_SITE + "': " + id);
+        }
+        Site site = sites.get(id);
+        if (site == null) {
+            throw new IllegalArgumentException("Unknown site: " + id);
+        }
+        if (site.getZones().isEmpty()) {
+            throw new IllegalArgumentException("Site " + id + " must have at least one zone");
+        }
+        CarParkProperties properties = new CarParkProperties();
+        properties.setZones(site.getZones());
+        properties.getStorage().setMode(storage.getMode());
+        Path table = Paths.get(storage.getPath());
+        properties.getStorage().setPath(table.resolveSibling(Paths.get("sites", id, table.getFileName().toString()))
+                .toString());
+        Journal siteJournal = properties.getJournal();
+        siteJournal.setEnabled(journal.isEnabled());
+        siteJournal.setDirectory(Paths.get(journal.getDirectory(), "sites", id).toString());
+        siteJournal.setFsync(journal.isFsync());
+        siteJournal.setFlushInterval(journal.getFlushInterval());
+        siteJournal.setSegmentSize(journal.getSegmentSize());
+        siteJournal.setSnapshotInterval(journal.getSnapshotInterval());
+        properties.setBilling(billing);
+        properties.setTariff(tariff);
+        properties.setStream(stream);
+        properties.setGate(gate);
+        return properties;
+    }
+
+    /**
+     * A car park served next to the default one, from its own repository.
+     */
+    @Data
+    public static class Site {
+        private List<Zone> zones = new ArrayList<>();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Zone {
+        private String name;
+        private int level;
+        private int spaces;
+    }
+
+    public enum StorageMode {
+        /** One immutable object graph per occupied space. */
+        OBJECT,
+        /** Parallel primitive arrays, a few dozen bytes per space. */
+        COMPACT,
+        /** Fixed-width records in a memory-mapped file that outlives the process. */
+        MAPPED
+    }
+
+    @Data
+    public static class Storage {
+        private StorageMode mode = StorageMode.OBJECT;
+        /** Occupancy table file, used by the mapped mode. */
+        private String path = "data/occupancy.table";
+    }
+
+    /**
+     * Write-ahead journal of park and vacate events, replayed on startup.
+     */
+    @Data
+    public static class Journal {
+        private boolean enabled = false;
+        private String directory = "data/journal";
+        /** Force each group commit to the storage device, not just the OS page cache. */
+        private boolean fsync = true;
+        /** Longest a written-but-unsynced event waits before its batch is flushed. */
+        private Duration flushInterval = Duration.ofMillis(10);
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        /** Time between snapshots, after which older segments are deleted; 0 disables them. */
+        private Duration snapshotInterval = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Occupancy updates pushed to subscribers of {@code GET /parking/stream}.
+     */
+    @Data
+    public static class Stream {
+        /** Shortest gap between two updates to one subscriber; changes in between are coalesced. */
+        private Duration interval = Duration.ofSeconds(1);
+        /** Time after which an idle subscriber is sent a comment, so dropped connections are noticed. */
+        private Duration heartbeat = Duration.ofSeconds(15);
+    }
+
+    /**
+     * Binary TCP protocol for gate hardware, served next to the REST API.
+     */
+    @Data
+    public static class Gate {
+        private boolean enabled = false;
+        /** Interface to listen on; unset for all of them. */
+        private String address;
+        /** 0 picks a free port. */
+        private int port = 9090;
+        /** Requests one connection may have unanswered before the server stops reading from it. */
+        private int maxInFlight = 256;
+    }
+
+    public enum BillIdStrategy {
+        /** Version 7 UUIDs that sort by issue time, generated without locks. */
+        TIME_ORDERED,
+        /** Random version 4 UUIDs. */
+        RANDOM_UUID
+    }
+
+    @Data
+    public static class Billing {
+        private BillIdStrategy idStrategy = BillIdStrategy.TIME_ORDERED;
+        /** Distinguishes bill ids issued by different instances, 0 to 4095. */
+        private int nodeId = 0;
+    }
+
+    /**
+     * Pricing rules, compiled once at startup. Money is in pounds and must be a whole
+     * number of pence. Unset values fall back to the vehicle type's per-minute rate
+     * and a £1 charge per complete 5-minute block.
+     */
+    @Data
+    public static class Tariff {
+        /** Stays no longer than this are free. */
+        private Duration gracePeriod = Duration.ZERO;
+        private int blockMinutes = 5;
+        /** Charged for every complete block of the stay. */
+        private BigDecimal blockCharge = BigDecimal.ONE;
+        /** Most charged for any 24 hours from entry; unset for no cap. */
+        private BigDecimal dailyCap;
+        /** Time-of-day bands; each runs until the next starts, the last wrapping past midnight. */
+        private List<Band> bands = new ArrayList<>();
+        /** Per vehicle type values that replace the ones above. */
+        private Map<VehicleType, TypeTariff> types = new EnumMap<>(VehicleType.class);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Band {
+        private LocalTime start;
+        /** Per-minute rate of each vehicle type in this band; unset types keep their usual rate. */
+        private Map<VehicleType, BigDecimal> rates = new EnumMap<>(VehicleType.class);
+    }
+
+    @Data
+    public static class TypeTariff {
+        private BigDecimal ratePerMinute;
+        private BigDecimal blockCharge;
+        private BigDecimal dailyCap;
+        private Duration gracePeriod;
+    }
+}
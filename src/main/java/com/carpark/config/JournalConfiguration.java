@@ -0,0 +1,57 @@
+package com.carpark.config;
+
+import com.carpark.model.Occupancy;
+import com.carpark.repository.ParkingRepository;
+import com.carpark.repository.journal.JournalCheckpointer;
+import com.carpark.repository.journal.OccupancyJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Rebuilds the repository from the latest snapshot and the occupancy journal on
+ * startup, journals every change from then on, and snapshots the repository in the
+ * background. Enabled with {@code carpark.journal.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "carpark.journal", name = "enabled", havingValue = "true")
+public class JournalConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalConfiguration.class);
+
+    @Bean(destroyMethod = "close")
+    public OccupancyJournal occupancyJournal(CarParkProperties properties, ParkingRepository parkingRepository)
+            throws IOException {
+        return open(properties.getJournal(), parkingRepository);
+    }
+
+    @Bean(destroyMethod = "close")
+    public JournalCheckpointer journalCheckpointer(CarParkProperties properties, OccupancyJournal journal,
+                                                   ParkingRepository parkingRepository) {
+        return new JournalCheckpointer(journal, parkingRepository::occupancySnapshot,
+                properties.getJournal().getSnapshotInterval());
+    }
+
+    /**
+     * Opens the journal, replaces the repository's contents with the state it
+     * recovers, and journals the repository's changes from then on.
+     */
+    static OccupancyJournal open(CarParkProperties.Journal config, ParkingRepository parkingRepository)
+            throws IOException {
+        OccupancyJournal journal = new OccupancyJournal(config);
+        long start = System.nanoTime();
+        Occupancy[] state = journal.recover(parkingRepository.capacity());
+        // The journal is authoritative over whatever a persistent store kept.
+        parkingRepository.reset();
+        parkingRepository.restore(state);
+        parkingRepository.setObserver(journal);
+        log.info("Recovered {} parked vehicles from {} in {} ms",
+                parkingRepository.countOccupiedSpaces(), config.getDirectory(),
+                (System.nanoTime() - start) / 1_000_000);
+        return journal;
+    }
+}
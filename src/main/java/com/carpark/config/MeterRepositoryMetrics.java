@@ -0,0 +1,66 @@
+package com.carpark.config;
+
+import com.carpark.repository.RepositoryMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Records repository measurements into meters registered once up front. Scan and
+ * probe lengths are small integers, so they go into fixed power-of-two buckets.
+ */
+final class MeterRepositoryMetrics implements RepositoryMetrics {
+
+    private static final double[] LENGTH_BUCKETS = {1, 2, 4, 8, 16, 32, 64};
+
+    private final DistributionSummary allocationScan;
+    private final DistributionSummary lookupProbes;
+    private final Counter spaceContention;
+    private final Counter registrationContention;
+
+    MeterRepositoryMetrics(MeterRegistry registry, Tags tags) {
+        this.allocationScan = DistributionSummary.builder("carpark.allocation.scan")
+                .description("Free-space bitset words examined per allocation")
+                .baseUnit("words")
+                .tags(tags)
+                .serviceLevelObjectives(LENGTH_BUCKETS)
+                .register(registry);
+        this.lookupProbes = DistributionSummary.builder("carpark.registration.lookup")
+                .description("Registration index slots examined per lookup")
+                .baseUnit("slots")
+                .tags(tags)
+                .serviceLevelObjectives(LENGTH_BUCKETS)
+                .register(registry);
+        this.spaceContention = Counter.builder("carpark.contention")
+                .description("Allocation steps retried or abandoned because another request got there first")
+                .tags(tags)
+                .tag("on", "space")
+                .register(registry);
+        this.registrationContention = Counter.builder("carpark.contention")
+                .description("Allocation steps retried or abandoned because another request got there first")
+                .tags(tags)
+                .tag("on", "registration")
+                .register(registry);
+    }
+
+    @Override
+    public void allocationScanned(int words) {
+        allocationScan.record(words);
+    }
+
+    @Override
+    public void lookupProbed(int slots) {
+        lookupProbes.record(slots);
+    }
+
+    @Override
+    public void spaceContended() {
+        spaceContention.increment();
+    }
+
+    @Override
+    public void registrationContended() {
+        registrationContention.increment();
+    }
+}
@@ -0,0 +1,42 @@
+package com.carpark.config;
+
+import com.carpark.model.VehicleType;
+import com.carpark.repository.ParkingRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+/**
+ * Publishes occupancy gauges per vehicle type and reports the repository's allocation
+ * and lookup measurements to the meter registry, for the actuator metrics endpoint.
+ * Every meter is tagged with the id of the car park the repository holds.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public MeterBinder parkingRepositoryMetrics(ParkingRepository parkingRepository) {
+        return registry -> bind(registry, parkingRepository, CarParkProperties.DEFAULT_SITE);
+    }
+
+    static void bind(MeterRegistry registry, ParkingRepository parkingRepository, String carParkId) {
+        Tags tags = Tags.of("carpark", carParkId);
+        for (VehicleType type : VehicleType.values()) {
+            Gauge.builder("carpark.spaces.occupied", parkingRepository, r -> r.countOccupiedSpaces(type))
+                    .description("Spaces occupied by vehicles of each type")
+                    .tags(tags)
+                    .tag("vehicle_type", type.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        Gauge.builder("carpark.spaces.available", parkingRepository, ParkingRepository::countAvailableSpaces)
+                .description("Free spaces")
+                .tags(tags)
+                .register(registry);
+        parkingRepository.setMetrics(new MeterRepositoryMetrics(registry, tags));
+    }
+}
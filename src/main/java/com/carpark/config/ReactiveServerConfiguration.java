@@ -0,0 +1,22 @@
+package com.carpark.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serves the reactive stack from Netty. With Tomcat also on the classpath for the
+ * servlet stack, Spring Boot would otherwise run the reactive application on Tomcat.
+ * The event loop has one thread per core by default; set the
+ * {@code reactor.netty.ioWorkerCount} system property to change it.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
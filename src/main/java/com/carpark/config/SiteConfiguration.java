@@ -0,0 +1,106 @@
+package com.carpark.config;
+
+import com.carpark.repository.ParkingRepository;
+import com.carpark.repository.journal.JournalCheckpointer;
+import com.carpark.repository.journal.OccupancyJournal;
+import com.carpark.service.BillIdGenerator;
+import com.carpark.service.CarParkSites;
+import com.carpark.service.ParkingService;
+import com.carpark.service.tariff.CompiledTariff;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Builds a repository and service for each car park listed under
+ * {@code carpark.sites}, and serves them with the default car park as
+ * {@link CarParkSites}: the default first, then the sites in order of id.
+ *
+ * Each site gets the storage mode of the default car park, in a table of its own, and
+ * with {@code carpark.journal.enabled=true} its own journal and snapshots, recovered
+ * before it takes any request. The bill id generator and the compiled tariff are
+ * shared: neither has state that requests write.
+ */
+@Configuration
+public class SiteConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(SiteConfiguration.class);
+
+    @Bean(destroyMethod = "close")
+    SiteShards siteShards(CarParkProperties properties, BillIdGenerator billIdGenerator, CompiledTariff tariff,
+                          MeterRegistry meterRegistry) throws IOException {
+        SiteShards shards = new SiteShards();
+        try {
+            // Sorted, since property sources need not keep the order sites were listed in
+            for (String id : new TreeSet<>(properties.getSites().keySet())) {
+                shards.add(id, properties.forSite(id), billIdGenerator, tariff, meterRegistry);
+            }
+        } catch (IOException | RuntimeException e) {
+            shards.close();
+            throw e;
+        }
+        if (!shards.services().isEmpty()) {
+            log.info("Serving {} car parks besides the default one", shards.services().size());
+        }
+        return shards;
+    }
+
+    @Bean
+    public CarParkSites carParkSites(ParkingService parkingService, SiteShards shards) {
+        Map<String, ParkingService> services = new LinkedHashMap<>();
+        services.put(CarParkProperties.DEFAULT_SITE, parkingService);
+        services.putAll(shards.services());
+        return new CarParkSites(services);
+    }
+
+    /**
+     * The repositories and services of the configured sites, and what must be closed
+     * when they are discarded.
+     */
+    static final class SiteShards implements Closeable {
+
+        private final Map<String, ParkingService> services = new LinkedHashMap<>();
+        // Closed last-opened first, so a site's snapshots are taken before its journal closes
+        private final Deque<Closeable> resources = new ArrayDeque<>();
+
+        void add(String id, CarParkProperties properties, BillIdGenerator billIdGenerator, CompiledTariff tariff,
+                 MeterRegistry meterRegistry) throws IOException {
+            ParkingRepository repository = new ParkingRepository(properties);
+            resources.push(repository::close);
+            if (properties.getJournal().isEnabled()) {
+                OccupancyJournal journal = JournalConfiguration.open(properties.getJournal(), repository);
+                resources.push(journal::close);
+                resources.push(new JournalCheckpointer(journal, repository::occupancySnapshot,
+                        properties.getJournal().getSnapshotInterval()));
+            }
+            MetricsConfiguration.bind(meterRegistry, repository, id);
+            services.put(id, new ParkingService(repository, billIdGenerator, tariff, meterRegistry, id));
+        }
+
+        Map<String, ParkingService> services() {
+            return services;
+        }
+
+        @Override
+        public void close() {
+            Closeable resource;
+            while ((resource = resources.poll()) != null) {
+                try {
+                    resource.close();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Failed to close a car park site", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.carpark.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Warns when {@code spring.threads.virtual.enabled=true} is set on a runtime without
+ * virtual threads, where Spring Boot quietly keeps serving requests on platform threads.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.threads.virtual", name = "enabled", havingValue = "true")
+public class ThreadingConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfiguration.class);
+    private static final int VIRTUAL_THREADS_FEATURE = 21;
+
+    public ThreadingConfiguration() {
+        if (Runtime.version().feature() < VIRTUAL_THREADS_FEATURE) {
+            log.warn("Virtual threads need Java {}, but this is Java {}; requests are served on platform threads",
+                    VIRTUAL_THREADS_FEATURE, Runtime.version().feature());
+        }
+    }
+}
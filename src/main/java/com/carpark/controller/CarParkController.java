@@ -0,0 +1,103 @@
+package com.carpark.controller;
+
+import com.carpark.dto.*;
+import com.carpark.service.CarParkSites;
+import com.carpark.service.ParkingStatusSnapshot;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * The {@link ParkingController} contract for each car park served, under
+ * {@code /carparks/{carParkId}/parking}, and the status of them all. Requests are
+ * handed to the car park's own service, so car parks never contend with each other.
+ * The default car park is also served under {@code /carparks/default/parking}.
+ */
+@RestController
+@RequestMapping("/carparks")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CarParkController {
+
+    private final CarParkSites carParkSites;
+
+    public CarParkController(CarParkSites carParkSites) {
+        this.carParkSites = carParkSites;
+    }
+
+    /**
+     * GET /carparks
+     * Gets available and occupied number of spaces of every car park, and in total
+     */
+    @GetMapping
+    public ResponseEntity<CarParksStatusResponse> getStatus() {
+        return ResponseEntity.ok(carParkSites.getStatus());
+    }
+
+    /**
+     * GET /carparks/{carParkId}/parking
+     * Gets available and occupied number of spaces of one car park, tagged with an
+     * ETag; answers 304 Not Modified to an If-None-Match for the current tag
+     */
+    @GetMapping("/{carParkId}/parking")
+    public ResponseEntity<ParkingStatusResponse> getParkingStatus(@PathVariable String carParkId) {
+        ParkingStatusSnapshot snapshot = carParkSites.get(carParkId).getParkingStatusSnapshot();
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.status());
+    }
+
+    /**
+     * POST /carparks/{carParkId}/parking
+     * Parks a given vehicle in the first available space of the car park
+     */
+    @PostMapping("/{carParkId}/parking")
+    public ResponseEntity<ParkVehicleResponse> parkVehicle(
+            @PathVariable String carParkId, @Valid @RequestBody ParkVehicleRequest request) {
+        ParkVehicleResponse response = carParkSites.get(carParkId).parkVehicle(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * POST /carparks/{carParkId}/parking/batch
+     * Parks a burst of vehicles in the car park in one call, reporting each outcome inline
+     */
+    @PostMapping("/{carParkId}/parking/batch")
+    public ResponseEntity<List<BatchItemResponse<ParkVehicleResponse>>> parkVehicles(
+            @PathVariable String carParkId,
+            @RequestBody @NotEmpty @Size(max = ParkingController.MAX_BATCH_SIZE)
+            List<@Valid ParkVehicleRequest> requests) {
+        return ResponseEntity.ok(carParkSites.get(carParkId).parkVehicles(requests));
+    }
+
+    /**
+     * POST /carparks/{carParkId}/parking/bill
+     * Frees up vehicle's space in the car park and returns final charge
+     */
+    @PostMapping("/{carParkId}/parking/bill")
+    public ResponseEntity<BillResponse> generateBill(
+            @PathVariable String carParkId, @Valid @RequestBody BillRequest request) {
+        return ResponseEntity.ok(carParkSites.get(carParkId).generateBillAndExit(request));
+    }
+
+    /**
+     * POST /carparks/{carParkId}/parking/bill/batch
+     * Bills and frees up a batch of vehicles in the car park in one call, reporting each
+     * outcome inline
+     */
+    @PostMapping("/{carParkId}/parking/bill/batch")
+    public ResponseEntity<List<BatchItemResponse<BillResponse>>> generateBills(
+            @PathVariable String carParkId,
+            @RequestBody @NotEmpty @Size(max = ParkingController.MAX_BATCH_SIZE) List<@Valid BillRequest> requests) {
+        return ResponseEntity.ok(carParkSites.get(carParkId).generateBillsAndExit(requests));
+    }
+}
@@ -2,29 +2,63 @@ package com.carpark.controller;
 
 import com.carpark.dto.*;
 import com.carpark.service.ParkingService;
+import com.carpark.service.ParkingStatusSnapshot;
+import com.carpark.service.ParkingStatusStream;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/parking")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ParkingController {
 
+    static final int MAX_BATCH_SIZE = 1000;
+
     private final ParkingService parkingService;
+    private final ParkingStatusStream parkingStatusStream;
 
-    public ParkingController(ParkingService parkingService) {
+    public ParkingController(ParkingService parkingService, ParkingStatusStream parkingStatusStream) {
         this.parkingService = parkingService;
+        this.parkingStatusStream = parkingStatusStream;
     }
 
     /**
      * GET /parking
-     * Gets available and occupied number of spaces
+     * Gets available and occupied number of spaces, tagged with an ETag; answers
+     * 304 Not Modified to an If-None-Match for the current tag
      */
     @GetMapping
     public ResponseEntity<ParkingStatusResponse> getParkingStatus() {
-        ParkingStatusResponse status = parkingService.getParkingStatus();
-        return ResponseEntity.ok(status);
+        ParkingStatusSnapshot snapshot = parkingService.getParkingStatusSnapshot();
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                // One tag covers JSON, CBOR and Smile, so caches must key the body on Accept too
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.status());
+    }
+
+    /**
+     * GET /parking/stream
+     * Streams the parking status as server-sent events: the current status, then each
+     * change, at most one per configured interval
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ParkingStatusResponse>> streamParkingStatus(
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return parkingStatusStream.events(lastEventId);
     }
 
     /**
@@ -38,6 +72,16 @@ public class ParkingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * POST /parking/batch
+     * Parks a burst of vehicles in one call, reporting each outcome inline
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResponse<ParkVehicleResponse>>> parkVehicles(
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid ParkVehicleRequest> requests) {
+        return ResponseEntity.ok(parkingService.parkVehicles(requests));
+    }
+
     /**
      * POST /parking/bill
      * Frees up vehicle's space and returns final charge
@@ -48,4 +92,14 @@ public class ParkingController {
         BillResponse response = parkingService.generateBillAndExit(request);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * POST /parking/bill/batch
+     * Bills and frees up a batch of vehicles in one call, reporting each outcome inline
+     */
+    @PostMapping("/bill/batch")
+    public ResponseEntity<List<BatchItemResponse<BillResponse>>> generateBills(
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid BillRequest> requests) {
+        return ResponseEntity.ok(parkingService.generateBillsAndExit(requests));
+    }
 }
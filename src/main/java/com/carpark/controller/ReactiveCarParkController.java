@@ -0,0 +1,91 @@
+package com.carpark.controller;
+
+import com.carpark.dto.*;
+import com.carpark.exception.CarParkNotFoundException;
+import com.carpark.service.CarParkSites;
+import com.carpark.service.ReactiveParkingService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link CarParkController} contract on the reactive stack, for the operations
+ * {@link ReactiveParkingController} serves. Active with
+ * {@code spring.main.web-application-type=reactive}.
+ */
+@RestController
+@RequestMapping("/carparks")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCarParkController {
+
+    private final CarParkSites carParkSites;
+    private final Map<String, ReactiveParkingService> services = new HashMap<>();
+
+    public ReactiveCarParkController(CarParkSites carParkSites) {
+        this.carParkSites = carParkSites;
+        for (String id : carParkSites.ids()) {
+            services.put(id, new ReactiveParkingService(carParkSites.get(id)));
+        }
+    }
+
+    /**
+     * GET /carparks
+     * Gets available and occupied number of spaces of every car park, and in total
+     */
+    @GetMapping
+    public Mono<CarParksStatusResponse> getStatus() {
+        return Mono.fromSupplier(carParkSites::getStatus);
+    }
+
+    /**
+     * GET /carparks/{carParkId}/parking
+     * Gets available and occupied number of spaces of one car park, tagged with an
+     * ETag; answers 304 Not Modified to an If-None-Match for the current tag
+     */
+    @GetMapping("/{carParkId}/parking")
+    public Mono<ResponseEntity<ParkingStatusResponse>> getParkingStatus(@PathVariable String carParkId) {
+        return service(carParkId).getParkingStatusSnapshot()
+                .map(snapshot -> ResponseEntity.ok()
+                        .eTag(snapshot.etag())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .cacheControl(CacheControl.noCache())
+                        .body(snapshot.status()));
+    }
+
+    /**
+     * POST /carparks/{carParkId}/parking
+     * Parks a given vehicle in the first available space of the car park
+     */
+    @PostMapping("/{carParkId}/parking")
+    public Mono<ResponseEntity<ParkVehicleResponse>> parkVehicle(
+            @PathVariable String carParkId, @Valid @RequestBody ParkVehicleRequest request) {
+        return service(carParkId).parkVehicle(request)
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    /**
+     * POST /carparks/{carParkId}/parking/bill
+     * Frees up vehicle's space in the car park and returns final charge
+     */
+    @PostMapping("/{carParkId}/parking/bill")
+    public Mono<ResponseEntity<BillResponse>> generateBill(
+            @PathVariable String carParkId, @Valid @RequestBody BillRequest request) {
+        return service(carParkId).generateBillAndExit(request).map(ResponseEntity::ok);
+    }
+
+    private ReactiveParkingService service(String carParkId) {
+        ReactiveParkingService service = services.get(carParkId);
+        if (service == null) {
+            throw new CarParkNotFoundException(carParkId);
+        }
+        return service;
+    }
+}
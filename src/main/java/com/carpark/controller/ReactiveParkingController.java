@@ -0,0 +1,82 @@
+package com.carpark.controller;
+
+import com.carpark.dto.*;
+import com.carpark.service.ParkingStatusSnapshot;
+import com.carpark.service.ParkingStatusStream;
+import com.carpark.service.ReactiveParkingService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The {@link ParkingController} contract on the reactive stack, served from a small
+ * Netty event-loop pool. Active with {@code spring.main.web-application-type=reactive}.
+ */
+@RestController
+@RequestMapping("/parking")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveParkingController {
+
+    private final ReactiveParkingService parkingService;
+    private final ParkingStatusStream parkingStatusStream;
+
+    public ReactiveParkingController(ReactiveParkingService parkingService, ParkingStatusStream parkingStatusStream) {
+        this.parkingService = parkingService;
+        this.parkingStatusStream = parkingStatusStream;
+    }
+
+    /**
+     * GET /parking
+     * Gets available and occupied number of spaces, tagged with an ETag; answers
+     * 304 Not Modified to an If-None-Match for the current tag
+     */
+    @GetMapping
+    public Mono<ResponseEntity<ParkingStatusResponse>> getParkingStatus() {
+        return parkingService.getParkingStatusSnapshot()
+                .map(snapshot -> ResponseEntity.ok()
+                        .eTag(snapshot.etag())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .cacheControl(CacheControl.noCache())
+                        .body(snapshot.status()));
+    }
+
+    /**
+     * GET /parking/stream
+     * Streams the parking status as server-sent events: the current status, then each
+     * change, at most one per configured interval
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ParkingStatusResponse>> streamParkingStatus(
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return parkingStatusStream.events(lastEventId);
+    }
+
+    /**
+     * POST /parking
+     * Parks a given vehicle in the first available space
+     */
+    @PostMapping
+    public Mono<ResponseEntity<ParkVehicleResponse>> parkVehicle(
+            @Valid @RequestBody ParkVehicleRequest request) {
+        return parkingService.parkVehicle(request)
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    /**
+     * POST /parking/bill
+     * Frees up vehicle's space and returns final charge
+     */
+    @PostMapping("/bill")
+    public Mono<ResponseEntity<BillResponse>> generateBill(
+            @Valid @RequestBody BillRequest request) {
+        return parkingService.generateBillAndExit(request).map(ResponseEntity::ok);
+    }
+}
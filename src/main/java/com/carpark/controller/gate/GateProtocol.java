@@ -0,0 +1,204 @@
+package com.carpark.controller.gate;
+
+import com.carpark.dto.BillRequest;
+import com.carpark.dto.BillResponse;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.dto.ParkVehicleResponse;
+import com.carpark.exception.CarParkFullException;
+import com.carpark.exception.VehicleAlreadyParkedException;
+import com.carpark.exception.VehicleNotFoundException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Wire format of the gate protocol served by {@link GateServer}.
+ *
+ * Every message is a frame: a 4-byte length, then that many bytes. Numbers are
+ * big-endian; a string is a 1-byte length and that many UTF-8 bytes. A request frame
+ * holds an {@code int} request id chosen by the client, an opcode and the opcode's
+ * fields:
+ *
+ * <pre>
+ *   PARK (1)  byte vehicleType, string vehicleReg, string zone (empty for any zone)
+ *   BILL (2)  string vehicleReg
+ * </pre>
+ *
+ * A response frame holds the request id it answers, a status and the status's fields:
+ *
+ * <pre>
+ *   OK (0), to PARK   int spaceNumber, long timeIn
+ *   OK (0), to BILL   string billId, long chargeInPence, long timeIn, long timeOut
+ *   any other status  string message
+ * </pre>
+ *
+ * Times are local wall-clock milliseconds since 1970-01-01T00:00. Clients may send
+ * further requests without waiting for responses, which can arrive in any order.
+ */
+public final class GateProtocol {
+
+    public static final byte PARK = 1;
+    public static final byte BILL = 2;
+
+    public static final byte OK = 0;
+    public static final byte CAR_PARK_FULL = 1;
+    public static final byte VEHICLE_ALREADY_PARKED = 2;
+    public static final byte VEHICLE_NOT_FOUND = 3;
+    public static final byte BAD_REQUEST = 4;
+    public static final byte SERVER_ERROR = 5;
+
+    /** Longest request frame accepted, excluding the length itself; longer ones close the connection. */
+    public static final int MAX_REQUEST_LENGTH = 1024;
+    /** Shortest request frame: a request id and an opcode. */
+    public static final int MIN_REQUEST_LENGTH = 5;
+
+    private static final int MAX_STRING_LENGTH = 255;
+    private static final int MAX_RESPONSE_LENGTH = 4 + 4 + 1 + 1 + MAX_STRING_LENGTH + 3 * 8;
+
+    private GateProtocol() {
+    }
+
+    /**
+     * Appends a park request frame, as a client sends it.
+     */
+    public static void putPark(ByteBuffer out, int requestId, String vehicleReg, int vehicleType, String zone) {
+        int start = beginFrame(out, requestId, PARK);
+        out.put((byte) vehicleType);
+        putString(out, vehicleReg, false);
+        putString(out, zone == null ? "" : zone, false);
+        endFrame(out, start);
+    }
+
+    /**
+     * Appends a bill request frame, as a client sends it.
+     */
+    public static void putBill(ByteBuffer out, int requestId, String vehicleReg) {
+        int start = beginFrame(out, requestId, BILL);
+        putString(out, vehicleReg, false);
+        endFrame(out, start);
+    }
+
+    /**
+     * Reads the fields of a park request, after its request id and opcode.
+     *
+     * @throws IllegalArgumentException if the fields are missing or malformed
+     */
+    static ParkVehicleRequest readPark(ByteBuffer frame) {
+        try {
+            int vehicleType = frame.get();
+            String vehicleReg = requireRegistration(getString(frame));
+            String zone = getString(frame);
+            return new ParkVehicleRequest(vehicleReg, vehicleType, zone.isEmpty() ? null : zone);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated park request");
+        }
+    }
+
+    /**
+     * Reads the fields of a bill request, after its request id and opcode.
+     *
+     * @throws IllegalArgumentException if the fields are missing or malformed
+     */
+    static BillRequest readBill(ByteBuffer frame) {
+        try {
+            return new BillRequest(requireRegistration(getString(frame)));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated bill request");
+        }
+    }
+
+    static ByteBuffer parked(int requestId, ParkVehicleResponse response) {
+        ByteBuffer out = ByteBuffer.allocate(MAX_RESPONSE_LENGTH);
+        beginFrame(out, requestId, OK);
+        out.putInt(response.getSpaceNumber());
+        out.putLong(millis(response.getTimeIn()));
+        return finish(out);
+    }
+
+    static ByteBuffer billed(int requestId, BillResponse response) {
+        ByteBuffer out = ByteBuffer.allocate(MAX_RESPONSE_LENGTH);
+        beginFrame(out, requestId, OK);
+        putString(out, response.getBillId(), true);
+        out.putLong(Math.round(response.getVehicleCharge() * 100));
+        out.putLong(millis(response.getTimeIn()));
+        out.putLong(millis(response.getTimeOut()));
+        return finish(out);
+    }
+
+    /**
+     * Encodes the response to a failed request, its status chosen by the failure.
+     */
+    static ByteBuffer failed(int requestId, Throwable failure) {
+        ByteBuffer out = ByteBuffer.allocate(MAX_RESPONSE_LENGTH);
+        beginFrame(out, requestId, statusOf(failure));
+        String message = failure.getMessage();
+        putString(out, message == null ? failure.getClass().getSimpleName() : message, true);
+        return finish(out);
+    }
+
+    static byte statusOf(Throwable failure) {
+        if (failure instanceof CarParkFullException) {
+            return CAR_PARK_FULL;
+        }
+        if (failure instanceof VehicleAlreadyParkedException) {
+            return VEHICLE_ALREADY_PARKED;
+        }
+        if (failure instanceof VehicleNotFoundException) {
+            return VEHICLE_NOT_FOUND;
+        }
+        if (failure instanceof IllegalArgumentException) {
+            return BAD_REQUEST;
+        }
+        return SERVER_ERROR;
+    }
+
+    private static int beginFrame(ByteBuffer out, int requestId, byte code) {
+        int start = out.position();
+        out.putInt(0);
+        out.putInt(requestId);
+        out.put(code);
+        return start;
+    }
+
+    private static void endFrame(ByteBuffer out, int start) {
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    private static ByteBuffer finish(ByteBuffer out) {
+        endFrame(out, 0);
+        return out.flip();
+    }
+
+    private static void putString(ByteBuffer out, String value, boolean truncate) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        if (length > MAX_STRING_LENGTH) {
+            if (!truncate) {
+                throw new IllegalArgumentException("Longer than " + MAX_STRING_LENGTH + " bytes: " + value);
+            }
+            length = MAX_STRING_LENGTH;
+        }
+        out.put((byte) length);
+        out.put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(in.get())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String requireRegistration(String vehicleReg) {
+        if (vehicleReg.isBlank()) {
+            throw new IllegalArgumentException("Vehicle registration is required");
+        }
+        return vehicleReg;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
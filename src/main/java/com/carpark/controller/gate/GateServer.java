@@ -0,0 +1,357 @@
+package com.carpark.controller.gate;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.service.ParkingService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the {@link GateProtocol} over TCP to barrier hardware that stays connected,
+ * calling straight into {@link ParkingService} with no HTTP parsing, routing or JSON
+ * in between. Runs next to the REST API; enabled with {@code carpark.gate.enabled=true}.
+ *
+ * One selector thread accepts, reads and writes every connection. Each complete frame
+ * is started as soon as it is read, without waiting for earlier ones to be answered,
+ * so a client can pipeline many gate events on one connection. Operations that finish
+ * at once, as they do without the journal, are answered in the same pass, and all the
+ * responses to one read leave in a single write; the rest are written when their
+ * change is durable. A connection with {@code carpark.gate.max-in-flight} requests
+ * unanswered is not read from until some are answered, so a client that stops reading
+ * cannot make the server buffer without bound.
+ */
+@Component
+@ConditionalOnProperty(prefix = "carpark.gate", name = "enabled", havingValue = "true")
+public class GateServer {
+
+    private static final Logger log = LoggerFactory.getLogger(GateServer.class);
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_WRITE_BATCH = 64;
+
+    private final ParkingService parkingService;
+    private final int maxInFlight;
+    private final Selector selector;
+    private final ServerSocketChannel listener;
+    private final int port;
+    private final Thread thread;
+    // Connections with responses completed off the selector thread, waiting to be written
+    private final Queue<Connection> flushable = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile boolean running = true;
+
+    public GateServer(ParkingService parkingService, CarParkProperties properties, MeterRegistry meterRegistry)
+            throws IOException {
+        CarParkProperties.Gate gate = properties.getGate();
+        if (gate.getMaxInFlight() < 1) {
+            throw new IllegalArgumentException("Gate max-in-flight must be positive: " + gate.getMaxInFlight());
+        }
+        this.parkingService = parkingService;
+        this.maxInFlight = gate.getMaxInFlight();
+        this.selector = Selector.open();
+        this.listener = ServerSocketChannel.open();
+        try {
+            listener.bind(gate.getAddress() == null
+                    ? new InetSocketAddress(gate.getPort())
+                    : new InetSocketAddress(gate.getAddress(), gate.getPort()));
+            listener.configureBlocking(false);
+            listener.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            listener.close();
+            selector.close();
+            throw e;
+        }
+        this.port = ((InetSocketAddress) listener.getLocalAddress()).getPort();
+        Gauge.builder("carpark.gate.connections", connections, AtomicInteger::get)
+                .description("Open gate protocol connections")
+                .register(meterRegistry);
+        this.thread = new Thread(this::run, "gate-server");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Gate protocol listening on port {}", port);
+    }
+
+    /**
+     * Returns the port listened on, which is chosen by the system when configured as 0.
+     */
+    public int port() {
+        return port;
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(this::handle);
+                Connection connection;
+                while ((connection = flushable.poll()) != null) {
+                    connection.flushRequested.set(false);
+                    connection.flush();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Gate protocol server stopped", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection connection) {
+                    connection.close();
+                }
+            }
+            closeQuietly(listener);
+            closeQuietly(selector);
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Closing gate connection after an unexpected failure", e);
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = listener.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+            connections.incrementAndGet();
+        } catch (IOException e) {
+            log.warn("Could not accept a gate connection", e);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.debug("Failed to close {}", closeable, e);
+        }
+    }
+
+    /**
+     * One client connection. Everything but {@link #send} runs on the selector thread.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        // Responses added by whichever thread completed the operation
+        private final Queue<ByteBuffer> completed = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushRequested = new AtomicBoolean();
+        private final ArrayDeque<ByteBuffer> unwritten = new ArrayDeque<>();
+        private final ByteBuffer[] batch = new ByteBuffer[MAX_WRITE_BATCH];
+        // Requests read but not yet answered in full
+        private int inFlight;
+        private boolean inputClosed;
+        private volatile boolean closed;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() {
+            try {
+                if (channel.read(in) < 0) {
+                    inputClosed = true;
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            decode();
+            flush();
+        }
+
+        /**
+         * Starts every complete frame in the read buffer, up to the in-flight limit.
+         * Returns whether any was started.
+         */
+        private boolean decode() {
+            boolean started = false;
+            in.flip();
+            while (inFlight < maxInFlight && in.remaining() >= 4) {
+                int length = in.getInt(in.position());
+                if (length < GateProtocol.MIN_REQUEST_LENGTH || length > GateProtocol.MAX_REQUEST_LENGTH) {
+                    // The framing is lost, so nothing after this can be trusted
+                    log.debug("Closing gate connection after a frame of {} bytes", length);
+                    close();
+                    return false;
+                }
+                if (in.remaining() < 4 + length) {
+                    break;
+                }
+                ByteBuffer frame = in.slice(in.position() + 4, length);
+                in.position(in.position() + 4 + length);
+                dispatch(frame);
+                started = true;
+            }
+            in.compact();
+            return started;
+        }
+
+        private void dispatch(ByteBuffer frame) {
+            int requestId = frame.getInt();
+            byte opcode = frame.get();
+            inFlight++;
+            CompletableFuture<ByteBuffer> response;
+            try {
+                response = switch (opcode) {
+                    case GateProtocol.PARK -> parkingService.parkVehicleAsync(GateProtocol.readPark(frame))
+                            .thenApply(parked -> GateProtocol.parked(requestId, parked));
+                    case GateProtocol.BILL -> parkingService.generateBillAndExitAsync(GateProtocol.readBill(frame))
+                            .thenApply(bill -> GateProtocol.billed(requestId, bill));
+                    default -> CompletableFuture.failedFuture(
+                            new IllegalArgumentException("Unknown opcode: " + opcode));
+                };
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((encoded, failure) -> send(encoded != null ? encoded : failed(requestId, failure)));
+        }
+
+        private ByteBuffer failed(int requestId, Throwable failure) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            if (GateProtocol.statusOf(cause) == GateProtocol.SERVER_ERROR) {
+                log.error("Gate request failed", cause);
+            }
+            return GateProtocol.failed(requestId, cause);
+        }
+
+        /**
+         * Queues a response. Off the selector thread it also asks the selector to write
+         * it; on the selector thread it is written by the flush that follows decoding.
+         */
+        private void send(ByteBuffer response) {
+            if (closed) {
+                return;
+            }
+            completed.add(response);
+            if (Thread.currentThread() != thread && flushRequested.compareAndSet(false, true)) {
+                flushable.add(this);
+                selector.wakeup();
+            }
+        }
+
+        void flush() {
+            if (closed) {
+                return;
+            }
+            try {
+                boolean drained = write();
+                // Answered requests make room for frames held back by the in-flight limit
+                while (drained && inFlight < maxInFlight && in.position() >= 4 && decode()) {
+                    drained = write();
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (closed) {
+                return;
+            }
+            if (inputClosed && inFlight == 0) {
+                close();
+                return;
+            }
+            int interest = (unwritten.isEmpty() ? 0 : SelectionKey.OP_WRITE)
+                    | (inputClosed || inFlight >= maxInFlight ? 0 : SelectionKey.OP_READ);
+            if (key.interestOps() != interest) {
+                key.interestOps(interest);
+            }
+        }
+
+        /**
+         * Writes queued responses until none are left or the socket takes no more.
+         * Returns whether every response was written.
+         */
+        private boolean write() throws IOException {
+            ByteBuffer response;
+            while ((response = completed.poll()) != null) {
+                unwritten.add(response);
+            }
+            while (!unwritten.isEmpty()) {
+                int count = 0;
+                for (ByteBuffer buffer : unwritten) {
+                    batch[count++] = buffer;
+                    if (count == batch.length) {
+                        break;
+                    }
+                }
+                channel.write(batch, 0, count);
+                Arrays.fill(batch, 0, count, null);
+                int written = 0;
+                while (!unwritten.isEmpty() && !unwritten.peekFirst().hasRemaining()) {
+                    unwritten.pollFirst();
+                    written++;
+                }
+                inFlight -= written;
+                if (written < count) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            key.cancel();
+            closeQuietly(channel);
+            connections.decrementAndGet();
+        }
+    }
+}
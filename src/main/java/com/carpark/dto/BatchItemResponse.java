@@ -0,0 +1,33 @@
+package com.carpark.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item in a batch request, in the same position as the item.
+ * {@code status} is the HTTP status the single-item endpoint would have returned.
+ * On success {@code result} is set; on failure {@code error} holds a stable code
+ * (e.g. {@code CAR_PARK_FULL}) and {@code message} the same text the single-item
+ * endpoint would have returned.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResponse<T> {
+    private String vehicleReg;
+    private int status;
+    private T result;
+    private String error;
+    private String message;
+
+    public static <T> BatchItemResponse<T> success(String vehicleReg, int status, T result) {
+        return new BatchItemResponse<>(vehicleReg, status, result, null, null);
+    }
+
+    public static <T> BatchItemResponse<T> failure(String vehicleReg, int status, String error, String message) {
+        return new BatchItemResponse<>(vehicleReg, status, null, error, message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.carpark.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CarParkStatusResponse {
+    private String carParkId;
+    private int availableSpaces;
+    private int occupiedSpaces;
+}
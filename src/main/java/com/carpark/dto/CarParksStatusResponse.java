@@ -0,0 +1,20 @@
+package com.carpark.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Space counts across every car park served, and per car park.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CarParksStatusResponse {
+    private int availableSpaces;
+    private int occupiedSpaces;
+    private List<CarParkStatusResponse> carParks = new ArrayList<>();
+}
@@ -20,4 +20,15 @@ public class ParkVehicleRequest {
     @Min(value = 1, message = "Vehicle type must be 1, 2, or 3")
     @Max(value = 3, message = "Vehicle type must be 1, 2, or 3")
     private Integer vehicleType;
+
+    /**
+     * Optional zone to park in, e.g. the zone served by the entry gate.
+     * When omitted the vehicle takes the lowest-numbered free space in any zone.
+     */
+    private String zone;
+
+    public ParkVehicleRequest(String vehicleReg, Integer vehicleType) {
+        this.vehicleReg = vehicleReg;
+        this.vehicleType = vehicleType;
+    }
 }
@@ -4,10 +4,19 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class ParkingStatusResponse {
     private int availableSpaces;
     private int occupiedSpaces;
+    private List<ZoneStatusResponse> zones = new ArrayList<>();
+
+    public ParkingStatusResponse(int availableSpaces, int occupiedSpaces) {
+        this.availableSpaces = availableSpaces;
+        this.occupiedSpaces = occupiedSpaces;
+    }
 }
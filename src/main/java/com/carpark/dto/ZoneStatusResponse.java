@@ -0,0 +1,15 @@
+package com.carpark.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ZoneStatusResponse {
+    private String zone;
+    private int level;
+    private int availableSpaces;
+    private int occupiedSpaces;
+}
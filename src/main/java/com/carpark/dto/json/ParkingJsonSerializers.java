@@ -0,0 +1,278 @@
+package com.carpark.dto.json;
+
+import com.carpark.dto.BillResponse;
+import com.carpark.dto.CarParkStatusResponse;
+import com.carpark.dto.CarParksStatusResponse;
+import com.carpark.dto.ParkVehicleResponse;
+import com.carpark.dto.ParkingStatusResponse;
+import com.carpark.dto.ZoneStatusResponse;
+import com.carpark.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Hand-written Jackson serializers for the response bodies, registered with Spring's
+ * {@code ObjectMapper} so both web stacks use them.
+ *
+ * Each writes its fields straight to the generator, in the same order and format as
+ * reflection-based serialization would: no property introspection, no per-field
+ * annotation lookups and no intermediate strings. Field names are
+ * {@link SerializedString}s, which keep their quoted UTF-8 bytes after first use, and
+ * dates are formatted digit by digit into a small char buffer instead of through a
+ * {@link DateTimeFormatter}.
+ */
+@JsonComponent
+public final class ParkingJsonSerializers {
+
+    private static final DateTimeFormatter SECONDS = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final SerializedString VEHICLE_REG = new SerializedString("vehicleReg");
+    private static final SerializedString SPACE_NUMBER = new SerializedString("spaceNumber");
+    private static final SerializedString TIME_IN = new SerializedString("timeIn");
+    private static final SerializedString TIME_OUT = new SerializedString("timeOut");
+    private static final SerializedString BILL_ID = new SerializedString("billId");
+    private static final SerializedString VEHICLE_CHARGE = new SerializedString("vehicleCharge");
+    private static final SerializedString AVAILABLE_SPACES = new SerializedString("availableSpaces");
+    private static final SerializedString OCCUPIED_SPACES = new SerializedString("occupiedSpaces");
+    private static final SerializedString ZONES = new SerializedString("zones");
+    private static final SerializedString CAR_PARK_ID = new SerializedString("carParkId");
+    private static final SerializedString CAR_PARKS = new SerializedString("carParks");
+    private static final SerializedString ZONE = new SerializedString("zone");
+    private static final SerializedString LEVEL = new SerializedString("level");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+
+    private ParkingJsonSerializers() {
+    }
+
+    public static final class ParkVehicleResponseSerializer extends StdSerializer<ParkVehicleResponse> {
+
+        public ParkVehicleResponseSerializer() {
+            super(ParkVehicleResponse.class);
+        }
+
+        @Override
+        public void serialize(ParkVehicleResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(VEHICLE_REG);
+            gen.writeString(value.getVehicleReg());
+            gen.writeFieldName(SPACE_NUMBER);
+            gen.writeNumber(value.getSpaceNumber());
+            gen.writeFieldName(TIME_IN);
+            writeSeconds(gen, value.getTimeIn());
+            gen.writeEndObject();
+        }
+    }
+
+    public static final class BillResponseSerializer extends StdSerializer<BillResponse> {
+
+        public BillResponseSerializer() {
+            super(BillResponse.class);
+        }
+
+        @Override
+        public void serialize(BillResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(BILL_ID);
+            gen.writeString(value.getBillId());
+            gen.writeFieldName(VEHICLE_REG);
+            gen.writeString(value.getVehicleReg());
+            gen.writeFieldName(VEHICLE_CHARGE);
+            gen.writeNumber(value.getVehicleCharge());
+            gen.writeFieldName(TIME_IN);
+            writeSeconds(gen, value.getTimeIn());
+            gen.writeFieldName(TIME_OUT);
+            writeSeconds(gen, value.getTimeOut());
+            gen.writeEndObject();
+        }
+    }
+
+    public static final class ParkingStatusResponseSerializer extends StdSerializer<ParkingStatusResponse> {
+
+        public ParkingStatusResponseSerializer() {
+            super(ParkingStatusResponse.class);
+        }
+
+        @Override
+        public void serialize(ParkingStatusResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(AVAILABLE_SPACES);
+            gen.writeNumber(value.getAvailableSpaces());
+            gen.writeFieldName(OCCUPIED_SPACES);
+            gen.writeNumber(value.getOccupiedSpaces());
+            gen.writeFieldName(ZONES);
+            List<ZoneStatusResponse> zones = value.getZones();
+            if (zones == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(zones, zones.size());
+                for (ZoneStatusResponse zone : zones) {
+                    writeZone(gen, zone);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+
+        private static void writeZone(JsonGenerator gen, ZoneStatusResponse zone) throws IOException {
+            if (zone == null) {
+                gen.writeNull();
+                return;
+            }
+            gen.writeStartObject(zone);
+            gen.writeFieldName(ZONE);
+            gen.writeString(zone.getZone());
+            gen.writeFieldName(LEVEL);
+            gen.writeNumber(zone.getLevel());
+            gen.writeFieldName(AVAILABLE_SPACES);
+            gen.writeNumber(zone.getAvailableSpaces());
+            gen.writeFieldName(OCCUPIED_SPACES);
+            gen.writeNumber(zone.getOccupiedSpaces());
+            gen.writeEndObject();
+        }
+    }
+
+    public static final class CarParksStatusResponseSerializer extends StdSerializer<CarParksStatusResponse> {
+
+        public CarParksStatusResponseSerializer() {
+            super(CarParksStatusResponse.class);
+        }
+
+        @Override
+        public void serialize(CarParksStatusResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(AVAILABLE_SPACES);
+            gen.writeNumber(value.getAvailableSpaces());
+            gen.writeFieldName(OCCUPIED_SPACES);
+            gen.writeNumber(value.getOccupiedSpaces());
+            gen.writeFieldName(CAR_PARKS);
+            List<CarParkStatusResponse> carParks = value.getCarParks();
+            if (carParks == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(carParks, carParks.size());
+                for (CarParkStatusResponse carPark : carParks) {
+                    writeCarPark(gen, carPark);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+
+        private static void writeCarPark(JsonGenerator gen, CarParkStatusResponse carPark) throws IOException {
+            if (carPark == null) {
+                gen.writeNull();
+                return;
+            }
+            gen.writeStartObject(carPark);
+            gen.writeFieldName(CAR_PARK_ID);
+            gen.writeString(carPark.getCarParkId());
+            gen.writeFieldName(AVAILABLE_SPACES);
+            gen.writeNumber(carPark.getAvailableSpaces());
+            gen.writeFieldName(OCCUPIED_SPACES);
+            gen.writeNumber(carPark.getOccupiedSpaces());
+            gen.writeEndObject();
+        }
+    }
+
+    public static final class ErrorResponseSerializer extends StdSerializer<ErrorResponse> {
+
+        public ErrorResponseSerializer() {
+            super(ErrorResponse.class);
+        }
+
+        @Override
+        public void serialize(ErrorResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(STATUS);
+            gen.writeNumber(value.getStatus());
+            gen.writeFieldName(MESSAGE);
+            gen.writeString(value.getMessage());
+            gen.writeFieldName(TIMESTAMP);
+            writeIso(gen, value.getTimestamp());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the time as {@code yyyy-MM-dd'T'HH:mm:ss}, the pattern the DTOs declare.
+     */
+    static void writeSeconds(JsonGenerator gen, LocalDateTime time) throws IOException {
+        if (time == null) {
+            gen.writeNull();
+        } else if (time.getYear() < 0 || time.getYear() > 9999) {
+            gen.writeString(time.format(SECONDS));
+        } else {
+            char[] buffer = new char[19];
+            int length = formatSeconds(time, buffer);
+            gen.writeString(buffer, 0, length);
+        }
+    }
+
+    /**
+     * Writes the time as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} does, with as many
+     * fraction digits as the nanoseconds need.
+     */
+    static void writeIso(JsonGenerator gen, LocalDateTime time) throws IOException {
+        if (time == null) {
+            gen.writeNull();
+        } else if (time.getYear() < 0 || time.getYear() > 9999) {
+            gen.writeString(time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        } else {
+            char[] buffer = new char[29];
+            int length = formatSeconds(time, buffer);
+            int nano = time.getNano();
+            if (nano != 0) {
+                buffer[length++] = '.';
+                int digits = 9;
+                while (nano % 10 == 0) {
+                    nano /= 10;
+                    digits--;
+                }
+                for (int i = length + digits - 1; i >= length; i--) {
+                    buffer[i] = (char) ('0' + nano % 10);
+                    nano /= 10;
+                }
+                length += digits;
+            }
+            gen.writeString(buffer, 0, length);
+        }
+    }
+
+    private static int formatSeconds(LocalDateTime time, char[] buffer) {
+        int year = time.getYear();
+        buffer[0] = (char) ('0' + year / 1000);
+        buffer[1] = (char) ('0' + year / 100 % 10);
+        buffer[2] = (char) ('0' + year / 10 % 10);
+        buffer[3] = (char) ('0' + year % 10);
+        buffer[4] = '-';
+        twoDigits(buffer, 5, time.getMonthValue());
+        buffer[7] = '-';
+        twoDigits(buffer, 8, time.getDayOfMonth());
+        buffer[10] = 'T';
+        twoDigits(buffer, 11, time.getHour());
+        buffer[13] = ':';
+        twoDigits(buffer, 14, time.getMinute());
+        buffer[16] = ':';
+        twoDigits(buffer, 17, time.getSecond());
+        return 19;
+    }
+
+    private static void twoDigits(char[] buffer, int at, int value) {
+        buffer[at] = (char) ('0' + value / 10);
+        buffer[at + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -1,7 +1,12 @@
 package com.carpark.exception;
 
+/**
+ * Refusal of an entry because no space is free. Like the other domain exceptions it
+ * records no stack trace: it reports an expected outcome rather than a fault, and at
+ * a full site it is thrown for most entries.
+ */
 public class CarParkFullException extends RuntimeException {
     public CarParkFullException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
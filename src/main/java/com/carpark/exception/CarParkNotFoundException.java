@@ -0,0 +1,12 @@
+package com.carpark.exception;
+
+/**
+ * Request for a car park this instance does not serve. Records no stack trace, like
+ * {@link CarParkFullException}.
+ */
+public class CarParkNotFoundException extends RuntimeException {
+
+    public CarParkNotFoundException(String carParkId) {
+        super("Car park " + carParkId + " not found", null, false, false);
+    }
+}
@@ -3,29 +3,59 @@ package com.carpark.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterErrors;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // Body of the last car-park-full response, reused until the clock reaches the next second
+    private volatile CachedError carParkFull;
+
+    /**
+     * A flood of entries at a full site all get the same answer, so the body is built
+     * at most once a second and shared, its timestamp truncated to the second.
+     */
     @ExceptionHandler(CarParkFullException.class)
     public ResponseEntity<ErrorResponse> handleCarParkFull(CarParkFullException ex) {
+        long epochSecond = System.currentTimeMillis() / 1000;
+        CachedError cached = carParkFull;
+        if (cached == null || cached.epochSecond() != epochSecond
+                || !cached.response().getBody().getMessage().equals(ex.getMessage())) {
+            ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault())
+            );
+            cached = new CachedError(epochSecond, new ResponseEntity<>(error, HttpStatus.CONFLICT));
+            carParkFull = cached;
+        }
+        return cached.response();
+    }
+
+    @ExceptionHandler(VehicleNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleVehicleNotFound(VehicleNotFoundException ex) {
         ErrorResponse error = new ErrorResponse(
-            HttpStatus.CONFLICT.value(),
+            HttpStatus.NOT_FOUND.value(),
             ex.getMessage(),
             LocalDateTime.now()
         );
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
-    @ExceptionHandler(VehicleNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleVehicleNotFound(VehicleNotFoundException ex) {
+    @ExceptionHandler(CarParkNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleCarParkNotFound(CarParkNotFoundException ex) {
         ErrorResponse error = new ErrorResponse(
             HttpStatus.NOT_FOUND.value(),
             ex.getMessage(),
@@ -66,6 +96,43 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleReactiveValidationExceptions(
+            WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getFieldErrors().forEach((error) -> errors.put(error.getField(), error.getDefaultMessage()));
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<Map<String, String>> handleMethodValidationExceptions(
+            HandlerMethodValidationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getAllValidationResults().forEach((result) -> {
+            String prefix = result instanceof ParameterErrors parameterErrors
+                    && parameterErrors.getContainerIndex() != null
+                    ? "[" + parameterErrors.getContainerIndex() + "]"
+                    : result.getMethodParameter().getParameterName();
+            result.getResolvableErrors().forEach((error) -> {
+                String fieldName = error instanceof FieldError fieldError
+                        ? prefix + "." + fieldError.getField()
+                        : prefix;
+                errors.put(fieldName, error.getDefaultMessage());
+            });
+        });
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatus(ResponseStatusException ex) {
+        ErrorResponse error = new ErrorResponse(
+            ex.getStatusCode().value(),
+            ex.getReason(),
+            LocalDateTime.now()
+        );
+        return new ResponseEntity<>(error, ex.getStatusCode());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         ErrorResponse error = new ErrorResponse(
@@ -91,4 +158,7 @@ public class GlobalExceptionHandler {
         public String getMessage() { return message; }
         public LocalDateTime getTimestamp() { return timestamp; }
     }
+
+    private record CachedError(long epochSecond, ResponseEntity<ErrorResponse> response) {
+    }
 }
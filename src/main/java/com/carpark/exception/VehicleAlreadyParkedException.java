@@ -1,7 +1,11 @@
 package com.carpark.exception;
 
+/**
+ * Entry of a vehicle that is already parked. Records no stack trace, like
+ * {@link CarParkFullException}.
+ */
 public class VehicleAlreadyParkedException extends RuntimeException {
     public VehicleAlreadyParkedException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
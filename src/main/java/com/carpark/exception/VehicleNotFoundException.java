@@ -1,7 +1,11 @@
 package com.carpark.exception;
 
+/**
+ * Exit or lookup of a vehicle that is not parked. Records no stack trace, like
+ * {@link CarParkFullException}.
+ */
 public class VehicleNotFoundException extends RuntimeException {
     public VehicleNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
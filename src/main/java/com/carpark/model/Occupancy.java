@@ -0,0 +1,9 @@
+package com.carpark.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable record of the vehicle occupying a parking space.
+ */
+public record Occupancy(String vehicleReg, VehicleType vehicleType, LocalDateTime timeIn) {
+}
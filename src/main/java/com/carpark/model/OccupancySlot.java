@@ -0,0 +1,24 @@
+package com.carpark.model;
+
+/**
+ * Storage behind a single {@link ParkingSpace}. Spaces handed out by the repository
+ * are bound to slots in its shared storage, so changes made through the space are
+ * reflected in the repository's indexes.
+ */
+public interface OccupancySlot {
+
+    /**
+     * Returns the current occupancy, or null when the space is free.
+     */
+    Occupancy get();
+
+    /**
+     * Records the occupancy, replacing any vehicle already in the space.
+     */
+    void put(Occupancy occupancy);
+
+    /**
+     * Frees the space, returning the occupancy it held or null if it was already free.
+     */
+    Occupancy clear();
+}
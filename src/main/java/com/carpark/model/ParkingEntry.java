@@ -0,0 +1,7 @@
+package com.carpark.model;
+
+/**
+ * A vehicle asking to park, optionally restricted to one zone (null for any zone).
+ */
+public record ParkingEntry(String vehicleReg, VehicleType vehicleType, String zone) {
+}
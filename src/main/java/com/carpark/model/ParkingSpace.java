@@ -1,32 +1,83 @@
 package com.carpark.model;
 
-import lombok.Data;
+import lombok.Getter;
+
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
 
-@Data
+/**
+ * A numbered parking space. Its occupancy lives in an {@link OccupancySlot}; a space
+ * created on its own keeps a private slot, while spaces obtained from the repository
+ * are views over the repository's storage.
+ */
 public class ParkingSpace {
+
+    @Getter
     private final int spaceNumber;
-    private String vehicleReg;
-    private VehicleType vehicleType;
-    private LocalDateTime timeIn;
-    private boolean occupied;
+    private final OccupancySlot slot;
 
     public ParkingSpace(int spaceNumber) {
+        this(spaceNumber, new DetachedSlot());
+    }
+
+    public ParkingSpace(int spaceNumber, OccupancySlot slot) {
         this.spaceNumber = spaceNumber;
-        this.occupied = false;
+        this.slot = slot;
+    }
+
+    public Occupancy getOccupancy() {
+        return slot.get();
+    }
+
+    public String getVehicleReg() {
+        Occupancy occupancy = slot.get();
+        return occupancy == null ? null : occupancy.vehicleReg();
+    }
+
+    public VehicleType getVehicleType() {
+        Occupancy occupancy = slot.get();
+        return occupancy == null ? null : occupancy.vehicleType();
+    }
+
+    public LocalDateTime getTimeIn() {
+        Occupancy occupancy = slot.get();
+        return occupancy == null ? null : occupancy.timeIn();
+    }
+
+    public boolean isOccupied() {
+        return slot.get() != null;
     }
 
     public void park(String vehicleReg, VehicleType vehicleType, LocalDateTime timeIn) {
-        this.vehicleReg = vehicleReg;
-        this.vehicleType = vehicleType;
-        this.timeIn = timeIn;
-        this.occupied = true;
+        slot.put(new Occupancy(vehicleReg, vehicleType, timeIn));
     }
 
     public void vacate() {
-        this.vehicleReg = null;
-        this.vehicleType = null;
-        this.timeIn = null;
-        this.occupied = false;
+        slot.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "ParkingSpace(spaceNumber=" + spaceNumber + ", occupancy=" + slot.get() + ")";
+    }
+
+    private static final class DetachedSlot implements OccupancySlot {
+
+        private final AtomicReference<Occupancy> occupancy = new AtomicReference<>();
+
+        @Override
+        public Occupancy get() {
+            return occupancy.get();
+        }
+
+        @Override
+        public void put(Occupancy occupancy) {
+            this.occupancy.set(occupancy);
+        }
+
+        @Override
+        public Occupancy clear() {
+            return occupancy.getAndSet(null);
+        }
     }
 }
@@ -22,6 +22,10 @@ public enum VehicleType {
         throw new IllegalArgumentException("Invalid vehicle type code: " + code);
     }
 
+    public int getCode() {
+        return code;
+    }
+
     public double getRatePerMinute() {
         return ratePerMinute;
     }
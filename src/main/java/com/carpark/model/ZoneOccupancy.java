@@ -0,0 +1,7 @@
+package com.carpark.model;
+
+/**
+ * Point-in-time space counts for one zone of the car park.
+ */
+public record ZoneOccupancy(String zone, int level, int availableSpaces, int occupiedSpaces) {
+}
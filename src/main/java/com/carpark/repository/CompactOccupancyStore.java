@@ -0,0 +1,227 @@
+package com.carpark.repository;
+
+import com.carpark.model.Occupancy;
+import com.carpark.model.VehicleType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Struct-of-arrays occupancy storage: one primitive column per field instead of an
+ * object graph per occupied space.
+ *
+ * <ul>
+ *   <li>{@code timeIn}: nanoseconds since the epoch, in UTC, so it round-trips a
+ *       {@code LocalDateTime} exactly</li>
+ *   <li>{@code types}: the vehicle type code, 0 for a free space</li>
+ *   <li>{@code regs}: the registration as entered, packed by {@link RegistrationCodec#pack}.
+ *       A registration that does not pack (lower case, too long, or with other
+ *       characters) goes in a sparse overflow map instead.</li>
+ * </ul>
+ *
+ * Each space has a version stamp that works as a seqlock. A writer makes the stamp
+ * odd with a compare-and-set, updates the columns, then makes it even again. A reader
+ * copies the columns between two reads of the stamp and retries if it changed or was
+ * odd. Writers to different spaces never contend; only writers to the same space wait
+ * for each other, and only for a handful of stores.
+ *
+ * Vehicles are matched by comparing packed keys, so the park and exit paths never
+ * build a string. {@link Occupancy} objects are built only when a caller asks for one,
+ * at the API edge.
+ */
+final class CompactOccupancyStore implements OccupancyStore {
+
+    private static final VarHandle VERSIONS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long OVERFLOW = RegistrationCodec.UNPACKABLE;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private final long[] versions;
+    private final long[] timeIn;
+    private final byte[] types;
+    private final long[] regs;
+    private final ConcurrentHashMap<Integer, String> overflow = new ConcurrentHashMap<>();
+
+    CompactOccupancyStore(int capacity) {
+        this.versions = new long[capacity];
+        this.timeIn = new long[capacity];
+        this.types = new byte[capacity];
+        this.regs = new long[capacity];
+    }
+
+    /**
+     * Bytes of column storage per space, excluding overflowed registrations.
+     */
+    static int bytesPerSpace() {
+        return Long.BYTES + Long.BYTES + 1 + Long.BYTES;
+    }
+
+    @Override
+    public int capacity() {
+        return types.length;
+    }
+
+    @Override
+    public Occupancy get(int index) {
+        for (int spins = 0; ; spins++) {
+            long version = (long) VERSIONS.getAcquire(versions, index);
+            if ((version & 1) == 0) {
+                byte type = types[index];
+                Occupancy occupancy = type == 0 ? null : read(index, type);
+                VarHandle.acquireFence();
+                if ((long) VERSIONS.getOpaque(versions, index) == version) {
+                    return occupancy;
+                }
+            }
+            backOff(spins);
+        }
+    }
+
+    @Override
+    public boolean holds(int index, long key, String vehicleReg) {
+        for (int spins = 0; ; spins++) {
+            long version = (long) VERSIONS.getAcquire(versions, index);
+            if ((version & 1) == 0) {
+                boolean holds = types[index] != 0 && matches(index, key, vehicleReg);
+                VarHandle.acquireFence();
+                if ((long) VERSIONS.getOpaque(versions, index) == version) {
+                    return holds;
+                }
+            }
+            backOff(spins);
+        }
+    }
+
+    @Override
+    public boolean parkIfFree(int index, Occupancy occupancy) {
+        long stamp = lock(index);
+        try {
+            if (types[index] != 0) {
+                return false;
+            }
+            write(index, occupancy);
+            return true;
+        } finally {
+            unlock(index, stamp);
+        }
+    }
+
+    @Override
+    public Occupancy vacateIf(int index, long key, String vehicleReg) {
+        long stamp = lock(index);
+        try {
+            if (types[index] == 0 || !matches(index, key, vehicleReg)) {
+                return null;
+            }
+            Occupancy previous = read(index, types[index]);
+            erase(index);
+            return previous;
+        } finally {
+            unlock(index, stamp);
+        }
+    }
+
+    @Override
+    public Occupancy put(int index, Occupancy occupancy) {
+        long stamp = lock(index);
+        try {
+            Occupancy previous = types[index] == 0 ? null : read(index, types[index]);
+            write(index, occupancy);
+            return previous;
+        } finally {
+            unlock(index, stamp);
+        }
+    }
+
+    @Override
+    public Occupancy clear(int index) {
+        long stamp = lock(index);
+        try {
+            if (types[index] == 0) {
+                return null;
+            }
+            Occupancy previous = read(index, types[index]);
+            erase(index);
+            return previous;
+        } finally {
+            unlock(index, stamp);
+        }
+    }
+
+    private long lock(int index) {
+        for (int spins = 0; ; spins++) {
+            long version = (long) VERSIONS.getVolatile(versions, index);
+            if ((version & 1) == 0 && VERSIONS.compareAndSet(versions, index, version, version + 1)) {
+                return version + 1;
+            }
+            backOff(spins);
+        }
+    }
+
+    /**
+     * Spins briefly, then yields so a writer that was descheduled mid-update can
+     * finish.
+     */
+    static void backOff(int spins) {
+        if (spins < SPINS_BEFORE_YIELD) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    private void unlock(int index, long stamp) {
+        VERSIONS.setRelease(versions, index, stamp + 1);
+    }
+
+    private Occupancy read(int index, byte type) {
+        return new Occupancy(readReg(index), VehicleType.fromCode(type), fromEpochNanos(timeIn[index]));
+    }
+
+    private String readReg(int index) {
+        long packed = regs[index];
+        return packed == OVERFLOW ? overflow.get(index) : RegistrationCodec.unpack(packed);
+    }
+
+    private boolean matches(int index, long key, String vehicleReg) {
+        long packed = regs[index];
+        if (packed == OVERFLOW) {
+            String reg = overflow.get(index);
+            return reg != null && RegistrationCodec.matches(key, vehicleReg, reg);
+        }
+        return key != RegistrationCodec.UNPACKABLE && RegistrationCodec.keyOf(packed) == key;
+    }
+
+    static long toEpochNanos(LocalDateTime time) {
+        return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND), time.getNano());
+    }
+
+    static LocalDateTime fromEpochNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(nanos, NANOS_PER_SECOND), (int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    private void write(int index, Occupancy occupancy) {
+        timeIn[index] = toEpochNanos(occupancy.timeIn());
+        types[index] = (byte) occupancy.vehicleType().getCode();
+        String reg = occupancy.vehicleReg();
+        long packed = RegistrationCodec.pack(reg);
+        if (packed == OVERFLOW) {
+            overflow.put(index, reg);
+        } else {
+            overflow.remove(index);
+        }
+        regs[index] = packed;
+    }
+
+    private void erase(int index) {
+        types[index] = 0;
+        if (regs[index] == OVERFLOW) {
+            overflow.remove(index);
+        }
+        regs[index] = 0;
+    }
+}
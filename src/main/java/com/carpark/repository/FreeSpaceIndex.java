@@ -0,0 +1,220 @@
+package com.carpark.repository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free, word-packed bitset of free parking spaces (bit set = free), indexed from 0.
+ *
+ * A second level of summary bits records which words may still have a free bit, and a
+ * cursor remembers the lowest summary word that may be non-zero. Finding the
+ * lowest-numbered free space therefore touches a handful of words instead of every
+ * space. Claiming a space is a compare-and-set on its word, so two threads can never
+ * claim the same space, and releasing is a single atomic OR.
+ *
+ * A summary bit may be left set for a word that has since become empty, but is never
+ * left clear for a word that has a free bit; searches simply skip stale summary bits.
+ */
+class FreeSpaceIndex {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle CURSOR;
+
+    static {
+        try {
+            CURSOR = MethodHandles.lookup().findVarHandle(FreeSpaceIndex.class, "cursor", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = 63;
+
+    private final int capacity;
+    private final long[] words;
+    private final long[] summary;
+    private final AtomicInteger freeCount = new AtomicInteger();
+    @SuppressWarnings("unused") // accessed through CURSOR
+    private volatile int cursor;
+
+    FreeSpaceIndex(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        this.words = new long[wordCount(capacity)];
+        this.summary = new long[wordCount(words.length)];
+        for (int i = 0; i < capacity; i++) {
+            words[i >>> WORD_SHIFT] |= bit(i);
+        }
+        for (int w = 0; w < words.length; w++) {
+            summary[w >>> WORD_SHIFT] |= bit(w);
+        }
+        freeCount.set(capacity);
+        VarHandle.releaseFence();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int freeCount() {
+        return freeCount.get();
+    }
+
+    int occupiedCount() {
+        return capacity - freeCount.get();
+    }
+
+    boolean isFree(int index) {
+        return ((long) LONGS.getVolatile(words, index >>> WORD_SHIFT) & bit(index)) != 0;
+    }
+
+    /**
+     * Returns the lowest free index without claiming it, or -1 when every space is
+     * occupied. Under concurrent updates the answer may already be stale.
+     */
+    int firstFree() {
+        while (true) {
+            int w = firstCandidateWord();
+            if (w < 0) {
+                return -1;
+            }
+            long word = (long) LONGS.getVolatile(words, w);
+            if (word != 0) {
+                return (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+            }
+            clearSummaryIfEmpty(w);
+        }
+    }
+
+    /**
+     * Atomically claims the lowest free index and returns it, or returns -1 when every
+     * space is occupied.
+     */
+    int claimFirst() {
+        return claimFirst(RepositoryMetrics.NONE);
+    }
+
+    /**
+     * Claims as {@link #claimFirst()} does, reporting the words examined and any lost
+     * compare-and-set to the metrics.
+     */
+    int claimFirst(RepositoryMetrics metrics) {
+        for (int scanned = 1; ; scanned++) {
+            int w = firstCandidateWord();
+            if (w < 0) {
+                metrics.allocationScanned(scanned);
+                return -1;
+            }
+            long word = (long) LONGS.getVolatile(words, w);
+            while (word != 0) {
+                long lowest = Long.lowestOneBit(word);
+                long witness = (long) LONGS.compareAndExchange(words, w, word, word & ~lowest);
+                if (witness == word) {
+                    if ((word & ~lowest) == 0) {
+                        clearSummaryIfEmpty(w);
+                    }
+                    freeCount.decrementAndGet();
+                    metrics.allocationScanned(scanned);
+                    return (w << WORD_SHIFT) + Long.numberOfTrailingZeros(lowest);
+                }
+                metrics.spaceContended();
+                word = witness;
+            }
+            clearSummaryIfEmpty(w);
+        }
+    }
+
+    /**
+     * Marks the index as occupied. Returns false if it was already occupied.
+     */
+    boolean claim(int index) {
+        int w = index >>> WORD_SHIFT;
+        long mask = bit(index);
+        long previous = (long) LONGS.getAndBitwiseAnd(words, w, ~mask);
+        if ((previous & mask) == 0) {
+            return false;
+        }
+        if ((previous & ~mask) == 0) {
+            clearSummaryIfEmpty(w);
+        }
+        freeCount.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Marks the index as free. Returns false if it was already free.
+     */
+    boolean release(int index) {
+        int w = index >>> WORD_SHIFT;
+        long mask = bit(index);
+        long previous = (long) LONGS.getAndBitwiseOr(words, w, mask);
+        if ((previous & mask) != 0) {
+            return false;
+        }
+        freeCount.incrementAndGet();
+        int s = w >>> WORD_SHIFT;
+        LONGS.getAndBitwiseOr(summary, s, bit(w));
+        lowerCursor(s);
+        return true;
+    }
+
+    /**
+     * Finds the lowest word whose summary bit is set, advancing the cursor past
+     * summary words found empty. Returns -1 if there is none.
+     */
+    private int firstCandidateWord() {
+        int start = (int) CURSOR.getVolatile(this);
+        for (int s = start; s < summary.length; s++) {
+            long summaryWord = (long) LONGS.getVolatile(summary, s);
+            if (summaryWord != 0) {
+                advanceCursor(start, s);
+                return (s << WORD_SHIFT) + Long.numberOfTrailingZeros(summaryWord);
+            }
+        }
+        advanceCursor(start, summary.length);
+        return -1;
+    }
+
+    private void advanceCursor(int from, int to) {
+        if (to == from || !CURSOR.compareAndSet(this, from, to)) {
+            return;
+        }
+        // A release may have set a summary bit below 'to' after we scanned past it but
+        // before it saw the moved cursor; pull the cursor back if so.
+        for (int s = from; s < to; s++) {
+            if ((long) LONGS.getVolatile(summary, s) != 0) {
+                lowerCursor(s);
+                return;
+            }
+        }
+    }
+
+    private void lowerCursor(int s) {
+        int current;
+        do {
+            current = (int) CURSOR.getVolatile(this);
+        } while (s < current && !CURSOR.compareAndSet(this, current, s));
+    }
+
+    private void clearSummaryIfEmpty(int w) {
+        int s = w >>> WORD_SHIFT;
+        LONGS.getAndBitwiseAnd(summary, s, ~bit(w));
+        // A concurrent release may have refilled the word between our read and the clear.
+        if ((long) LONGS.getVolatile(words, w) != 0) {
+            LONGS.getAndBitwiseOr(summary, s, bit(w));
+            lowerCursor(s);
+        }
+    }
+
+    private static long bit(int index) {
+        return 1L << (index & WORD_MASK);
+    }
+
+    private static int wordCount(int bits) {
+        return (bits + WORD_MASK) >>> WORD_SHIFT;
+    }
+}
@@ -0,0 +1,290 @@
+package com.carpark.repository;
+
+import com.carpark.model.Occupancy;
+import com.carpark.model.VehicleType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Occupancy table kept off-heap in a memory-mapped file of fixed-width records, so
+ * heap use does not grow with the number of spaces and the table outlives the
+ * process. Another process can map the same file read-only to watch occupancy.
+ *
+ * <pre>
+ * Header, 64 bytes, little-endian:
+ *   0  int   magic "CPOM"
+ *   4  int   format version
+ *   8  int   capacity (number of records)
+ *   12 int   record size (64)
+ * Record i at offset 64 + 64 * i:
+ *   0  long  version stamp; odd while a write is in progress
+ *   8  long  time in, nanoseconds since the epoch (UTC)
+ *   16 byte  vehicle type code, 0 for a free space
+ *   17 byte  registration length in bytes
+ *   18       registration as entered, UTF-8, up to 46 bytes
+ * </pre>
+ *
+ * Readers and writers follow the same seqlock protocol as {@link CompactOccupancyStore}:
+ * a reader copies a record between two reads of an even stamp and retries if the stamp
+ * moved. A record left mid-write by a crash (odd stamp) is cleared when the file is
+ * reopened.
+ *
+ * Writes reach the OS page cache immediately, so they survive a crash of this process;
+ * they are forced to the storage device on {@link #close()}.
+ */
+final class MappedOccupancyStore implements OccupancyStore {
+
+    static final int MAX_REG_BYTES = 46;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final int MAGIC = 0x43504f4d; // "CPOM"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_BYTES = 64;
+    private static final int TIME_IN = 8;
+    private static final int TYPE = 16;
+    private static final int REG_LENGTH = 17;
+    private static final int REG = 18;
+
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+
+    MappedOccupancyStore(Path path, int capacity) {
+        if (capacity > (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES) {
+            throw new IllegalArgumentException("Too many spaces for a mapped occupancy table: " + capacity);
+        }
+        this.capacity = capacity;
+        long size = HEADER_BYTES + (long) capacity * RECORD_BYTES;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                boolean existing = channel.size() > 0;
+                if (existing) {
+                    checkHeader(path, channel);
+                }
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                if (existing) {
+                    clearTornRecords();
+                } else {
+                    buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, capacity).putInt(12, RECORD_BYTES);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map occupancy table " + path, e);
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void validate(Occupancy occupancy) {
+        encodeReg(occupancy.vehicleReg());
+    }
+
+    @Override
+    public Occupancy get(int index) {
+        int record = offset(index);
+        for (int spins = 0; ; spins++) {
+            long version = (long) LONGS.getAcquire(buffer, record);
+            if ((version & 1) == 0) {
+                byte type = buffer.get(record + TYPE);
+                Occupancy occupancy = type == 0 ? null : read(record, type);
+                VarHandle.acquireFence();
+                if ((long) LONGS.getOpaque(buffer, record) == version) {
+                    return occupancy;
+                }
+            }
+            CompactOccupancyStore.backOff(spins);
+        }
+    }
+
+    @Override
+    public boolean holds(int index, long key, String vehicleReg) {
+        int record = offset(index);
+        for (int spins = 0; ; spins++) {
+            long version = (long) LONGS.getAcquire(buffer, record);
+            if ((version & 1) == 0) {
+                boolean holds = buffer.get(record + TYPE) != 0 && matches(record, key, vehicleReg);
+                VarHandle.acquireFence();
+                if ((long) LONGS.getOpaque(buffer, record) == version) {
+                    return holds;
+                }
+            }
+            CompactOccupancyStore.backOff(spins);
+        }
+    }
+
+    @Override
+    public boolean parkIfFree(int index, Occupancy occupancy) {
+        int record = offset(index);
+        long stamp = lock(record);
+        try {
+            if (buffer.get(record + TYPE) != 0) {
+                return false;
+            }
+            write(record, occupancy);
+            return true;
+        } finally {
+            unlock(record, stamp);
+        }
+    }
+
+    @Override
+    public Occupancy vacateIf(int index, long key, String vehicleReg) {
+        int record = offset(index);
+        long stamp = lock(record);
+        try {
+            byte type = buffer.get(record + TYPE);
+            if (type == 0 || !matches(record, key, vehicleReg)) {
+                return null;
+            }
+            Occupancy previous = read(record, type);
+            buffer.put(record + TYPE, (byte) 0);
+            return previous;
+        } finally {
+            unlock(record, stamp);
+        }
+    }
+
+    @Override
+    public Occupancy put(int index, Occupancy occupancy) {
+        int record = offset(index);
+        long stamp = lock(record);
+        try {
+            byte type = buffer.get(record + TYPE);
+            Occupancy previous = type == 0 ? null : read(record, type);
+            write(record, occupancy);
+            return previous;
+        } finally {
+            unlock(record, stamp);
+        }
+    }
+
+    @Override
+    public Occupancy clear(int index) {
+        int record = offset(index);
+        long stamp = lock(record);
+        try {
+            byte type = buffer.get(record + TYPE);
+            if (type == 0) {
+                return null;
+            }
+            Occupancy previous = read(record, type);
+            buffer.put(record + TYPE, (byte) 0);
+            return previous;
+        } finally {
+            unlock(record, stamp);
+        }
+    }
+
+    @Override
+    public void close() {
+        buffer.force();
+    }
+
+    private static int offset(int index) {
+        return HEADER_BYTES + index * RECORD_BYTES;
+    }
+
+    private long lock(int record) {
+        for (int spins = 0; ; spins++) {
+            long version = (long) LONGS.getVolatile(buffer, record);
+            if ((version & 1) == 0 && LONGS.compareAndSet(buffer, record, version, version + 1)) {
+                return version + 1;
+            }
+            CompactOccupancyStore.backOff(spins);
+        }
+    }
+
+    private void unlock(int record, long stamp) {
+        LONGS.setRelease(buffer, record, stamp + 1);
+    }
+
+    private Occupancy read(int record, byte type) {
+        return new Occupancy(readReg(record), VehicleType.fromCode(type),
+                CompactOccupancyStore.fromEpochNanos(buffer.getLong(record + TIME_IN)));
+    }
+
+    private String readReg(int record) {
+        byte[] reg = new byte[Math.min(buffer.get(record + REG_LENGTH) & 0xff, MAX_REG_BYTES)];
+        buffer.get(record + REG, reg);
+        return new String(reg, StandardCharsets.UTF_8);
+    }
+
+    private boolean matches(int record, long key, String vehicleReg) {
+        if (key == RegistrationCodec.UNPACKABLE) {
+            return RegistrationCodec.sameVehicle(vehicleReg, readReg(record));
+        }
+        int length = Math.min(buffer.get(record + REG_LENGTH) & 0xff, MAX_REG_BYTES);
+        long stored = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(record + REG + i);
+            if (b < 0) {
+                // Not ASCII: decode and compare the slow way
+                return RegistrationCodec.key(readReg(record)) == key;
+            }
+            stored = RegistrationCodec.appendKey(stored, (char) b);
+        }
+        return stored == key;
+    }
+
+    private void write(int record, Occupancy occupancy) {
+        byte[] reg = encodeReg(occupancy.vehicleReg());
+        buffer.putLong(record + TIME_IN, CompactOccupancyStore.toEpochNanos(occupancy.timeIn()));
+        buffer.put(record + REG_LENGTH, (byte) reg.length);
+        buffer.put(record + REG, reg);
+        buffer.put(record + TYPE, (byte) occupancy.vehicleType().getCode());
+    }
+
+    private static byte[] encodeReg(String vehicleReg) {
+        byte[] reg = vehicleReg.getBytes(StandardCharsets.UTF_8);
+        if (reg.length > MAX_REG_BYTES) {
+            throw new IllegalArgumentException(
+                    "Vehicle registration must be at most " + MAX_REG_BYTES + " bytes: " + vehicleReg);
+        }
+        return reg;
+    }
+
+    private void checkHeader(Path path, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // keep reading
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(12) != RECORD_BYTES) {
+            throw new IOException("Not an occupancy table: " + path);
+        }
+        if (header.getInt(8) != capacity) {
+            throw new IllegalStateException("Occupancy table " + path + " holds " + header.getInt(8)
+                    + " spaces but the car park is configured with " + capacity);
+        }
+    }
+
+    private void clearTornRecords() {
+        for (int i = 0; i < capacity; i++) {
+            int record = offset(i);
+            long version = buffer.getLong(record);
+            if ((version & 1) != 0) {
+                buffer.put(record + TYPE, (byte) 0);
+                buffer.putLong(record, version + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.carpark.repository;
+
+import com.carpark.model.Occupancy;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps each space's occupancy as an immutable {@link Occupancy} in an
+ * {@link AtomicReferenceArray}; every update is a single compare-and-set.
+ */
+final class ObjectOccupancyStore implements OccupancyStore {
+
+    private final AtomicReferenceArray<Occupancy> occupancies;
+
+    ObjectOccupancyStore(int capacity) {
+        this.occupancies = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public int capacity() {
+        return occupancies.length();
+    }
+
+    @Override
+    public Occupancy get(int index) {
+        return occupancies.get(index);
+    }
+
+    @Override
+    public boolean holds(int index, long key, String vehicleReg) {
+        Occupancy occupancy = occupancies.get(index);
+        return occupancy != null && RegistrationCodec.matches(key, vehicleReg, occupancy.vehicleReg());
+    }
+
+    @Override
+    public boolean parkIfFree(int index, Occupancy occupancy) {
+        return occupancies.compareAndSet(index, null, occupancy);
+    }
+
+    @Override
+    public Occupancy vacateIf(int index, long key, String vehicleReg) {
+        while (true) {
+            Occupancy occupancy = occupancies.get(index);
+            if (occupancy == null || !RegistrationCodec.matches(key, vehicleReg, occupancy.vehicleReg())) {
+                return null;
+            }
+            if (occupancies.compareAndSet(index, occupancy, null)) {
+                return occupancy;
+            }
+        }
+    }
+
+    @Override
+    public Occupancy put(int index, Occupancy occupancy) {
+        return occupancies.getAndSet(index, occupancy);
+    }
+
+    @Override
+    public Occupancy clear(int index) {
+        return occupancies.getAndSet(index, null);
+    }
+}
@@ -0,0 +1,46 @@
+package com.carpark.repository;
+
+import com.carpark.model.Occupancy;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Receives every change to the repository's occupancy, in an order that is
+ * consistent per space: a space's vacate is always reported before the next park
+ * of the same space, and a park is reported before the vehicle can be vacated.
+ * Callbacks run on the request thread and must not block. If one throws, the
+ * exception reaches the caller: a park made through the repository is abandoned,
+ * and any other change still stands in memory.
+ */
+public interface OccupancyObserver {
+
+    OccupancyObserver NONE = new OccupancyObserver() {
+        @Override
+        public void parked(int spaceNumber, Occupancy occupancy) {
+        }
+
+        @Override
+        public void vacated(int spaceNumber) {
+        }
+    };
+
+    void parked(int spaceNumber, Occupancy occupancy);
+
+    void vacated(int spaceNumber);
+
+    /**
+     * Blocks until every change reported so far has been made durable.
+     */
+    default void sync() {
+    }
+
+    /**
+     * Returns a future completed once every change reported so far has been made
+     * durable, for callers that must not block. Observers that can only block do so
+     * here.
+     */
+    default CompletableFuture<Void> whenDurable() {
+        sync();
+        return CompletableFuture.completedFuture(null);
+    }
+}
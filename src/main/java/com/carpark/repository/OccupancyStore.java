@@ -0,0 +1,62 @@
+package com.carpark.repository;
+
+import com.carpark.model.Occupancy;
+
+/**
+ * Per-space occupancy storage behind {@link ParkingRepository}, indexed from 0.
+ *
+ * Every method is atomic with respect to the others on the same index. A vehicle is
+ * identified by its key from {@link RegistrationCodec#key} and its registration as
+ * given; the registration is only compared when the key is
+ * {@link RegistrationCodec#UNPACKABLE}.
+ */
+interface OccupancyStore extends AutoCloseable {
+
+    int capacity();
+
+    /**
+     * Checks that the occupancy can be stored, before any space is claimed for it.
+     *
+     * @throws IllegalArgumentException if it cannot
+     */
+    default void validate(Occupancy occupancy) {
+    }
+
+    /**
+     * Returns the occupancy of the space, or null if it is free.
+     */
+    Occupancy get(int index);
+
+    /**
+     * Returns true if the space is occupied by the vehicle.
+     */
+    boolean holds(int index, long key, String vehicleReg);
+
+    /**
+     * Stores the occupancy if the space is free. Returns false if it was occupied.
+     */
+    boolean parkIfFree(int index, Occupancy occupancy);
+
+    /**
+     * Frees the space if it holds the vehicle, returning the occupancy it held, or null
+     * if it did not hold that vehicle.
+     */
+    Occupancy vacateIf(int index, long key, String vehicleReg);
+
+    /**
+     * Stores the occupancy whatever the space held, returning the previous occupancy.
+     */
+    Occupancy put(int index, Occupancy occupancy);
+
+    /**
+     * Frees the space, returning the occupancy it held, or null if it was free.
+     */
+    Occupancy clear(int index);
+
+    /**
+     * Releases resources held by the store, making its contents durable if it has any.
+     */
+    @Override
+    default void close() {
+    }
+}
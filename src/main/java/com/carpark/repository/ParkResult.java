@@ -0,0 +1,27 @@
+package com.carpark.repository;
+
+import com.carpark.model.ParkingSpace;
+
+/**
+ * Outcome of {@link ParkingRepository#park}. Rejections are shared constants, so a
+ * refused entry allocates nothing.
+ */
+public record ParkResult(Status status, ParkingSpace space) {
+
+    public enum Status {
+        PARKED,
+        ALREADY_PARKED,
+        FULL
+    }
+
+    static final ParkResult ALREADY_PARKED = new ParkResult(Status.ALREADY_PARKED, null);
+    static final ParkResult FULL = new ParkResult(Status.FULL, null);
+
+    static ParkResult parked(ParkingSpace space) {
+        return new ParkResult(Status.PARKED, space);
+    }
+
+    public boolean isParked() {
+        return status == Status.PARKED;
+    }
+}
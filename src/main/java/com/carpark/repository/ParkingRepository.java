@@ -1,53 +1,530 @@
 package com.carpark.repository;
 
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.Occupancy;
+import com.carpark.model.OccupancySlot;
+import com.carpark.model.ParkingEntry;
 import com.carpark.model.ParkingSpace;
+import com.carpark.model.VehicleType;
+import com.carpark.model.ZoneOccupancy;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * In-memory car park state.
+ *
+ * Occupancy lives in an {@link OccupancyStore}: immutable {@link Occupancy} objects by
+ * default, primitive columns with {@code carpark.storage.mode=compact}, or an off-heap
+ * memory-mapped table with {@code mapped}.
+ * {@link ParkingSpace} objects are only built as views when a caller asks for a space.
+ * {@link #park} and {@link #vacate} are linearizable without a global lock: a space is
+ * claimed by a compare-and-set on its zone's free-space bitset, and a vehicle is
+ * admitted or released by a single atomic update of the registration index.
+ * Registrations are looked up by their packed {@link RegistrationCodec} key, so the
+ * park and exit paths hash and compare primitives rather than strings.
+ *
+ * Spaces are split into zones, each with its own free-space index, so entries
+ * allocated to different zones never contend with each other.
+ *
+ * Scan lengths, lookup probes and lost races on these paths are reported to a
+ * {@link RepositoryMetrics}, if one is registered.
+ *
+ * Space counts are kept up to date as vehicles come and go, and every change bumps
+ * the {@link #occupancyVersion()}, so a caller can tell cheaply that they have not
+ * moved.
+ */
 @Repository
 public class ParkingRepository {
-    
-    private final List<ParkingSpace> parkingSpaces;
-    private static final int TOTAL_SPACES = 50;
+
+    private final OccupancyStore store;
+    private final ParkingZone[] zones;
+    private final RegistrationIndex registrations;
+    // Indexed by vehicle type ordinal
+    private final LongAdder[] occupiedByType = new LongAdder[VehicleType.values().length];
+    private final AtomicLong occupancyVersion = new AtomicLong();
+    private volatile OccupancyObserver observer = OccupancyObserver.NONE;
+    private volatile RepositoryMetrics metrics = RepositoryMetrics.NONE;
 
     public ParkingRepository() {
-        this.parkingSpaces = new ArrayList<>();
-        for (int i = 1; i <= TOTAL_SPACES; i++) {
-            parkingSpaces.add(new ParkingSpace(i));
+        this(CarParkProperties.defaults());
+    }
+
+    @Autowired
+    public ParkingRepository(CarParkProperties properties) {
+        List<CarParkProperties.Zone> layout = properties.getZones().isEmpty()
+                ? CarParkProperties.defaults().getZones()
+                : properties.getZones();
+        this.zones = new ParkingZone[layout.size()];
+        Set<String> names = new HashSet<>();
+        int totalSpaces = 0;
+        for (int z = 0; z < layout.size(); z++) {
+            CarParkProperties.Zone zone = layout.get(z);
+            if (zone.getName() == null || !names.add(zone.getName())) {
+                throw new IllegalArgumentException("Zone names must be present and unique: " + zone.getName());
+            }
+            if (zone.getSpaces() <= 0) {
+                throw new IllegalArgumentException("Zone " + zone.getName() + " must have at least one space");
+            }
+            zones[z] = new ParkingZone(zone.getName(), zone.getLevel(), totalSpaces, zone.getSpaces());
+            totalSpaces = Math.addExact(totalSpaces, zone.getSpaces());
+        }
+
+        CarParkProperties.Storage storage = properties.getStorage();
+        this.store = switch (storage.getMode()) {
+            case OBJECT -> new ObjectOccupancyStore(totalSpaces);
+            case COMPACT -> new CompactOccupancyStore(totalSpaces);
+            case MAPPED -> new MappedOccupancyStore(Paths.get(storage.getPath()), totalSpaces);
+        };
+        this.registrations = new RegistrationIndex(totalSpaces);
+        for (int t = 0; t < occupiedByType.length; t++) {
+            occupiedByType[t] = new LongAdder();
+        }
+        // A persistent store may already hold vehicles from a previous run.
+        for (int i = 0; i < totalSpaces; i++) {
+            Occupancy occupancy = store.get(i);
+            if (occupancy != null) {
+                zoneOf(i).claim(i);
+                registrations.put(occupancy.vehicleReg(), i);
+                occupiedBy(occupancy).increment();
+            }
+        }
+    }
+
+    /**
+     * Releases the storage, forcing a persistent store's contents to disk.
+     */
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+
+    public int capacity() {
+        return store.capacity();
+    }
+
+    /**
+     * Registers the observer told about every subsequent park and vacate.
+     */
+    public void setObserver(OccupancyObserver observer) {
+        this.observer = observer == null ? OccupancyObserver.NONE : observer;
+    }
+
+    /**
+     * Registers the metrics told about subsequent allocations and lookups.
+     */
+    public void setMetrics(RepositoryMetrics metrics) {
+        this.metrics = metrics == null ? RepositoryMetrics.NONE : metrics;
+    }
+
+    /**
+     * Blocks until every change made so far has been made durable by the observer.
+     * Returns immediately when no durable observer is registered.
+     */
+    public void awaitDurable() {
+        observer.sync();
+    }
+
+    /**
+     * Returns a future completed once every change made so far has been made durable by
+     * the observer. Already complete when no durable observer is registered.
+     */
+    public CompletableFuture<Void> whenDurable() {
+        return observer.whenDurable();
+    }
+
+    /**
+     * Frees every space without telling the observer. Used before {@link #restore} when
+     * the journal, rather than a persistent store, is the source of truth.
+     */
+    public void reset() {
+        for (int i = 0; i < store.capacity(); i++) {
+            Occupancy occupancy = store.clear(i);
+            if (occupancy != null) {
+                registrations.remove(occupancy.vehicleReg(), i);
+                zoneOf(i).release(i);
+                occupiedBy(occupancy).decrement();
+            }
+        }
+        occupancyVersion.incrementAndGet();
+    }
+
+    /**
+     * Loads previously persisted state into an empty repository, one element per
+     * space (null for a free space). Must be called before the repository is used.
+     *
+     * @throws IllegalStateException if any space is already occupied
+     */
+    public void restore(Occupancy[] state) {
+        if (countOccupiedSpaces() != 0) {
+            throw new IllegalStateException("Cannot restore into a repository that is in use");
+        }
+        for (int i = 0; i < Math.min(state.length, store.capacity()); i++) {
+            Occupancy occupancy = state[i];
+            if (occupancy != null) {
+                store.put(i, occupancy);
+                zoneOf(i).claim(i);
+                registrations.put(occupancy.vehicleReg(), i);
+                occupiedBy(occupancy).increment();
+            }
+        }
+        occupancyVersion.incrementAndGet();
+    }
+
+    /**
+     * Copies the occupancy of every space, one element per space (null for a free
+     * space), without blocking concurrent updates. The copy is not a consistent cut:
+     * spaces changed during the copy may show either their old or new state.
+     */
+    public Occupancy[] occupancySnapshot() {
+        Occupancy[] state = new Occupancy[store.capacity()];
+        for (int i = 0; i < state.length; i++) {
+            state[i] = store.get(i);
         }
+        return state;
+    }
+
+    /**
+     * Returns a number that increases after every change to the space counts, and
+     * otherwise stays the same. Counts read after this version include at least every
+     * change before it; they may also include a change whose bump is still to come,
+     * in which case the version moves on straight after.
+     */
+    public long occupancyVersion() {
+        return occupancyVersion.get();
     }
 
     public long countAvailableSpaces() {
-        return parkingSpaces.stream()
-                .filter(space -> !space.isOccupied())
-                .count();
+        long available = 0;
+        for (ParkingZone zone : zones) {
+            available += zone.freeCount();
+        }
+        return available;
     }
 
     public long countOccupiedSpaces() {
-        return parkingSpaces.stream()
-                .filter(ParkingSpace::isOccupied)
-                .count();
+        long occupied = 0;
+        for (ParkingZone zone : zones) {
+            occupied += zone.occupiedCount();
+        }
+        return occupied;
+    }
+
+    /**
+     * Returns the number of spaces occupied by vehicles of the given type. Each count
+     * is exact once updates have stopped; while vehicles are moving it may briefly
+     * disagree with {@link #countOccupiedSpaces()}.
+     */
+    public long countOccupiedSpaces(VehicleType vehicleType) {
+        return occupiedByType[vehicleType.ordinal()].sum();
+    }
+
+    public List<ZoneOccupancy> zoneOccupancy() {
+        List<ZoneOccupancy> result = new ArrayList<>(zones.length);
+        for (ParkingZone zone : zones) {
+            result.add(new ZoneOccupancy(zone.name(), zone.level(), zone.freeCount(), zone.occupiedCount()));
+        }
+        return result;
     }
 
     public boolean isVehicleParked(String vehicleReg) {
-        return parkingSpaces.stream()
-                .anyMatch(space -> space.isOccupied() &&
-                        space.getVehicleReg().equalsIgnoreCase(vehicleReg));
+        return vehicleReg != null && registrations.contains(RegistrationCodec.key(vehicleReg), vehicleReg);
     }
 
     public Optional<ParkingSpace> findFirstAvailableSpace() {
-        return parkingSpaces.stream()
-                .filter(space -> !space.isOccupied())
-                .findFirst();
+        for (ParkingZone zone : zones) {
+            int index = zone.firstFree();
+            if (index >= 0) {
+                return Optional.of(space(index));
+            }
+        }
+        return Optional.empty();
     }
 
     public Optional<ParkingSpace> findByVehicleReg(String vehicleReg) {
-        return parkingSpaces.stream()
-                .filter(space -> space.isOccupied() &&
-                        space.getVehicleReg().equalsIgnoreCase(vehicleReg))
-                .findFirst();
+        if (vehicleReg == null) {
+            return Optional.empty();
+        }
+        long key = RegistrationCodec.key(vehicleReg);
+        int index = registrations.get(key, vehicleReg, metrics);
+        return index >= 0 && store.holds(index, key, vehicleReg) ? Optional.of(space(index)) : Optional.empty();
+    }
+
+    /**
+     * Atomically parks the vehicle in the lowest-numbered free space of the car park.
+     */
+    public ParkResult park(String vehicleReg, VehicleType vehicleType, LocalDateTime timeIn) {
+        return park(vehicleReg, vehicleType, timeIn, null);
+    }
+
+    /**
+     * Atomically parks the vehicle in the lowest-numbered free space of the named zone,
+     * or of the whole car park when {@code zoneName} is null.
+     *
+     * @throws IllegalArgumentException if no zone has that name
+     */
+    public ParkResult park(String vehicleReg, VehicleType vehicleType, LocalDateTime timeIn, String zoneName) {
+        ParkingZone only = zoneName == null ? null : zones[zoneIndex(zoneName)];
+        long key = RegistrationCodec.key(vehicleReg);
+        if (registrations.contains(key, vehicleReg, metrics)) {
+            return ParkResult.ALREADY_PARKED;
+        }
+        // A full car park is refused on its free-space counters, before anything is
+        // allocated or searched
+        if (only != null ? only.freeCount() == 0 : countAvailableSpaces() == 0) {
+            return ParkResult.FULL;
+        }
+        Occupancy occupancy = new Occupancy(vehicleReg, vehicleType, timeIn);
+        store.validate(occupancy);
+        if (only != null) {
+            return claim(only, key, occupancy);
+        }
+        for (ParkingZone zone : zones) {
+            if (zone.freeCount() == 0) {
+                continue;
+            }
+            ParkResult result = claim(zone, key, occupancy);
+            if (result.status() != ParkResult.Status.FULL) {
+                return result;
+            }
+        }
+        return ParkResult.FULL;
+    }
+
+    /**
+     * Parks a batch of vehicles with a shared entry time in a single pass over the
+     * zones: once a zone is found full it is not probed again for later entries.
+     * Results are returned in entry order, one per entry.
+     *
+     * @throws IllegalArgumentException if an entry names an unknown zone or cannot be
+     *                                  stored; no entry is parked in that case
+     */
+    public List<ParkResult> parkAll(List<ParkingEntry> entries, LocalDateTime timeIn) {
+        List<Occupancy> occupancies = new ArrayList<>(entries.size());
+        // Zone index per entry, or -1 for any zone
+        int[] entryZones = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            ParkingEntry entry = entries.get(i);
+            entryZones[i] = entry.zone() == null ? -1 : zoneIndex(entry.zone());
+            Occupancy occupancy = new Occupancy(entry.vehicleReg(), entry.vehicleType(), timeIn);
+            store.validate(occupancy);
+            occupancies.add(occupancy);
+        }
+        List<ParkResult> results = new ArrayList<>(entries.size());
+        boolean[] full = new boolean[zones.length];
+        int firstOpen = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            ParkingEntry entry = entries.get(i);
+            long key = RegistrationCodec.key(entry.vehicleReg());
+            if (registrations.contains(key, entry.vehicleReg(), metrics)) {
+                results.add(ParkResult.ALREADY_PARKED);
+                continue;
+            }
+            Occupancy occupancy = occupancies.get(i);
+            ParkResult result = ParkResult.FULL;
+            int z = entryZones[i];
+            if (z >= 0) {
+                if (!full[z]) {
+                    result = claim(zones[z], key, occupancy);
+                    full[z] = result.status() == ParkResult.Status.FULL;
+                }
+            } else {
+                while (firstOpen < zones.length) {
+                    if (!full[firstOpen]) {
+                        result = claim(zones[firstOpen], key, occupancy);
+                        if (result.status() != ParkResult.Status.FULL) {
+                            break;
+                        }
+                        full[firstOpen] = true;
+                    }
+                    firstOpen++;
+                }
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Atomically removes the vehicle, returning the occupancy it held, or empty if
+     * the vehicle is not parked (or another caller removed it first).
+     */
+    public Optional<Occupancy> vacate(String vehicleReg) {
+        if (vehicleReg == null) {
+            return Optional.empty();
+        }
+        long key = RegistrationCodec.key(vehicleReg);
+        int index = registrations.get(key, vehicleReg, metrics);
+        if (index < 0 || !store.holds(index, key, vehicleReg) || !registrations.remove(key, vehicleReg, index)) {
+            return Optional.empty();
+        }
+        Occupancy occupancy = store.vacateIf(index, key, vehicleReg);
+        if (occupancy == null) {
+            return Optional.empty();
+        }
+        try {
+            observer.vacated(index + 1);
+        } finally {
+            // The vehicle is gone from memory either way, so its space must be freed
+            // even if the observer could not record it
+            zoneOf(index).release(index);
+            occupiedBy(occupancy).decrement();
+            occupancyVersion.incrementAndGet();
+        }
+        return Optional.of(occupancy);
+    }
+
+    /**
+     * Removes a batch of vehicles. The result has one element per registration, in
+     * order: the occupancy the vehicle held, or null if it was not parked.
+     */
+    public List<Occupancy> vacateAll(List<String> vehicleRegs) {
+        List<Occupancy> departed = new ArrayList<>(vehicleRegs.size());
+        for (String vehicleReg : vehicleRegs) {
+            departed.add(vacate(vehicleReg).orElse(null));
+        }
+        return departed;
+    }
+
+    private ParkResult claim(ParkingZone zone, long key, Occupancy occupancy) {
+        while (true) {
+            int index = zone.claimFirst(metrics);
+            if (index < 0) {
+                return ParkResult.FULL;
+            }
+            if (!registrations.putIfAbsent(key, occupancy.vehicleReg(), index)) {
+                // Another caller parked the same vehicle since we checked
+                metrics.registrationContended();
+                zone.release(index);
+                // The claim briefly showed in the counts; move the version past it
+                occupancyVersion.incrementAndGet();
+                return ParkResult.ALREADY_PARKED;
+            }
+            // Recorded before the space holds the vehicle, so that a vacate, which
+            // needs to find it there, can never be recorded ahead of this park
+            try {
+                observer.parked(index + 1, occupancy);
+            } catch (RuntimeException e) {
+                registrations.remove(key, occupancy.vehicleReg(), index);
+                zone.release(index);
+                occupancyVersion.incrementAndGet();
+                throw e;
+            }
+            if (store.parkIfFree(index, occupancy)) {
+                occupiedBy(occupancy).increment();
+                occupancyVersion.incrementAndGet();
+                return ParkResult.parked(space(index));
+            }
+            // The space was parked directly through its view after we claimed it, and
+            // that caller now owns it; give the registration back and look again. Views
+            // report their own park, which is not ordered against the one above.
+            metrics.spaceContended();
+            registrations.remove(key, occupancy.vehicleReg(), index);
+        }
+    }
+
+    public boolean hasZone(String name) {
+        for (ParkingZone zone : zones) {
+            if (zone.name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int zoneIndex(String name) {
+        for (int z = 0; z < zones.length; z++) {
+            if (zones[z].name().equals(name)) {
+                return z;
+            }
+        }
+        throw new IllegalArgumentException("Unknown zone: " + name);
+    }
+
+    private ParkingZone zoneOf(int index) {
+        int low = 0;
+        int high = zones.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (zones[mid].firstIndex() <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return zones[low];
+    }
+
+    private LongAdder occupiedBy(Occupancy occupancy) {
+        return occupiedByType[occupancy.vehicleType().ordinal()];
+    }
+
+    private ParkingSpace space(int index) {
+        return new ParkingSpace(index + 1, new BoundSlot(index, zoneOf(index)));
+    }
+
+    /**
+     * Slot backing a space handed out by this repository. Parking or vacating through
+     * the space updates the shared storage and keeps both indexes in step.
+     */
+    private final class BoundSlot implements OccupancySlot {
+
+        private final int index;
+        private final ParkingZone zone;
+
+        BoundSlot(int index, ParkingZone zone) {
+            this.index = index;
+            this.zone = zone;
+        }
+
+        @Override
+        public Occupancy get() {
+            return store.get(index);
+        }
+
+        @Override
+        public void put(Occupancy occupancy) {
+            Occupancy previous = store.put(index, occupancy);
+            try {
+                observer.parked(index + 1, occupancy);
+            } finally {
+                if (previous != null) {
+                    registrations.remove(previous.vehicleReg(), index);
+                    occupiedBy(previous).decrement();
+                } else {
+                    zone.claim(index);
+                }
+                registrations.put(occupancy.vehicleReg(), index);
+                occupiedBy(occupancy).increment();
+                occupancyVersion.incrementAndGet();
+            }
+        }
+
+        @Override
+        public Occupancy clear() {
+            Occupancy previous = store.clear(index);
+            if (previous != null) {
+                try {
+                    observer.vacated(index + 1);
+                } finally {
+                    registrations.remove(previous.vehicleReg(), index);
+                    zone.release(index);
+                    occupiedBy(previous).decrement();
+                    occupancyVersion.incrementAndGet();
+                }
+            }
+            return previous;
+        }
     }
 }
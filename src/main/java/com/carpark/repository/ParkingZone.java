@@ -0,0 +1,69 @@
+package com.carpark.repository;
+
+/**
+ * One zone of the car park: a consecutive range of spaces with its own free-space
+ * index. Zones never share allocation state, so entries through different zones do
+ * not contend on the same words or counters.
+ */
+final class ParkingZone {
+
+    private final String name;
+    private final int level;
+    private final int firstIndex;
+    private final FreeSpaceIndex freeSpaces;
+
+    ParkingZone(String name, int level, int firstIndex, int capacity) {
+        this.name = name;
+        this.level = level;
+        this.firstIndex = firstIndex;
+        this.freeSpaces = new FreeSpaceIndex(capacity);
+    }
+
+    String name() {
+        return name;
+    }
+
+    int level() {
+        return level;
+    }
+
+    int firstIndex() {
+        return firstIndex;
+    }
+
+    int capacity() {
+        return freeSpaces.capacity();
+    }
+
+    int freeCount() {
+        return freeSpaces.freeCount();
+    }
+
+    int occupiedCount() {
+        return freeSpaces.occupiedCount();
+    }
+
+    /**
+     * Returns the car-park-wide index of the lowest free space, or -1.
+     */
+    int firstFree() {
+        int local = freeSpaces.firstFree();
+        return local < 0 ? -1 : firstIndex + local;
+    }
+
+    /**
+     * Claims the lowest free space, returning its car-park-wide index, or -1 when full.
+     */
+    int claimFirst(RepositoryMetrics metrics) {
+        int local = freeSpaces.claimFirst(metrics);
+        return local < 0 ? -1 : firstIndex + local;
+    }
+
+    boolean claim(int index) {
+        return freeSpaces.claim(index - firstIndex);
+    }
+
+    boolean release(int index) {
+        return freeSpaces.release(index - firstIndex);
+    }
+}
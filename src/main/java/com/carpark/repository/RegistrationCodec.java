@@ -0,0 +1,151 @@
+package com.carpark.repository;
+
+/**
+ * Packs vehicle registrations into a {@code long} so they can be hashed and compared
+ * as primitives.
+ *
+ * Each character becomes one base-38 digit: 1-10 for '0'-'9', 11-36 for 'A'-'Z' and
+ * 37 for a space. No digit is 0, so registrations of different lengths never share a
+ * code, and up to {@value #MAX_LENGTH} characters fit in a non-negative {@code long}.
+ * Anything that does not fit packs to {@link #UNPACKABLE}, and callers fall back to
+ * the string.
+ *
+ * <ul>
+ *   <li>{@link #key} packs the registration normalized as {@link RegistrationIndex#normalize}
+ *       does, so every spelling of the same vehicle has the same key.</li>
+ *   <li>{@link #pack} packs the registration exactly as entered, so it can be
+ *       {@link #unpack unpacked} for display.</li>
+ * </ul>
+ */
+final class RegistrationCodec {
+
+    static final long UNPACKABLE = -1;
+    static final int MAX_LENGTH = 12;
+
+    private static final int RADIX = 38;
+    private static final int SPACE = 37;
+    // Codes at or above this already hold MAX_LENGTH digits
+    private static final long FULL = 238_572_050_223_552_512L; // 38^11
+
+    private RegistrationCodec() {
+    }
+
+    /**
+     * Returns the key of the normalized registration, or {@link #UNPACKABLE} if it has a
+     * character other than a letter or digit or is longer than {@value #MAX_LENGTH}.
+     */
+    static long key(CharSequence vehicleReg) {
+        long key = 0;
+        for (int i = 0; i < vehicleReg.length() && key != UNPACKABLE; i++) {
+            key = appendKey(key, vehicleReg.charAt(i));
+        }
+        return key;
+    }
+
+    /**
+     * Extends a key by one character of a registration, normalizing it on the way.
+     */
+    static long appendKey(long key, char c) {
+        if (key == UNPACKABLE || Character.isWhitespace(c)) {
+            return key;
+        }
+        int digit = digit(Character.toUpperCase(c));
+        if (digit == 0 || digit == SPACE || key >= FULL) {
+            return UNPACKABLE;
+        }
+        return key * RADIX + digit;
+    }
+
+    /**
+     * Returns the registration exactly as entered, packed, or {@link #UNPACKABLE} unless
+     * it is at most {@value #MAX_LENGTH} upper-case letters, digits and spaces.
+     */
+    static long pack(CharSequence vehicleReg) {
+        if (vehicleReg.length() > MAX_LENGTH) {
+            return UNPACKABLE;
+        }
+        long packed = 0;
+        for (int i = 0; i < vehicleReg.length(); i++) {
+            int digit = digit(vehicleReg.charAt(i));
+            if (digit == 0) {
+                return UNPACKABLE;
+            }
+            packed = packed * RADIX + digit;
+        }
+        return packed;
+    }
+
+    static String unpack(long packed) {
+        char[] chars = new char[MAX_LENGTH];
+        int start = chars.length;
+        for (long rest = packed; rest != 0; rest /= RADIX) {
+            chars[--start] = character((int) (rest % RADIX));
+        }
+        return new String(chars, start, chars.length - start);
+    }
+
+    /**
+     * Returns the key of a packed registration, by dropping its spaces.
+     */
+    static long keyOf(long packed) {
+        long key = 0;
+        long place = 1;
+        for (long rest = packed; rest != 0; rest /= RADIX) {
+            int digit = (int) (rest % RADIX);
+            if (digit != SPACE) {
+                key += digit * place;
+                place *= RADIX;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Returns true if the stored registration belongs to the vehicle with the given key
+     * and registration. The registration is only consulted when the key is
+     * {@link #UNPACKABLE}.
+     */
+    static boolean matches(long key, String vehicleReg, String stored) {
+        return key != UNPACKABLE ? key(stored) == key : sameVehicle(vehicleReg, stored);
+    }
+
+    /**
+     * Returns true if both registrations normalize to the same string, without
+     * allocating.
+     */
+    static boolean sameVehicle(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (true) {
+            while (i < a.length() && Character.isWhitespace(a.charAt(i))) {
+                i++;
+            }
+            while (j < b.length() && Character.isWhitespace(b.charAt(j))) {
+                j++;
+            }
+            if (i == a.length() || j == b.length()) {
+                return i == a.length() && j == b.length();
+            }
+            if (Character.toUpperCase(a.charAt(i++)) != Character.toUpperCase(b.charAt(j++))) {
+                return false;
+            }
+        }
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 1;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 11;
+        }
+        return c == ' ' ? SPACE : 0;
+    }
+
+    private static char character(int digit) {
+        if (digit == SPACE) {
+            return ' ';
+        }
+        return digit <= 10 ? (char) ('0' + digit - 1) : (char) ('A' + digit - 11);
+    }
+}
@@ -0,0 +1,266 @@
+package com.carpark.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Secondary index from normalized vehicle registration to the index of the space it
+ * occupies.
+ *
+ * Registrations are compared upper-cased with all whitespace removed, so
+ * "ab12 cde" and "AB12CDE" refer to the same vehicle. Methods take the vehicle's key
+ * from {@link RegistrationCodec#key} together with the registration as given.
+ * Packed keys live in open-addressing tables of primitive {@code long}s, split into
+ * stripes that each have their own lock, so lookups neither allocate nor box. The
+ * registration is only used for the rare key that is
+ * {@link RegistrationCodec#UNPACKABLE}, which goes in an ordinary map under its
+ * normalized string. {@link #putIfAbsent} is the point at which a vehicle is
+ * admitted, so one registration can never hold two spaces.
+ */
+class RegistrationIndex {
+
+    private static final int STRIPE_BITS = 6;
+
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+    private final ConcurrentHashMap<String, Integer> unpacked = new ConcurrentHashMap<>();
+
+    RegistrationIndex(int expectedSize) {
+        for (int s = 0; s < stripes.length; s++) {
+            stripes[s] = new Stripe(expectedSize / stripes.length + 1);
+        }
+    }
+
+    /**
+     * Returns the space index mapped to the vehicle, or -1 if there is none.
+     */
+    int get(long key, String vehicleReg) {
+        return get(key, vehicleReg, RepositoryMetrics.NONE);
+    }
+
+    /**
+     * Looks up as {@link #get(long, String)} does, reporting the number of slots
+     * examined to the metrics.
+     */
+    int get(long key, String vehicleReg, RepositoryMetrics metrics) {
+        if (key == RegistrationCodec.UNPACKABLE) {
+            Integer index = unpacked.get(normalize(vehicleReg));
+            return index == null ? -1 : index;
+        }
+        long hash = hash(key);
+        long found = stripe(hash).get(key, hash);
+        metrics.lookupProbed((int) (found >>> 32));
+        return (int) found;
+    }
+
+    boolean contains(long key, String vehicleReg) {
+        return get(key, vehicleReg) >= 0;
+    }
+
+    boolean contains(long key, String vehicleReg, RepositoryMetrics metrics) {
+        return get(key, vehicleReg, metrics) >= 0;
+    }
+
+    /**
+     * Maps the vehicle to the space unless it is already mapped. Returns false if it was.
+     */
+    boolean putIfAbsent(long key, String vehicleReg, int index) {
+        if (key == RegistrationCodec.UNPACKABLE) {
+            return unpacked.putIfAbsent(normalize(vehicleReg), index) == null;
+        }
+        long hash = hash(key);
+        return stripe(hash).put(key, hash, index, false);
+    }
+
+    void put(String vehicleReg, int index) {
+        long key = RegistrationCodec.key(vehicleReg);
+        if (key == RegistrationCodec.UNPACKABLE) {
+            unpacked.put(normalize(vehicleReg), index);
+        } else {
+            long hash = hash(key);
+            stripe(hash).put(key, hash, index, true);
+        }
+    }
+
+    /**
+     * Removes the mapping only if the vehicle is mapped to that space.
+     */
+    boolean remove(long key, String vehicleReg, int index) {
+        if (key == RegistrationCodec.UNPACKABLE) {
+            return unpacked.remove(normalize(vehicleReg), index);
+        }
+        long hash = hash(key);
+        return stripe(hash).remove(key, hash, index);
+    }
+
+    boolean remove(String vehicleReg, int index) {
+        return remove(RegistrationCodec.key(vehicleReg), vehicleReg, index);
+    }
+
+    static String normalize(String vehicleReg) {
+        StringBuilder normalized = new StringBuilder(vehicleReg.length());
+        for (int i = 0; i < vehicleReg.length(); i++) {
+            char c = vehicleReg.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    private static long hash(long key) {
+        // MurmurHash3 finalizer: packed keys share long runs of high digits
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+
+    /**
+     * Linear-probing table of key and space index pairs, at most half full. Writers
+     * take the write lock; readers probe without locking and retry under the read lock
+     * only if a write overlapped them.
+     */
+    private static final class Stripe {
+
+        private static final long EMPTY = -1;
+
+        private final StampedLock lock = new StampedLock();
+        // table[2 * slot] holds the key, or EMPTY; table[2 * slot + 1] the space index
+        private long[] table;
+        private int size;
+
+        Stripe(int expectedSize) {
+            this.table = newTable(Math.max(2, Integer.highestOneBit(expectedSize * 2 - 1) << 1));
+        }
+
+        /**
+         * Returns the number of slots examined in the high half and the space index,
+         * or -1, in the low half.
+         */
+        long get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            long found = find(table, key, hash);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    found = find(table, key, hash);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return found;
+        }
+
+        boolean put(long key, long hash, int index, boolean replace) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = slotOf(table, key, hash);
+                if (table[slot << 1] == key) {
+                    if (replace) {
+                        table[(slot << 1) + 1] = index;
+                    }
+                    return false;
+                }
+                table[slot << 1] = key;
+                table[(slot << 1) + 1] = index;
+                if (++size * 2 > table.length >>> 1) {
+                    grow();
+                }
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        boolean remove(long key, long hash, int index) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = slotOf(table, key, hash);
+                if (table[slot << 1] != key || table[(slot << 1) + 1] != index) {
+                    return false;
+                }
+                delete(slot);
+                size--;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private static long find(long[] table, long key, long hash) {
+            int mask = (table.length >>> 1) - 1;
+            int slot = (int) hash & mask;
+            int index = -1;
+            int probes = 1;
+            for (; probes <= mask + 1; probes++) {
+                long found = table[slot << 1];
+                if (found == key) {
+                    index = (int) table[(slot << 1) + 1];
+                    break;
+                }
+                if (found == EMPTY) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return (long) Math.min(probes, mask + 1) << 32 | (index & 0xFFFF_FFFFL);
+        }
+
+        /**
+         * Returns the slot holding the key, or the empty slot where it belongs.
+         */
+        private static int slotOf(long[] table, long key, long hash) {
+            int mask = (table.length >>> 1) - 1;
+            int slot = (int) hash & mask;
+            while (table[slot << 1] != key && table[slot << 1] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Empties the slot and shifts later entries of the probe run back into the hole,
+         * so no tombstones are needed.
+         */
+        private void delete(int slot) {
+            int mask = (table.length >>> 1) - 1;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; table[next << 1] != EMPTY; next = (next + 1) & mask) {
+                int home = (int) hash(table[next << 1]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    table[hole << 1] = table[next << 1];
+                    table[(hole << 1) + 1] = table[(next << 1) + 1];
+                    hole = next;
+                }
+            }
+            table[hole << 1] = EMPTY;
+        }
+
+        private void grow() {
+            long[] old = table;
+            long[] grown = newTable(old.length);
+            for (int i = 0; i < old.length; i += 2) {
+                long key = old[i];
+                if (key != EMPTY) {
+                    int slot = slotOf(grown, key, hash(key));
+                    grown[slot << 1] = key;
+                    grown[(slot << 1) + 1] = old[i + 1];
+                }
+            }
+            table = grown;
+        }
+
+        private static long[] newTable(int slots) {
+            long[] table = new long[slots * 2];
+            for (int i = 0; i < table.length; i += 2) {
+                table[i] = EMPTY;
+            }
+            return table;
+        }
+    }
+}
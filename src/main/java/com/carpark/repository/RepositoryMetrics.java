@@ -0,0 +1,39 @@
+package com.carpark.repository;
+
+/**
+ * Receives measurements from the repository's allocation and lookup paths. Callbacks
+ * take primitives and run on the request thread, so implementations must record
+ * without allocating or blocking.
+ */
+public interface RepositoryMetrics {
+
+    RepositoryMetrics NONE = new RepositoryMetrics() {
+    };
+
+    /**
+     * A space was claimed, or the zone found full, after examining this many words
+     * of the free-space bitset.
+     */
+    default void allocationScanned(int words) {
+    }
+
+    /**
+     * A registration lookup examined this many slots of the registration index.
+     */
+    default void lookupProbed(int slots) {
+    }
+
+    /**
+     * Another thread changed a free-space word between our read and our
+     * compare-and-set, so the claim was retried.
+     */
+    default void spaceContended() {
+    }
+
+    /**
+     * Another thread admitted the same vehicle, or took the claimed space, between
+     * our checks and our update.
+     */
+    default void registrationContended() {
+    }
+}
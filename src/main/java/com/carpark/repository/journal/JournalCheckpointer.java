@@ -0,0 +1,67 @@
+package com.carpark.repository.journal;
+
+import com.carpark.model.Occupancy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Takes journal snapshots on a background thread at a fixed interval, and a final one
+ * on close so the next startup has only the snapshot to load.
+ */
+public final class JournalCheckpointer implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalCheckpointer.class);
+
+    private final OccupancyJournal journal;
+    private final Supplier<Occupancy[]> state;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * @param interval time between snapshots; zero or negative disables periodic
+     *                 snapshots, leaving only the one taken on close
+     */
+    public JournalCheckpointer(OccupancyJournal journal, Supplier<Occupancy[]> state, Duration interval) {
+        this.journal = journal;
+        this.state = state;
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "occupancy-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (interval.toMillis() > 0) {
+            executor.scheduleWithFixedDelay(this::checkpointQuietly,
+                    interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.checkpoint(state);
+    }
+
+    private void checkpointQuietly() {
+        try {
+            long start = System.nanoTime();
+            if (journal.checkpoint(state)) {
+                log.info("Wrote occupancy snapshot in {} ms", (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The journal still holds every event, so the next attempt loses nothing.
+            log.warn("Occupancy snapshot failed", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.carpark.repository.journal;
+
+import com.carpark.model.Occupancy;
+import com.carpark.model.VehicleType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of journal segments.
+ *
+ * A segment starts with an 8-byte header (magic, version) followed by records:
+ * <pre>
+ *   int    length of everything after this field, checksum included
+ *   long   sequence
+ *   byte   type (PARK or VACATE)
+ *   int    space number
+ *   -- PARK only --
+ *   byte   vehicle type code
+ *   long   time in, epoch seconds (UTC)
+ *   int    time in, nanoseconds
+ *   short  registration length, followed by its UTF-8 bytes
+ *   -- always --
+ *   int    CRC32C of sequence .. end of payload
+ * </pre>
+ * A record cut short by a crash fails either the length or the checksum test, which
+ * is how recovery finds the end of the durable log.
+ */
+final class JournalCodec {
+
+    static final int MAGIC = 0x43504a4c; // "CPJL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+
+    static final byte PARK = 1;
+    static final byte VACATE = 2;
+
+    private static final int VACATE_BODY = 8 + 1 + 4 + 4;
+    private static final int PARK_FIXED_BODY = VACATE_BODY + 1 + 8 + 4 + 2;
+    private static final int MAX_BODY = PARK_FIXED_BODY + 4 * Short.MAX_VALUE;
+
+    private JournalCodec() {
+    }
+
+    static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    /**
+     * Checks the segment header at the buffer's position and skips past it.
+     */
+    static boolean readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return false;
+        }
+        return buffer.getInt() == MAGIC && buffer.getInt() == VERSION;
+    }
+
+    static int parkSize(byte[] reg) {
+        return 4 + PARK_FIXED_BODY + reg.length;
+    }
+
+    static int vacateSize() {
+        return 4 + VACATE_BODY;
+    }
+
+    static void writePark(ByteBuffer buffer, long sequence, int spaceNumber, Occupancy occupancy, byte[] reg) {
+        int start = buffer.position();
+        buffer.putInt(PARK_FIXED_BODY + reg.length)
+                .putLong(sequence)
+                .put(PARK)
+                .putInt(spaceNumber)
+                .put((byte) occupancy.vehicleType().getCode())
+                .putLong(occupancy.timeIn().toEpochSecond(ZoneOffset.UTC))
+                .putInt(occupancy.timeIn().getNano())
+                .putShort((short) reg.length)
+                .put(reg);
+        putChecksum(buffer, start);
+    }
+
+    static void writeVacate(ByteBuffer buffer, long sequence, int spaceNumber) {
+        int start = buffer.position();
+        buffer.putInt(VACATE_BODY)
+                .putLong(sequence)
+                .put(VACATE)
+                .putInt(spaceNumber);
+        putChecksum(buffer, start);
+    }
+
+    static byte[] encodeReg(String vehicleReg) {
+        byte[] reg = vehicleReg.getBytes(StandardCharsets.UTF_8);
+        if (reg.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Registration too long to journal: " + reg.length + " bytes");
+        }
+        return reg;
+    }
+
+    /**
+     * Decodes the record at the buffer's position into the visitor and advances past
+     * it. Returns false, leaving the position unchanged, if the remaining bytes do not
+     * hold a complete, intact record.
+     */
+    static boolean read(ByteBuffer buffer, JournalVisitor visitor) {
+        int start = buffer.position();
+        if (buffer.remaining() < 4) {
+            return false;
+        }
+        int length = buffer.getInt(start);
+        if (length < VACATE_BODY || length > MAX_BODY || buffer.remaining() - 4 < length) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + 4, length - 4));
+        if ((int) crc.getValue() != buffer.getInt(start + length)) {
+            return false;
+        }
+
+        buffer.position(start + 4);
+        long sequence = buffer.getLong();
+        byte type = buffer.get();
+        int spaceNumber = buffer.getInt();
+        if (type == PARK) {
+            VehicleType vehicleType = VehicleType.fromCode(buffer.get());
+            long epochSecond = buffer.getLong();
+            int nano = buffer.getInt();
+            byte[] reg = new byte[buffer.getShort()];
+            buffer.get(reg);
+            visitor.parked(sequence, spaceNumber, new Occupancy(
+                    new String(reg, StandardCharsets.UTF_8),
+                    vehicleType,
+                    LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC)));
+        } else if (type == VACATE) {
+            visitor.vacated(sequence, spaceNumber);
+        } else {
+            buffer.position(start);
+            return false;
+        }
+        buffer.position(start + 4 + length);
+        return true;
+    }
+
+    private static void putChecksum(ByteBuffer buffer, int start) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + 4, buffer.position() - start - 4));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    interface JournalVisitor {
+
+        void parked(long sequence, int spaceNumber, Occupancy occupancy);
+
+        void vacated(long sequence, int spaceNumber);
+    }
+}
@@ -0,0 +1,483 @@
+package com.carpark.repository.journal;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.Occupancy;
+import com.carpark.repository.OccupancyObserver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Append-only write-ahead journal of park and vacate events.
+ *
+ * Request threads encode events into an in-memory buffer under a short lock and
+ * return at once. A single flusher thread swaps the buffer out and writes it to the
+ * current segment with a {@link FileChannel}, forcing it to disk when {@code fsync}
+ * is on. Every event appended while one write is in progress goes out in the next,
+ * so concurrent requests share a single force instead of paying for one each (group
+ * commit). {@link #sync()} is the durability barrier: it blocks until everything
+ * appended so far has been written. {@link #whenDurable()} is the same barrier for
+ * callers that must not block.
+ *
+ * The log is split into segments of roughly {@code segmentSize} bytes, named after
+ * the sequence number of their first event. Events are keyed by space number and
+ * replaying one sets the space's state outright, so replay is idempotent.
+ * {@link #checkpoint} snapshots the state and drops the segments the snapshot
+ * covers, so recovery time is bounded by the snapshot interval rather than the age
+ * of the site.
+ */
+public final class OccupancyJournal implements OccupancyObserver, Closeable {
+
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+    private static final int EAGER_FLUSH_BYTES = 256 * 1024;
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final long flushIntervalNanos;
+    private final long segmentBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+
+    // Guarded by lock
+    private ByteBuffer active = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private long lastAppended = -1;
+    private long lastFlushed;
+    private int syncWaiters;
+    // Ordered by target sequence, since each is the last appended when it was added
+    private final ArrayDeque<DurableWaiter> durableWaiters = new ArrayDeque<>();
+    private boolean closed;
+    private IOException failure;
+
+    // Guarded by checkpointLock, and by lock during recovery
+    private long lastSnapshot;
+
+    // Owned by the flusher thread
+    private Thread flusher;
+    private FileChannel segment;
+    private long segmentPosition;
+
+    public OccupancyJournal(CarParkProperties.Journal config) {
+        this(Paths.get(config.getDirectory()), config.isFsync(),
+                config.getFlushInterval().toNanos(), config.getSegmentSize().toBytes());
+    }
+
+    OccupancyJournal(Path directory, boolean fsync, long flushIntervalNanos, long segmentBytes) {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Loads the latest snapshot, if any, into a fresh state array (one element per
+     * space, null for free) and replays the journal events that follow it, then starts
+     * accepting appends. Spaces beyond {@code capacity} are ignored. A torn record at
+     * the end of a segment is truncated away. Must be called once, before the journal
+     * is used.
+     */
+    public Occupancy[] recover(int capacity) throws IOException {
+        lock.lock();
+        try {
+            if (lastAppended >= 0) {
+                throw new IllegalStateException("Journal has already been recovered");
+            }
+            Files.createDirectories(directory);
+            Occupancy[] state = new Occupancy[capacity];
+            for (Path abandoned : files(SnapshotFile.TEMP_SUFFIX)) {
+                Files.delete(abandoned);
+            }
+            List<Path> snapshots = files(SnapshotFile.SUFFIX);
+            long covered = snapshots.isEmpty() ? 0 : SnapshotFile.read(snapshots.get(snapshots.size() - 1), state);
+            List<Path> segments = files(SEGMENT_SUFFIX);
+            long last = covered;
+            for (int i = 0; i < segments.size(); i++) {
+                if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= covered + 1) {
+                    continue; // every event in it is already in the snapshot
+                }
+                last = Math.max(last, replay(segments.get(i), state, covered));
+            }
+            lastSnapshot = covered;
+            lastAppended = last;
+            lastFlushed = last;
+            flusher = new Thread(this::flushLoop, "occupancy-journal");
+            flusher.setDaemon(true);
+            flusher.start();
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void parked(int spaceNumber, Occupancy occupancy) {
+        byte[] reg = JournalCodec.encodeReg(occupancy.vehicleReg());
+        lock.lock();
+        try {
+            JournalCodec.writePark(reserve(JournalCodec.parkSize(reg)), ++lastAppended, spaceNumber, occupancy, reg);
+            afterAppend();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void vacated(int spaceNumber) {
+        lock.lock();
+        try {
+            JournalCodec.writeVacate(reserve(JournalCodec.vacateSize()), ++lastAppended, spaceNumber);
+            afterAppend();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every event appended so far has been written, and forced to disk
+     * when {@code fsync} is on.
+     *
+     * @throws UncheckedIOException if the journal can no longer be written
+     */
+    @Override
+    public void sync() {
+        lock.lock();
+        try {
+            long target = lastAppended;
+            if (lastFlushed >= target) {
+                return;
+            }
+            syncWaiters++;
+            try {
+                pending.signal();
+                while (lastFlushed < target && failure == null) {
+                    flushed.awaitUninterruptibly();
+                }
+            } finally {
+                syncWaiters--;
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Occupancy journal is unavailable", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a future completed once every event appended so far has been written, and
+     * forced to disk when {@code fsync} is on, or completed exceptionally with an
+     * {@link UncheckedIOException} if the journal can no longer be written. The future
+     * is completed on the flusher thread, so anything slow that depends on it should
+     * move to another thread.
+     */
+    @Override
+    public CompletableFuture<Void> whenDurable() {
+        lock.lock();
+        try {
+            if (failure != null) {
+                return CompletableFuture.failedFuture(new UncheckedIOException("Occupancy journal is unavailable", failure));
+            }
+            long target = lastAppended;
+            if (lastFlushed >= target) {
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> durable = new CompletableFuture<>();
+            durableWaiters.add(new DurableWaiter(target, durable));
+            pending.signal();
+            return durable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the state and deletes the journal segments and older
+     * snapshots it makes redundant. Does nothing if no event has been appended since
+     * the last snapshot.
+     *
+     * The sequence is read before the state, so every event up to it is already
+     * reflected in the state. The state need not be a consistent cut: changes racing
+     * with the scan have later sequence numbers and are replayed on top of the
+     * snapshot, and replaying an event sets the space's state outright. Request threads
+     * are never blocked.
+     *
+     * @return true if a snapshot was written
+     */
+    public boolean checkpoint(Supplier<Occupancy[]> state) throws IOException {
+        checkpointLock.lock();
+        try {
+            long sequence;
+            lock.lock();
+            try {
+                if (lastAppended < 0) {
+                    throw new IllegalStateException("Journal has not been recovered");
+                }
+                sequence = lastAppended;
+            } finally {
+                lock.unlock();
+            }
+            if (sequence == lastSnapshot) {
+                return false;
+            }
+            SnapshotFile.write(directory, sequence, state.get(), fsync);
+            lastSnapshot = sequence;
+
+            List<Path> segments = files(SEGMENT_SUFFIX);
+            // The newest segment may still be written to, so it is always kept.
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                if (firstSequence(segments.get(i + 1)) <= sequence + 1) {
+                    Files.deleteIfExists(segments.get(i));
+                }
+            }
+            for (Path snapshot : files(SnapshotFile.SUFFIX)) {
+                if (firstSequence(snapshot) < sequence) {
+                    Files.deleteIfExists(snapshot);
+                }
+            }
+            return true;
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes outstanding events and stops the flusher.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            thread = flusher;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (segment != null) {
+            segment.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private ByteBuffer reserve(int bytes) {
+        if (failure != null) {
+            throw new UncheckedIOException("Occupancy journal is unavailable", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (lastAppended < 0) {
+            throw new IllegalStateException("Journal has not been recovered");
+        }
+        if (active.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(active.capacity() * 2, active.position() + bytes));
+            active.flip();
+            larger.put(active);
+            active = larger;
+        }
+        return active;
+    }
+
+    private void afterAppend() {
+        if (syncWaiters > 0 || !durableWaiters.isEmpty() || active.position() >= EAGER_FLUSH_BYTES) {
+            pending.signal();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long batchFirst;
+            long batchLast;
+            lock.lock();
+            try {
+                while (active.position() == 0 && !closed) {
+                    pending.awaitUninterruptibly();
+                }
+                if (syncWaiters == 0 && durableWaiters.isEmpty() && !closed && active.position() < EAGER_FLUSH_BYTES) {
+                    // Nobody is waiting yet: give the batch a moment to grow.
+                    pending.awaitNanos(flushIntervalNanos);
+                }
+                if (active.position() == 0) {
+                    return;
+                }
+                batch = active;
+                active = spare;
+                batchFirst = lastFlushed + 1;
+                batchLast = lastAppended;
+            } catch (InterruptedException e) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                write(batch.flip(), batchFirst);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            List<CompletableFuture<Void>> done;
+            lock.lock();
+            try {
+                spare = batch.clear();
+                if (error != null) {
+                    failure = error;
+                } else {
+                    lastFlushed = batchLast;
+                }
+                flushed.signalAll();
+                done = durableWaiters.isEmpty() ? List.of() : new ArrayList<>();
+                while (!durableWaiters.isEmpty() && (error != null || durableWaiters.peek().target() <= lastFlushed)) {
+                    done.add(durableWaiters.poll().durable());
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Completed outside the lock, since dependent stages run right here
+            for (CompletableFuture<Void> durable : done) {
+                if (error != null) {
+                    durable.completeExceptionally(new UncheckedIOException("Occupancy journal is unavailable", error));
+                } else {
+                    durable.complete(null);
+                }
+            }
+            if (error != null) {
+                return;
+            }
+        }
+    }
+
+    private void write(ByteBuffer batch, long firstSequence) throws IOException {
+        if (segment == null || segmentPosition >= segmentBytes) {
+            roll(firstSequence);
+        }
+        while (batch.hasRemaining()) {
+            segmentPosition += segment.write(batch);
+        }
+        if (fsync) {
+            segment.force(false);
+        }
+    }
+
+    private void roll(long firstSequence) throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(JournalCodec.HEADER_BYTES);
+        JournalCodec.writeHeader(header);
+        segment.write(header.flip());
+        segmentPosition = JournalCodec.HEADER_BYTES;
+        if (fsync) {
+            segment.force(true);
+        }
+    }
+
+    /**
+     * Files in the journal directory with the suffix, oldest first.
+     */
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> matching = new ArrayList<>();
+            files.filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .sorted()
+                    .forEach(matching::add);
+            return matching;
+        }
+    }
+
+    private static long firstSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+
+    /**
+     * Applies the events of one segment that come after {@code after} to the state
+     * array and returns the last sequence the segment held. A segment left with no
+     * events, once any torn write is cut off, is deleted, so that the segment the
+     * next flush rolls to can take its name.
+     */
+    private static long replay(Path path, Occupancy[] state, long after) throws IOException {
+        long[] last = {0};
+        boolean empty;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            // Shorter than a header: created just before a crash, with nothing written to it.
+            empty = size < JournalCodec.HEADER_BYTES;
+            if (!empty) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (!JournalCodec.readHeader(buffer)) {
+                    throw new IOException("Not a journal segment: " + path);
+                }
+                JournalCodec.JournalVisitor visitor = new JournalCodec.JournalVisitor() {
+                    @Override
+                    public void parked(long sequence, int spaceNumber, Occupancy occupancy) {
+                        last[0] = sequence;
+                        if (sequence > after && spaceNumber >= 1 && spaceNumber <= state.length) {
+                            state[spaceNumber - 1] = occupancy;
+                        }
+                    }
+
+                    @Override
+                    public void vacated(long sequence, int spaceNumber) {
+                        last[0] = sequence;
+                        if (sequence > after && spaceNumber >= 1 && spaceNumber <= state.length) {
+                            state[spaceNumber - 1] = null;
+                        }
+                    }
+                };
+                while (JournalCodec.read(buffer, visitor)) {
+                    // keep reading
+                }
+                if (buffer.position() < size) {
+                    // A crash cut the last write short; nothing after it was acknowledged.
+                    channel.truncate(buffer.position());
+                }
+                empty = buffer.position() <= JournalCodec.HEADER_BYTES;
+            }
+        }
+        if (empty) {
+            Files.delete(path);
+        }
+        return last[0];
+    }
+
+    private record DurableWaiter(long target, CompletableFuture<Void> durable) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.carpark.repository.journal;
+
+import com.carpark.model.Occupancy;
+import com.carpark.model.VehicleType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary dump of every occupied space, tagged with the journal sequence it covers.
+ * <pre>
+ *   int    magic
+ *   int    version
+ *   long   sequence
+ *   int    number of entries, then for each:
+ *     int    space number
+ *     byte   vehicle type code
+ *     long   time in, epoch seconds (UTC)
+ *     int    time in, nanoseconds
+ *     short  registration length, followed by its UTF-8 bytes
+ *   int    CRC32C of everything before it
+ * </pre>
+ * Snapshots are written to a temporary file and renamed into place, so a crash
+ * never leaves a partial snapshot under the final name.
+ */
+final class SnapshotFile {
+
+    static final String SUFFIX = ".snapshot";
+    static final String TEMP_SUFFIX = SUFFIX + ".tmp";
+
+    private static final int MAGIC = 0x4350534e; // "CPSN"
+    private static final int VERSION = 1;
+
+    private SnapshotFile() {
+    }
+
+    static Path write(Path directory, long sequence, Occupancy[] state, boolean fsync) throws IOException {
+        Path target = directory.resolve(String.format("%020d%s", sequence, SUFFIX));
+        Path temp = directory.resolve(String.format("%020d%s", sequence, TEMP_SUFFIX));
+        int count = 0;
+        for (Occupancy occupancy : state) {
+            if (occupancy != null) {
+                count++;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024), new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(count);
+            for (int i = 0; i < state.length && count > 0; i++) {
+                Occupancy occupancy = state[i];
+                if (occupancy == null) {
+                    continue;
+                }
+                byte[] reg = JournalCodec.encodeReg(occupancy.vehicleReg());
+                out.writeInt(i + 1);
+                out.writeByte(occupancy.vehicleType().getCode());
+                out.writeLong(occupancy.timeIn().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(occupancy.timeIn().getNano());
+                out.writeShort(reg.length);
+                out.write(reg);
+                count--;
+            }
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (fsync) {
+            try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+                dir.force(true);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Loads the snapshot into the state array and returns the journal sequence it
+     * covers. Spaces beyond the array are ignored.
+     *
+     * @throws IOException if the file is not an intact snapshot
+     */
+    static long read(Path path, Occupancy[] state) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 24) {
+                throw new IOException("Snapshot is truncated: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, (int) size - 4));
+            if ((int) crc.getValue() != buffer.getInt((int) size - 4)) {
+                throw new IOException("Snapshot checksum mismatch: " + path);
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not an occupancy snapshot: " + path);
+            }
+            long sequence = buffer.getLong();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int spaceNumber = buffer.getInt();
+                VehicleType vehicleType = VehicleType.fromCode(buffer.get());
+                long epochSecond = buffer.getLong();
+                int nano = buffer.getInt();
+                byte[] reg = new byte[buffer.getShort()];
+                buffer.get(reg);
+                if (spaceNumber >= 1 && spaceNumber <= state.length) {
+                    state[spaceNumber - 1] = new Occupancy(new String(reg, StandardCharsets.UTF_8),
+                            vehicleType, LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+                }
+            }
+            return sequence;
+        }
+    }
+}
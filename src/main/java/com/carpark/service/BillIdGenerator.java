@@ -0,0 +1,10 @@
+package com.carpark.service;
+
+/**
+ * Source of bill identifiers. Implementations must be safe to call from any number of
+ * threads and never return the same identifier twice.
+ */
+public interface BillIdGenerator {
+
+    String nextId();
+}
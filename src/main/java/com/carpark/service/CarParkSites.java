@@ -0,0 +1,71 @@
+package com.carpark.service;
+
+import com.carpark.dto.CarParkStatusResponse;
+import com.carpark.dto.CarParksStatusResponse;
+import com.carpark.dto.ParkingStatusResponse;
+import com.carpark.exception.CarParkNotFoundException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The car parks this instance serves, by id: the default one laid out by
+ * {@code carpark.zones} and each of {@code carpark.sites}.
+ *
+ * Every car park is a shard of its own, with its own repository - space bitsets,
+ * registration index, counters, occupancy store and journal - and its own
+ * {@link ParkingService}, status cache and meters. Requests for different car parks
+ * therefore take no common lock and write no common field; routing one is a lookup in
+ * a map that never changes after startup.
+ */
+public class CarParkSites {
+
+    private final Map<String, ParkingService> services;
+
+    /**
+     * @param services each car park's service by id, in the order they are reported
+     */
+    public CarParkSites(Map<String, ParkingService> services) {
+        this.services = Collections.unmodifiableMap(new LinkedHashMap<>(services));
+    }
+
+    /**
+     * Returns the service of a car park.
+     *
+     * @throws CarParkNotFoundException if this instance does not serve it
+     */
+    public ParkingService get(String carParkId) {
+        ParkingService service = services.get(carParkId);
+        if (service == null) {
+            throw new CarParkNotFoundException(carParkId);
+        }
+        return service;
+    }
+
+    public Set<String> ids() {
+        return services.keySet();
+    }
+
+    /**
+     * Returns the space counts of every car park and their totals. Each car park's
+     * counts come from its cached status, so car parks nobody has entered or left
+     * since the last call cost a version read each.
+     */
+    public CarParksStatusResponse getStatus() {
+        List<CarParkStatusResponse> carParks = new ArrayList<>(services.size());
+        int available = 0;
+        int occupied = 0;
+        for (Map.Entry<String, ParkingService> entry : services.entrySet()) {
+            ParkingStatusResponse status = entry.getValue().currentStatus().status();
+            carParks.add(new CarParkStatusResponse(
+                    entry.getKey(), status.getAvailableSpaces(), status.getOccupiedSpaces()));
+            available += status.getAvailableSpaces();
+            occupied += status.getOccupiedSpaces();
+        }
+        return new CarParksStatusResponse(available, occupied, carParks);
+    }
+}
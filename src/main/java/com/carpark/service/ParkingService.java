@@ -1,94 +1,365 @@
 package com.carpark.service;
 
+import com.carpark.config.CarParkProperties;
 import com.carpark.dto.*;
 import com.carpark.exception.CarParkFullException;
 import com.carpark.exception.VehicleAlreadyParkedException;
 import com.carpark.exception.VehicleNotFoundException;
-import com.carpark.model.ParkingSpace;
+import com.carpark.model.Occupancy;
+import com.carpark.model.ParkingEntry;
 import com.carpark.model.VehicleType;
+import com.carpark.model.ZoneOccupancy;
+import com.carpark.repository.ParkResult;
 import com.carpark.repository.ParkingRepository;
+import com.carpark.service.tariff.CompiledTariff;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.UUID;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Parks and bills vehicles in one car park. Each operation is timed, and each
+ * rejection counted by reason, on meters registered once here so the request path
+ * only records into them; the meters are tagged with the car park's id, so every car
+ * park served records into its own.
+ *
+ * Park and exit wait for the change to be durable before answering. The blocking
+ * methods wait on the calling thread; the {@code Async} variants return a future
+ * instead, for callers on an event loop.
+ *
+ * The status is built once per {@link ParkingRepository#occupancyVersion() occupancy
+ * version} and shared until a vehicle enters or leaves, so repeated polls of an
+ * unchanged car park only read the version.
+ */
 @Service
 public class ParkingService {
 
     private final ParkingRepository parkingRepository;
-    private static final double ADDITIONAL_CHARGE_PER_5_MINUTES = 1.0;
+    private final BillIdGenerator billIdGenerator;
+    private final CompiledTariff tariff;
+    private final Timer parkTimer;
+    private final Timer parkBatchTimer;
+    private final Timer billTimer;
+    private final Timer billBatchTimer;
+    private final Timer statusTimer;
+    private final Counter rejectedFull;
+    private final Counter rejectedAlreadyParked;
+    private final Counter rejectedNotFound;
+    // Distinguishes this instance's tags from those of earlier runs, whose versions restarted at 0
+    private final String etagPrefix = "\"" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    private volatile CachedStatus cachedStatus;
+    private static final String CAR_PARK_FULL_MESSAGE = "No available parking spaces";
+    // Stackless and immutable, so one instance serves every refusal
+    private static final CarParkFullException CAR_PARK_FULL = new CarParkFullException(CAR_PARK_FULL_MESSAGE);
+
+    @Autowired
+    public ParkingService(ParkingRepository parkingRepository, BillIdGenerator billIdGenerator,
+                          CompiledTariff tariff, MeterRegistry meterRegistry) {
+        this(parkingRepository, billIdGenerator, tariff, meterRegistry, CarParkProperties.DEFAULT_SITE);
+    }
 
-    public ParkingService(ParkingRepository parkingRepository) {
+    public ParkingService(ParkingRepository parkingRepository, BillIdGenerator billIdGenerator,
+                          CompiledTariff tariff, MeterRegistry meterRegistry, String carParkId) {
+        Tags tags = Tags.of("carpark", carParkId);
         this.parkingRepository = parkingRepository;
+        this.billIdGenerator = billIdGenerator;
+        this.tariff = tariff;
+        this.parkTimer = operationTimer(meterRegistry, tags, "park");
+        this.parkBatchTimer = operationTimer(meterRegistry, tags, "park_batch");
+        this.billTimer = operationTimer(meterRegistry, tags, "bill");
+        this.billBatchTimer = operationTimer(meterRegistry, tags, "bill_batch");
+        this.statusTimer = operationTimer(meterRegistry, tags, "status");
+        this.rejectedFull = rejectionCounter(meterRegistry, tags, "full");
+        this.rejectedAlreadyParked = rejectionCounter(meterRegistry, tags, "already_parked");
+        this.rejectedNotFound = rejectionCounter(meterRegistry, tags, "not_found");
     }
 
     public ParkingStatusResponse getParkingStatus() {
-        int available = (int) parkingRepository.countAvailableSpaces();
-        int occupied = (int) parkingRepository.countOccupiedSpaces();
-        return new ParkingStatusResponse(available, occupied);
+        return getParkingStatusSnapshot().status();
+    }
+
+    /**
+     * Returns the status with the entity tag of the occupancy version it was read at.
+     */
+    public ParkingStatusSnapshot getParkingStatusSnapshot() {
+        long start = System.nanoTime();
+        try {
+            return status();
+        } finally {
+            statusTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Returns the status as {@link #getParkingStatusSnapshot()} does, without timing
+     * it as a request.
+     */
+    ParkingStatusSnapshot currentStatus() {
+        return status();
     }
 
     public ParkVehicleResponse parkVehicle(ParkVehicleRequest request) {
-        if (parkingRepository.isVehicleParked(request.getVehicleReg())) {
-            throw new VehicleAlreadyParkedException(
-                    "Vehicle " + request.getVehicleReg() + " is already parked"
-            );
+        long start = System.nanoTime();
+        try {
+            return park(request);
+        } finally {
+            parkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Parks the vehicle as {@link #parkVehicle} does, without blocking. The future
+     * completes once the entry is durable, or exceptionally with the rejection.
+     */
+    public CompletableFuture<ParkVehicleResponse> parkVehicleAsync(ParkVehicleRequest request) {
+        long start = System.nanoTime();
+        CompletableFuture<ParkVehicleResponse> response;
+        try {
+            ParkVehicleResponse parked = admit(request);
+            response = parkingRepository.whenDurable().thenApply(durable -> parked);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
         }
+        return response.whenComplete((result, failure) ->
+                parkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
 
-        ParkingSpace space = parkingRepository.findFirstAvailableSpace()
-                .orElseThrow(() -> new CarParkFullException("No available parking spaces"));
+    /**
+     * Parks a batch of vehicles with one shared entry time and a single pass over the
+     * allocation structure. Rejections are reported per item rather than thrown.
+     */
+    public List<BatchItemResponse<ParkVehicleResponse>> parkVehicles(List<ParkVehicleRequest> requests) {
+        long start = System.nanoTime();
+        try {
+            return parkAll(requests);
+        } finally {
+            parkBatchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
 
+    public BillResponse generateBillAndExit(BillRequest request) {
+        long start = System.nanoTime();
+        try {
+            return bill(request);
+        } finally {
+            billTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Bills and removes the vehicle as {@link #generateBillAndExit} does, without
+     * blocking. The future completes once the exit is durable, or exceptionally if the
+     * vehicle is not parked.
+     */
+    public CompletableFuture<BillResponse> generateBillAndExitAsync(BillRequest request) {
+        long start = System.nanoTime();
+        CompletableFuture<BillResponse> response;
+        try {
+            Occupancy occupancy = depart(request);
+            LocalDateTime timeOut = LocalDateTime.now();
+            response = parkingRepository.whenDurable().thenApply(durable -> toBill(occupancy, timeOut));
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.whenComplete((result, failure) ->
+                billTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Bills and removes a batch of vehicles with one shared exit time. Vehicles that
+     * are not parked are reported per item rather than thrown.
+     */
+    public List<BatchItemResponse<BillResponse>> generateBillsAndExit(List<BillRequest> requests) {
+        long start = System.nanoTime();
+        try {
+            return billAll(requests);
+        } finally {
+            billBatchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private ParkingStatusSnapshot status() {
+        // Read the version before the counts, so the counts are never older than the tag
+        long version = parkingRepository.occupancyVersion();
+        CachedStatus cached = cachedStatus;
+        if (cached != null && cached.version() == version) {
+            return cached.snapshot();
+        }
+        ParkingStatusSnapshot snapshot = new ParkingStatusSnapshot(etagPrefix + version + "\"", countSpaces());
+        cachedStatus = new CachedStatus(version, snapshot);
+        return snapshot;
+    }
+
+    private ParkingStatusResponse countSpaces() {
+        int available = (int) parkingRepository.countAvailableSpaces();
+        int occupied = (int) parkingRepository.countOccupiedSpaces();
+        List<ZoneStatusResponse> zones = new ArrayList<>();
+        for (ZoneOccupancy zone : parkingRepository.zoneOccupancy()) {
+            zones.add(new ZoneStatusResponse(
+                    zone.zone(), zone.level(), zone.availableSpaces(), zone.occupiedSpaces()));
+        }
+        return new ParkingStatusResponse(available, occupied, zones);
+    }
+
+    private ParkVehicleResponse park(ParkVehicleRequest request) {
+        ParkVehicleResponse response = admit(request);
+        parkingRepository.awaitDurable();
+        return response;
+    }
+
+    private ParkVehicleResponse admit(ParkVehicleRequest request) {
         VehicleType vehicleType = VehicleType.fromCode(request.getVehicleType());
         LocalDateTime timeIn = LocalDateTime.now();
-        space.park(request.getVehicleReg(), vehicleType, timeIn);
+
+        ParkResult result = parkingRepository.park(
+                request.getVehicleReg(), vehicleType, timeIn, request.getZone());
+        if (result.status() == ParkResult.Status.ALREADY_PARKED) {
+            rejectedAlreadyParked.increment();
+            throw new VehicleAlreadyParkedException(
+                    "Vehicle " + request.getVehicleReg() + " is already parked"
+            );
+        }
+        if (result.status() == ParkResult.Status.FULL) {
+            rejectedFull.increment();
+            throw CAR_PARK_FULL;
+        }
 
         return new ParkVehicleResponse(
                 request.getVehicleReg(),
-                space.getSpaceNumber(),
+                result.space().getSpaceNumber(),
                 timeIn
         );
     }
 
-    public BillResponse generateBillAndExit(BillRequest request) {
-        ParkingSpace space = parkingRepository.findByVehicleReg(request.getVehicleReg())
-                .orElseThrow(() -> new VehicleNotFoundException(
-                        "Vehicle " + request.getVehicleReg() + " not found in car park"
-                ));
+    private List<BatchItemResponse<ParkVehicleResponse>> parkAll(List<ParkVehicleRequest> requests) {
+        LocalDateTime timeIn = LocalDateTime.now();
+        List<BatchItemResponse<ParkVehicleResponse>> responses = new ArrayList<>(requests.size());
+        List<ParkingEntry> entries = new ArrayList<>(requests.size());
+        for (ParkVehicleRequest request : requests) {
+            String zone = request.getZone();
+            if (zone != null && !parkingRepository.hasZone(zone)) {
+                responses.add(BatchItemResponse.failure(request.getVehicleReg(),
+                        HttpStatus.BAD_REQUEST.value(), "UNKNOWN_ZONE", "Unknown zone: " + zone));
+                continue;
+            }
+            responses.add(null);
+            entries.add(new ParkingEntry(
+                    request.getVehicleReg(), VehicleType.fromCode(request.getVehicleType()), zone));
+        }
+
+        List<ParkResult> results = parkingRepository.parkAll(entries, timeIn);
+        parkingRepository.awaitDurable();
+        int next = 0;
+        for (int i = 0; i < responses.size(); i++) {
+            if (responses.get(i) != null) {
+                continue;
+            }
+            String vehicleReg = requests.get(i).getVehicleReg();
+            ParkResult result = results.get(next++);
+            countRejection(result.status());
+            responses.set(i, switch (result.status()) {
+                case PARKED -> BatchItemResponse.success(vehicleReg, HttpStatus.CREATED.value(),
+                        new ParkVehicleResponse(vehicleReg, result.space().getSpaceNumber(), timeIn));
+                case ALREADY_PARKED -> BatchItemResponse.failure(vehicleReg, HttpStatus.CONFLICT.value(),
+                        "VEHICLE_ALREADY_PARKED", "Vehicle " + vehicleReg + " is already parked");
+                case FULL -> BatchItemResponse.failure(vehicleReg, HttpStatus.CONFLICT.value(),
+                        "CAR_PARK_FULL", CAR_PARK_FULL_MESSAGE);
+            });
+        }
+        return responses;
+    }
 
+    private BillResponse bill(BillRequest request) {
+        Occupancy occupancy = depart(request);
+        // Taken before the wait, so the journal's flush is not billed as parking time
         LocalDateTime timeOut = LocalDateTime.now();
-        double charge = calculateCharge(space.getTimeIn(), timeOut, space.getVehicleType());
+        parkingRepository.awaitDurable();
 
-        BillResponse bill = new BillResponse(
-                UUID.randomUUID().toString(),
-                space.getVehicleReg(),
-                charge,
-                space.getTimeIn(),
-                timeOut
-        );
+        return toBill(occupancy, timeOut);
+    }
+
+    private Occupancy depart(BillRequest request) {
+        Occupancy occupancy = parkingRepository.vacate(request.getVehicleReg()).orElse(null);
+        if (occupancy == null) {
+            rejectedNotFound.increment();
+            throw new VehicleNotFoundException(
+                    "Vehicle " + request.getVehicleReg() + " not found in car park"
+            );
+        }
+        return occupancy;
+    }
 
-        space.vacate();
+    private List<BatchItemResponse<BillResponse>> billAll(List<BillRequest> requests) {
+        List<String> vehicleRegs = new ArrayList<>(requests.size());
+        for (BillRequest request : requests) {
+            vehicleRegs.add(request.getVehicleReg());
+        }
+
+        List<Occupancy> departed = parkingRepository.vacateAll(vehicleRegs);
+        LocalDateTime timeOut = LocalDateTime.now();
+        parkingRepository.awaitDurable();
 
-        return bill;
+        List<BatchItemResponse<BillResponse>> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String vehicleReg = vehicleRegs.get(i);
+            Occupancy occupancy = departed.get(i);
+            if (occupancy == null) {
+                rejectedNotFound.increment();
+            }
+            responses.add(occupancy == null
+                    ? BatchItemResponse.failure(vehicleReg, HttpStatus.NOT_FOUND.value(),
+                            "VEHICLE_NOT_FOUND", "Vehicle " + vehicleReg + " not found in car park")
+                    : BatchItemResponse.success(vehicleReg, HttpStatus.OK.value(), toBill(occupancy, timeOut)));
+        }
+        return responses;
     }
 
+    private void countRejection(ParkResult.Status status) {
+        switch (status) {
+            case ALREADY_PARKED -> rejectedAlreadyParked.increment();
+            case FULL -> rejectedFull.increment();
+            case PARKED -> {
+            }
+        }
+    }
 
-    /**
-     * Calculate parking charge based on:
-     * - Per-minute rate based on vehicle type
-     * - Additional £1 charge for every 5 minutes
-     */
-    private double calculateCharge(LocalDateTime timeIn, LocalDateTime timeOut, VehicleType vehicleType) {
-        long totalMinutes = ChronoUnit.MINUTES.between(timeIn, timeOut);
+    private static Timer operationTimer(MeterRegistry registry, Tags tags, String operation) {
+        return Timer.builder("carpark.operations")
+                .description("Time to complete a car park operation, rejections included")
+                .tags(tags)
+                .tag("operation", operation)
+                .register(registry);
+    }
 
-        double baseCharge = totalMinutes * vehicleType.getRatePerMinute();
+    private static Counter rejectionCounter(MeterRegistry registry, Tags tags, String reason) {
+        return Counter.builder("carpark.rejections")
+                .description("Park and exit requests refused")
+                .tags(tags)
+                .tag("reason", reason)
+                .register(registry);
+    }
 
-        long fiveMinuteBlocks = totalMinutes / 5;
-        double additionalCharge = fiveMinuteBlocks * ADDITIONAL_CHARGE_PER_5_MINUTES;
+    private BillResponse toBill(Occupancy occupancy, LocalDateTime timeOut) {
+        long pence = tariff.charge(occupancy.vehicleType(), occupancy.timeIn(), timeOut);
 
-        double totalCharge = baseCharge + additionalCharge;
+        return new BillResponse(
+                billIdGenerator.nextId(),
+                occupancy.vehicleReg(),
+                pence / 100.0,
+                occupancy.timeIn(),
+                timeOut
+        );
+    }
 
-        return Math.round(totalCharge * 100.0) / 100.0;
+    private record CachedStatus(long version, ParkingStatusSnapshot snapshot) {
     }
 }
@@ -0,0 +1,11 @@
+package com.carpark.service;
+
+import com.carpark.dto.ParkingStatusResponse;
+
+/**
+ * A parking status together with the entity tag of the occupancy it was read at. The
+ * tag changes whenever a vehicle enters or leaves, so a client can poll with
+ * {@code If-None-Match} and only download the status when it has moved.
+ */
+public record ParkingStatusSnapshot(String etag, ParkingStatusResponse status) {
+}
@@ -0,0 +1,104 @@
+package com.carpark.service;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.dto.ParkingStatusResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the parking status to subscribers as it changes, for signs that would
+ * otherwise poll {@code GET /parking}.
+ *
+ * One ticker reads the status every {@code carpark.stream.interval} while anyone is
+ * subscribed and offers it to every subscriber at once; the status is only rebuilt
+ * when the occupancy version has moved, so a tick of an unchanged car park costs a
+ * version read. Each subscriber drops statuses equal to the last one it was sent, so
+ * a burst of entries and exits between two ticks reaches it as a single update. A
+ * subscriber that cannot keep up holds only the newest status it has yet to send,
+ * never a queue, so slow clients cost constant memory however many updates they miss.
+ */
+@Service
+public class ParkingStatusStream {
+
+    private final ParkingService parkingService;
+    private final Duration heartbeat;
+    private final Scheduler scheduler = Schedulers.newSingle("parking-status-stream", true);
+    private final Sinks.Many<ParkingStatusSnapshot> ticks = Sinks.many().multicast().directBestEffort();
+    private final Disposable ticker;
+
+    public ParkingStatusStream(ParkingService parkingService, CarParkProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.parkingService = parkingService;
+        CarParkProperties.Stream stream = properties.getStream();
+        if (stream.getInterval().isNegative() || stream.getInterval().isZero()) {
+            throw new IllegalArgumentException("Stream interval must be positive: " + stream.getInterval());
+        }
+        this.heartbeat = stream.getHeartbeat();
+        long interval = stream.getInterval().toNanos();
+        this.ticker = scheduler.schedulePeriodically(this::tick, interval, interval, TimeUnit.NANOSECONDS);
+        Gauge.builder("carpark.stream.subscribers", ticks, Sinks.Many::currentSubscriberCount)
+                .description("Clients subscribed to parking status updates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the current status followed by each change, at most one per interval.
+     * When the subscriber already has the current status, identified by its tag, the
+     * first update is the next change.
+     */
+    public Flux<ParkingStatusSnapshot> updates(String lastTag) {
+        // Subscribing to the ticks first means a change made while the current status
+        // is read is still picked up by the next tick.
+        return Flux.defer(() -> ticks.asFlux()
+                        .startWith(parkingService.currentStatus()))
+                .distinctUntilChanged(ParkingStatusSnapshot::etag)
+                .skipWhile(snapshot -> snapshot.etag().equals(lastTag))
+                .onBackpressureLatest();
+    }
+
+    /**
+     * Returns {@link #updates} as server-sent events, with a comment whenever the
+     * subscriber has been sent nothing for the heartbeat interval.
+     */
+    public Flux<ServerSentEvent<ParkingStatusResponse>> events(String lastTag) {
+        Flux<ServerSentEvent<ParkingStatusResponse>> statuses = updates(lastTag)
+                .map(snapshot -> ServerSentEvent.builder(snapshot.status())
+                        .id(snapshot.etag())
+                        .event("status")
+                        .build());
+        if (heartbeat.isZero() || heartbeat.isNegative()) {
+            return statuses;
+        }
+        ServerSentEvent<ParkingStatusResponse> keepAlive =
+                ServerSentEvent.<ParkingStatusResponse>builder().comment("keep-alive").build();
+        return statuses.switchMap(status -> Flux.interval(heartbeat, scheduler)
+                        .map(beat -> keepAlive)
+                        .onBackpressureDrop()
+                        .startWith(status))
+                .onBackpressureLatest();
+    }
+
+    @PreDestroy
+    public void close() {
+        ticker.dispose();
+        ticks.tryEmitComplete();
+        scheduler.dispose();
+    }
+
+    private void tick() {
+        if (ticks.currentSubscriberCount() > 0) {
+            ticks.tryEmitNext(parkingService.currentStatus());
+        }
+    }
+}
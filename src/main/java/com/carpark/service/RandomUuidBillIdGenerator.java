@@ -0,0 +1,16 @@
+package com.carpark.service;
+
+import java.util.UUID;
+
+/**
+ * Random version 4 UUIDs from {@link UUID#randomUUID()}. Every call draws from one
+ * shared {@code SecureRandom}, so callers contend under load, and the identifiers do
+ * not sort by issue time.
+ */
+public final class RandomUuidBillIdGenerator implements BillIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,54 @@
+package com.carpark.service;
+
+import com.carpark.dto.BillRequest;
+import com.carpark.dto.BillResponse;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.dto.ParkVehicleResponse;
+import com.carpark.dto.ParkingStatusResponse;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking face of {@link ParkingService} for the reactive stack. The repository
+ * work itself never blocks, so it runs on the subscribing event-loop thread; only the
+ * wait for durability is asynchronous. When that wait is still pending, the rest of
+ * the response is finished on the parallel scheduler rather than on the journal's
+ * flusher thread that completes it.
+ */
+@Service
+public class ReactiveParkingService {
+
+    private final ParkingService parkingService;
+
+    public ReactiveParkingService(ParkingService parkingService) {
+        this.parkingService = parkingService;
+    }
+
+    public Mono<ParkingStatusResponse> getParkingStatus() {
+        return Mono.fromSupplier(parkingService::getParkingStatus);
+    }
+
+    public Mono<ParkingStatusSnapshot> getParkingStatusSnapshot() {
+        return Mono.fromSupplier(parkingService::getParkingStatusSnapshot);
+    }
+
+    public Mono<ParkVehicleResponse> parkVehicle(ParkVehicleRequest request) {
+        return whenComplete(() -> parkingService.parkVehicleAsync(request));
+    }
+
+    public Mono<BillResponse> generateBillAndExit(BillRequest request) {
+        return whenComplete(() -> parkingService.generateBillAndExitAsync(request));
+    }
+
+    private static <T> Mono<T> whenComplete(Supplier<CompletableFuture<T>> operation) {
+        return Mono.defer(() -> {
+            CompletableFuture<T> result = operation.get();
+            Mono<T> mono = Mono.fromFuture(result);
+            return result.isDone() ? mono : mono.publishOn(Schedulers.parallel());
+        });
+    }
+}
@@ -0,0 +1,184 @@
+package com.carpark.service.tariff;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.VehicleType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tariff rules compiled into per-vehicle-type tables of whole pence.
+ *
+ * A stay is charged per whole minute, each minute at the rate of the time-of-day band
+ * it starts in, plus a fixed charge per complete block of minutes. The day's bands are
+ * stored as a piecewise-linear function: for each band, its first minute, its rate and
+ * the cost of the day up to its start. The cost of any span of minutes is then the
+ * difference of two lookups, each a binary search over the bands, so a charge takes
+ * O(log bands) whatever the length of the stay and allocates nothing.
+ *
+ * With a daily cap the stay is split into 24-hour periods from entry, each charged at
+ * most the cap; every full period costs the same, so the number of periods does not
+ * matter either. The block length must then divide a day, so that every block falls
+ * within one period. Stays no longer than the grace period are free.
+ */
+public final class CompiledTariff {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final long NO_CAP = Long.MAX_VALUE;
+
+    private final int blockMinutes;
+    // Minute of the day each band starts; the first is always 0
+    private final int[] bandStarts;
+    // Indexed [vehicle type ordinal][band]
+    private final long[][] rates;
+    // Cost from midnight to the start of each band, plus the whole day at the end
+    private final long[][] costBefore;
+    // Indexed by vehicle type ordinal
+    private final long[] blockCharges;
+    private final long[] dailyCaps;
+    private final long[] graceMinutes;
+
+    private CompiledTariff(int blockMinutes, int[] bandStarts, long[][] rates, long[] blockCharges,
+                           long[] dailyCaps, long[] graceMinutes) {
+        this.blockMinutes = blockMinutes;
+        this.bandStarts = bandStarts;
+        this.rates = rates;
+        this.blockCharges = blockCharges;
+        this.dailyCaps = dailyCaps;
+        this.graceMinutes = graceMinutes;
+        this.costBefore = new long[rates.length][];
+        for (int t = 0; t < rates.length; t++) {
+            long[] cost = new long[bandStarts.length + 1];
+            for (int b = 0; b < bandStarts.length; b++) {
+                int end = b + 1 < bandStarts.length ? bandStarts[b + 1] : MINUTES_PER_DAY;
+                cost[b + 1] = Math.addExact(cost[b], Math.multiplyExact(end - bandStarts[b], rates[t][b]));
+            }
+            costBefore[t] = cost;
+        }
+    }
+
+    /**
+     * Compiles the configured rules.
+     *
+     * @throws IllegalArgumentException if a rule is invalid, such as an amount that is
+     *                                  negative or not a whole number of pence, or a
+     *                                  daily cap with blocks that do not divide a day
+     */
+    public static CompiledTariff compile(CarParkProperties.Tariff tariff) {
+        if (tariff.getBlockMinutes() <= 0) {
+            throw new IllegalArgumentException("Tariff block must be at least one minute: " + tariff.getBlockMinutes());
+        }
+        VehicleType[] types = VehicleType.values();
+        List<CarParkProperties.Band> bands = new ArrayList<>(tariff.getBands());
+        bands.sort(Comparator.comparing(CarParkProperties.Band::getStart));
+        if (bands.isEmpty() || !LocalTime.MIDNIGHT.equals(bands.get(0).getStart())) {
+            // The last band runs on past midnight until the first one starts
+            CarParkProperties.Band wrapped = bands.isEmpty()
+                    ? new CarParkProperties.Band()
+                    : bands.get(bands.size() - 1);
+            bands.add(0, new CarParkProperties.Band(LocalTime.MIDNIGHT, wrapped.getRates()));
+        }
+
+        int[] bandStarts = new int[bands.size()];
+        for (int b = 0; b < bands.size(); b++) {
+            LocalTime start = bands.get(b).getStart();
+            if (start == null || start.getSecond() != 0 || start.getNano() != 0) {
+                throw new IllegalArgumentException("Tariff bands must start on a whole minute: " + start);
+            }
+            bandStarts[b] = start.getHour() * 60 + start.getMinute();
+            if (b > 0 && bandStarts[b] == bandStarts[b - 1]) {
+                throw new IllegalArgumentException("Two tariff bands start at " + start);
+            }
+        }
+
+        long[][] rates = new long[types.length][bands.size()];
+        long[] blockCharges = new long[types.length];
+        long[] dailyCaps = new long[types.length];
+        long[] graceMinutes = new long[types.length];
+        for (VehicleType type : types) {
+            CarParkProperties.TypeTariff overrides = tariff.getTypes().getOrDefault(type, new CarParkProperties.TypeTariff());
+            BigDecimal usualRate = overrides.getRatePerMinute() != null
+                    ? overrides.getRatePerMinute()
+                    : BigDecimal.valueOf(type.getRatePerMinute());
+            int t = type.ordinal();
+            for (int b = 0; b < bands.size(); b++) {
+                rates[t][b] = pence(bands.get(b).getRates().getOrDefault(type, usualRate));
+            }
+            blockCharges[t] = pence(overrides.getBlockCharge() != null ? overrides.getBlockCharge() : tariff.getBlockCharge());
+            BigDecimal cap = overrides.getDailyCap() != null ? overrides.getDailyCap() : tariff.getDailyCap();
+            dailyCaps[t] = cap == null ? NO_CAP : pence(cap);
+            if (cap != null && MINUTES_PER_DAY % tariff.getBlockMinutes() != 0) {
+                // Otherwise a block straddling the end of a capped period belongs to neither
+                throw new IllegalArgumentException("Tariff block must divide a day when a daily cap is set: "
+                        + tariff.getBlockMinutes());
+            }
+            Duration grace = overrides.getGracePeriod() != null ? overrides.getGracePeriod() : tariff.getGracePeriod();
+            if (grace.isNegative()) {
+                throw new IllegalArgumentException("Grace period must not be negative: " + grace);
+            }
+            graceMinutes[t] = grace.toMinutes();
+        }
+        return new CompiledTariff(tariff.getBlockMinutes(), bandStarts, rates, blockCharges, dailyCaps, graceMinutes);
+    }
+
+    /**
+     * Returns the charge in pence for a stay. A stay that ends before it starts is free.
+     */
+    public long charge(VehicleType vehicleType, LocalDateTime timeIn, LocalDateTime timeOut) {
+        long minutes = Math.max(0, ChronoUnit.MINUTES.between(timeIn, timeOut));
+        int t = vehicleType.ordinal();
+        if (minutes <= graceMinutes[t]) {
+            return 0;
+        }
+        int start = timeIn.getHour() * 60 + timeIn.getMinute();
+        long days = minutes / MINUTES_PER_DAY;
+        int rest = (int) (minutes % MINUTES_PER_DAY);
+        long[] cost = costBefore[t];
+        long dayCost = cost[cost.length - 1];
+        long restCost = costUntil(t, start + rest) - costUntil(t, start);
+
+        if (dailyCaps[t] == NO_CAP) {
+            long blocks = minutes / blockMinutes;
+            return Math.addExact(Math.addExact(Math.multiplyExact(days, dayCost), restCost),
+                    Math.multiplyExact(blocks, blockCharges[t]));
+        }
+        long fullPeriod = Math.min(dailyCaps[t], dayCost + (long) (MINUTES_PER_DAY / blockMinutes) * blockCharges[t]);
+        long lastPeriod = Math.min(dailyCaps[t], restCost + (long) (rest / blockMinutes) * blockCharges[t]);
+        return Math.addExact(Math.multiplyExact(days, fullPeriod), lastPeriod);
+    }
+
+    /**
+     * Cost of the minutes from midnight up to {@code minute}, which may run into the
+     * next day.
+     */
+    private long costUntil(int t, int minute) {
+        long[] cost = costBefore[t];
+        if (minute >= MINUTES_PER_DAY) {
+            return cost[cost.length - 1] + costUntil(t, minute - MINUTES_PER_DAY);
+        }
+        int band = Arrays.binarySearch(bandStarts, minute);
+        if (band < 0) {
+            band = -band - 2;
+        }
+        return cost[band] + (minute - bandStarts[band]) * rates[t][band];
+    }
+
+    private static long pence(BigDecimal pounds) {
+        if (pounds.signum() < 0) {
+            throw new IllegalArgumentException("Tariff amounts must not be negative: " + pounds);
+        }
+        try {
+            return pounds.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Tariff amounts must be a whole number of pence: " + pounds, e);
+        }
+    }
+}
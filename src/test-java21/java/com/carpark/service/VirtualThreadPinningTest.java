@@ -0,0 +1,92 @@
+package com.carpark.service;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.dto.BillRequest;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.repository.ParkingRepository;
+import com.carpark.repository.journal.OccupancyJournal;
+import com.carpark.service.tariff.CompiledTariff;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the park and bill path on virtual threads, with a journal that makes every
+ * request block until its change is durable, and fails if any virtual thread blocked
+ * while pinned to its carrier (for example inside a {@code synchronized} block).
+ * Pinning while waiting for the journal can starve the carriers outright, so the
+ * test also fails if the visits do not finish in time.
+ */
+class VirtualThreadPinningTest {
+
+    private static final int VEHICLES = 2000;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(CarParkProperties.StorageMode.class)
+    @Timeout(value = 60, unit = TimeUnit.SECONDS, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void parkAndBill_ShouldNotPinCarrierThreads(CarParkProperties.StorageMode mode) throws Exception {
+        // Given
+        CarParkProperties properties = CarParkProperties.defaults();
+        properties.getZones().get(0).setSpaces(VEHICLES);
+        properties.getStorage().setMode(mode);
+        properties.getStorage().setPath(directory.resolve("occupancy.table").toString());
+        properties.getJournal().setDirectory(directory.resolve("journal").toString());
+        ParkingRepository repository = new ParkingRepository(properties);
+        OccupancyJournal journal = new OccupancyJournal(properties.getJournal());
+        repository.restore(journal.recover(repository.capacity()));
+        repository.setObserver(journal);
+        ParkingService service = new ParkingService(repository, new TimeOrderedBillIdGenerator(0),
+                CompiledTariff.compile(properties.getTariff()), new SimpleMeterRegistry());
+
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            // When
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> visits = new ArrayList<>();
+                for (int i = 0; i < VEHICLES; i++) {
+                    String vehicleReg = "VT" + i;
+                    visits.add(executor.submit(() -> {
+                        service.parkVehicle(new ParkVehicleRequest(vehicleReg, 1));
+                        service.getParkingStatus();
+                        return service.generateBillAndExit(new BillRequest(vehicleReg));
+                    }));
+                }
+                for (Future<?> visit : visits) {
+                    visit.get();
+                }
+            }
+            recording.stop();
+
+            // Then
+            Path file = directory.resolve("pinning.jfr");
+            recording.dump(file);
+            List<RecordedEvent> pinned = RecordingFile.readAllEvents(file);
+            assertTrue(pinned.isEmpty(), () -> "Virtual threads were pinned:\n" + pinned);
+            assertEquals(0, repository.countOccupiedSpaces());
+        } finally {
+            journal.close();
+            repository.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.carpark.config;
+
+import com.carpark.dto.BillRequest;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.service.ParkingService;
+import com.carpark.service.RandomUuidBillIdGenerator;
+import com.carpark.service.tariff.CompiledTariff;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SiteConfigurationTest {
+
+    @TempDir
+    Path directory;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void siteShards_ShouldKeepEachSitesVehiclesApart() throws IOException {
+        // Given
+        CarParkProperties properties = properties();
+
+        // When
+        try (SiteConfiguration.SiteShards shards = siteShards(properties)) {
+            ParkingService north = shards.services().get("north");
+            ParkingService south = shards.services().get("south");
+            north.parkVehicle(new ParkVehicleRequest("ABC123", 1, null));
+            south.parkVehicle(new ParkVehicleRequest("ABC123", 1, null));
+            south.generateBillAndExit(new BillRequest("ABC123"));
+
+            // Then
+            assertEquals(1, north.getParkingStatus().getOccupiedSpaces());
+            assertEquals(9, north.getParkingStatus().getAvailableSpaces());
+            assertEquals(0, south.getParkingStatus().getOccupiedSpaces());
+            assertEquals(30, south.getParkingStatus().getAvailableSpaces());
+            assertEquals(1, meterRegistry.get("carpark.operations")
+                    .tags("carpark", "north", "operation", "park").timer().count());
+            assertEquals(1, meterRegistry.get("carpark.operations")
+                    .tags("carpark", "south", "operation", "bill").timer().count());
+            assertEquals(9.0, meterRegistry.get("carpark.spaces.available").tag("carpark", "north").gauge().value());
+        }
+    }
+
+    @Test
+    void siteShards_ShouldRecoverEachSiteFromItsOwnJournal() throws IOException {
+        // Given
+        CarParkProperties properties = properties();
+        properties.getJournal().setEnabled(true);
+        try (SiteConfiguration.SiteShards shards = siteShards(properties)) {
+            shards.services().get("north").parkVehicle(new ParkVehicleRequest("ABC123", 1, null));
+        }
+
+        // When
+        try (SiteConfiguration.SiteShards shards = new SiteConfiguration().siteShards(properties,
+                new RandomUuidBillIdGenerator(), CompiledTariff.compile(properties.getTariff()),
+                new SimpleMeterRegistry())) {
+
+            // Then
+            assertEquals(1, shards.services().get("north").getParkingStatus().getOccupiedSpaces());
+            assertEquals(0, shards.services().get("south").getParkingStatus().getOccupiedSpaces());
+            assertTrue(Files.isDirectory(directory.resolve("journal/sites/north")));
+            assertTrue(Files.isDirectory(directory.resolve("journal/sites/south")));
+        }
+    }
+
+    @Test
+    void forSite_ShouldRejectIdsUnfitForPathsOrClashingWithTheDefault() {
+        // Given
+        CarParkProperties properties = properties();
+        properties.getSites().put("../up", site(5));
+        properties.getSites().put(CarParkProperties.DEFAULT_SITE, site(5));
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> properties.forSite("../up"));
+        assertThrows(IllegalArgumentException.class, () -> properties.forSite(CarParkProperties.DEFAULT_SITE));
+        assertThrows(IllegalArgumentException.class, () -> properties.forSite("east"));
+    }
+
+    private SiteConfiguration.SiteShards siteShards(CarParkProperties properties) throws IOException {
+        return new SiteConfiguration().siteShards(properties, new RandomUuidBillIdGenerator(),
+                CompiledTariff.compile(properties.getTariff()), meterRegistry);
+    }
+
+    private CarParkProperties properties() {
+        CarParkProperties properties = CarParkProperties.defaults();
+        properties.getStorage().setPath(directory.resolve("occupancy.table").toString());
+        properties.getJournal().setDirectory(directory.resolve("journal").toString());
+        properties.getJournal().setFsync(false);
+        properties.getSites().put("north", site(10));
+        properties.getSites().put("south", site(30));
+        return properties;
+    }
+
+    private static CarParkProperties.Site site(int spaces) {
+        CarParkProperties.Site site = new CarParkProperties.Site();
+        site.getZones().add(new CarParkProperties.Zone("A", 0, spaces));
+        return site;
+    }
+}
@@ -0,0 +1,118 @@
+package com.carpark.controller;
+
+import com.carpark.dto.*;
+import com.carpark.exception.CarParkNotFoundException;
+import com.carpark.service.CarParkSites;
+import com.carpark.service.ParkingService;
+import com.carpark.service.ParkingStatusSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CarParkController.class)
+class CarParkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private CarParkSites carParkSites;
+
+    @MockBean
+    private ParkingService parkingService;
+
+    @Test
+    void getStatus_ShouldReturnEveryCarParkAndTotals() throws Exception {
+        // Given
+        when(carParkSites.getStatus()).thenReturn(new CarParksStatusResponse(55, 95, List.of(
+                new CarParkStatusResponse("default", 45, 5),
+                new CarParkStatusResponse("north", 10, 90))));
+
+        // When & Then
+        mockMvc.perform(get("/carparks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableSpaces").value(55))
+                .andExpect(jsonPath("$.occupiedSpaces").value(95))
+                .andExpect(jsonPath("$.carParks[1].carParkId").value("north"))
+                .andExpect(jsonPath("$.carParks[1].occupiedSpaces").value(90));
+    }
+
+    @Test
+    void getParkingStatus_ShouldReturnCarParksStatus() throws Exception {
+        // Given
+        when(carParkSites.get("north")).thenReturn(parkingService);
+        when(parkingService.getParkingStatusSnapshot())
+                .thenReturn(new ParkingStatusSnapshot("\"b-9\"", new ParkingStatusResponse(10, 90)));
+
+        // When & Then
+        mockMvc.perform(get("/carparks/north/parking"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"b-9\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(jsonPath("$.availableSpaces").value(10));
+        mockMvc.perform(get("/carparks/north/parking").header("If-None-Match", "\"b-9\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void parkVehicle_ShouldParkInTheNamedCarPark() throws Exception {
+        // Given
+        ParkVehicleRequest request = new ParkVehicleRequest("ABC123", 1);
+        when(carParkSites.get("north")).thenReturn(parkingService);
+        when(parkingService.parkVehicle(request))
+                .thenReturn(new ParkVehicleResponse("ABC123", 3, LocalDateTime.of(2024, 3, 9, 7, 5, 3)));
+
+        // When & Then
+        mockMvc.perform(post("/carparks/north/parking")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.spaceNumber").value(3));
+        verify(parkingService).parkVehicle(request);
+    }
+
+    @Test
+    void generateBills_ShouldBillInTheNamedCarPark() throws Exception {
+        // Given
+        when(carParkSites.get("north")).thenReturn(parkingService);
+        when(parkingService.generateBillsAndExit(any())).thenReturn(List.of(BatchItemResponse.failure(
+                "XYZ789", 404, "VEHICLE_NOT_FOUND", "Vehicle XYZ789 not found in car park")));
+
+        // When & Then
+        mockMvc.perform(post("/carparks/north/parking/bill/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"vehicleReg\":\"XYZ789\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(404));
+        verify(parkingService).generateBillsAndExit(List.of(new BillRequest("XYZ789")));
+    }
+
+    @Test
+    void parkVehicle_ShouldReturnNotFound_WhenCarParkUnknown() throws Exception {
+        // Given
+        when(carParkSites.get("south")).thenThrow(new CarParkNotFoundException("south"));
+
+        // When & Then
+        mockMvc.perform(post("/carparks/south/parking")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vehicleReg\":\"ABC123\",\"vehicleType\":1}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Car park south not found"));
+    }
+}
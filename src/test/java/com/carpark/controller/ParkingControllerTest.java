@@ -1,23 +1,42 @@
 package com.carpark.controller;
 
+import com.carpark.config.BinaryContentConfiguration;
 import com.carpark.dto.*;
+import com.carpark.dto.json.ParkingJsonSerializers;
+import com.carpark.exception.CarParkFullException;
 import com.carpark.service.ParkingService;
+import com.carpark.service.ParkingStatusSnapshot;
+import com.carpark.service.ParkingStatusStream;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ParkingController.class)
+@Import(BinaryContentConfiguration.class)
 class ParkingControllerTest {
 
     @Autowired
@@ -29,19 +48,128 @@ class ParkingControllerTest {
     @MockBean
     private ParkingService parkingService;
 
+    @MockBean
+    private ParkingStatusStream parkingStatusStream;
+
     @Test
     void getParkingStatus_ShouldReturnStatus() throws Exception {
         // Given
         ParkingStatusResponse statusResponse = new ParkingStatusResponse(45, 5);
-        when(parkingService.getParkingStatus()).thenReturn(statusResponse);
+        when(parkingService.getParkingStatusSnapshot())
+                .thenReturn(new ParkingStatusSnapshot("\"a-7\"", statusResponse));
 
         // When & Then
         mockMvc.perform(get("/parking"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"a-7\""))
+                .andExpect(header().string("Vary", "Accept"))
                 .andExpect(jsonPath("$.availableSpaces").value(45))
                 .andExpect(jsonPath("$.occupiedSpaces").value(5));
     }
 
+    @Test
+    void getParkingStatus_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Given
+        when(parkingService.getParkingStatusSnapshot())
+                .thenReturn(new ParkingStatusSnapshot("\"a-7\"", new ParkingStatusResponse(45, 5)));
+
+        // When & Then
+        mockMvc.perform(get("/parking").header("If-None-Match", "\"a-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"a-7\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/parking").header("If-None-Match", "\"a-6\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableSpaces").value(45));
+    }
+
+    @Test
+    void streamParkingStatus_ShouldSendServerSentEvents() throws Exception {
+        // Given
+        when(parkingStatusStream.events("\"a-6\"")).thenReturn(Flux.just(
+                ServerSentEvent.builder(new ParkingStatusResponse(45, 5)).id("\"a-7\"").event("status").build()));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/parking/stream").header("Last-Event-ID", "\"a-6\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        // Then
+        assertTrue(result.getResponse().getContentType().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:status"));
+        assertTrue(body.contains("\"availableSpaces\""));
+    }
+
+    @Test
+    void objectMapper_ShouldUseHandWrittenSerializers() throws Exception {
+        // When
+        Object serializer = objectMapper.getSerializerProviderInstance()
+                .findValueSerializer(ParkVehicleResponse.class);
+
+        // Then
+        assertTrue(serializer instanceof ParkingJsonSerializers.ParkVehicleResponseSerializer);
+    }
+
+    @Test
+    void parkVehicle_ShouldExchangeCbor_WhenNegotiated() throws Exception {
+        // Given
+        CBORMapper cbor = new CBORMapper();
+        when(parkingService.parkVehicle(any(ParkVehicleRequest.class)))
+                .thenReturn(new ParkVehicleResponse("ABC123", 1, LocalDateTime.of(2024, 3, 9, 7, 5, 3)));
+
+        // When
+        byte[] body = mockMvc.perform(post("/parking")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(new ParkVehicleRequest("ABC123", 1))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        JsonNode response = cbor.readTree(body);
+        assertEquals("ABC123", response.get("vehicleReg").asText());
+        assertEquals("2024-03-09T07:05:03", response.get("timeIn").asText());
+        verify(parkingService).parkVehicle(new ParkVehicleRequest("ABC123", 1));
+    }
+
+    @Test
+    void parkVehicle_ShouldReturnErrorAsSmile_WhenNegotiated() throws Exception {
+        // Given
+        when(parkingService.parkVehicle(any(ParkVehicleRequest.class)))
+                .thenThrow(new CarParkFullException("No available parking spaces"));
+
+        // When
+        byte[] body = mockMvc.perform(post("/parking")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept("application/x-jackson-smile")
+                        .content("{\"vehicleReg\":\"ABC123\",\"vehicleType\":1}"))
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        JsonNode error = new SmileMapper().readTree(body);
+        assertEquals(409, error.get("status").asInt());
+        assertEquals("No available parking spaces", error.get("message").asText());
+    }
+
+    @Test
+    void getParkingStatus_ShouldDefaultToJson_WhenAnyTypeAccepted() throws Exception {
+        // Given
+        when(parkingService.getParkingStatusSnapshot())
+                .thenReturn(new ParkingStatusSnapshot("\"a-7\"", new ParkingStatusResponse(45, 5)));
+
+        // When & Then
+        mockMvc.perform(get("/parking").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.availableSpaces").value(45));
+    }
+
     @Test
     void parkVehicle_ShouldReturnCreated_WhenSuccessful() throws Exception {
         // Given
@@ -123,4 +251,82 @@ class ParkingControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void parkVehicles_ShouldReturnPerItemOutcomes() throws Exception {
+        // Given
+        List<ParkVehicleRequest> requests = List.of(
+                new ParkVehicleRequest("ABC123", 1),
+                new ParkVehicleRequest("XYZ789", 2));
+        when(parkingService.parkVehicles(anyList())).thenReturn(List.of(
+                BatchItemResponse.success("ABC123", 201,
+                        new ParkVehicleResponse("ABC123", 1, LocalDateTime.now())),
+                BatchItemResponse.failure("XYZ789", 409, "CAR_PARK_FULL", "No available parking spaces")));
+
+        // When & Then
+        mockMvc.perform(post("/parking/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].result.spaceNumber").value(1))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].status").value(409))
+                .andExpect(jsonPath("$[1].error").value("CAR_PARK_FULL"))
+                .andExpect(jsonPath("$[1].vehicleReg").value("XYZ789"));
+    }
+
+    @Test
+    void parkVehicles_ShouldReturnBadRequest_WhenAnItemIsInvalid() throws Exception {
+        // Given
+        List<ParkVehicleRequest> requests = List.of(
+                new ParkVehicleRequest("ABC123", 1),
+                new ParkVehicleRequest("XYZ789", 7));
+
+        // When & Then
+        mockMvc.perform(post("/parking/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$['[1].vehicleType']").value("Vehicle type must be 1, 2, or 3"));
+        verify(parkingService, never()).parkVehicles(anyList());
+    }
+
+    @Test
+    void parkVehicles_ShouldReturnBadRequest_WhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(post("/parking/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void generateBills_ShouldReturnPerItemOutcomes() throws Exception {
+        // Given
+        List<BillRequest> requests = List.of(new BillRequest("ABC123"), new BillRequest("NOTFOUND"));
+        when(parkingService.generateBillsAndExit(anyList())).thenReturn(List.of(
+                BatchItemResponse.success("ABC123", 200, new BillResponse(
+                        "bill-123", "ABC123", 3.0, LocalDateTime.now().minusMinutes(10), LocalDateTime.now())),
+                BatchItemResponse.failure("NOTFOUND", 404, "VEHICLE_NOT_FOUND",
+                        "Vehicle NOTFOUND not found in car park")));
+
+        // When & Then
+        mockMvc.perform(post("/parking/bill/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].result.billId").value("bill-123"))
+                .andExpect(jsonPath("$[0].result.vehicleCharge").value(3.0))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].error").value("VEHICLE_NOT_FOUND"));
+    }
+
+    @Test
+    void generateBills_ShouldReturnBadRequest_WhenAnItemIsMissingReg() throws Exception {
+        mockMvc.perform(post("/parking/bill/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"vehicleReg\":\"ABC123\"},{}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$['[1].vehicleReg']").value("Vehicle registration is required"));
+    }
 }
@@ -0,0 +1,69 @@
+package com.carpark.controller;
+
+import com.carpark.dto.*;
+import com.carpark.service.CarParkSites;
+import com.carpark.service.ParkingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveCarParkController.class)
+class ReactiveCarParkControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ParkingService parkingService;
+
+    @TestConfiguration
+    static class Sites {
+
+        @Bean
+        CarParkSites carParkSites(ParkingService parkingService) {
+            return new CarParkSites(Map.of("north", parkingService));
+        }
+    }
+
+    @Test
+    void parkVehicle_ShouldParkInTheNamedCarPark() {
+        // Given
+        ParkVehicleRequest request = new ParkVehicleRequest("ABC123", 1);
+        when(parkingService.parkVehicleAsync(request)).thenReturn(CompletableFuture.completedFuture(
+                new ParkVehicleResponse("ABC123", 3, LocalDateTime.of(2024, 3, 9, 7, 5, 3))));
+
+        // When & Then
+        webTestClient.post().uri("/carparks/north/parking")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.spaceNumber").isEqualTo(3);
+        verify(parkingService).parkVehicleAsync(request);
+    }
+
+    @Test
+    void generateBill_ShouldReturnNotFound_WhenCarParkUnknown() {
+        // When & Then
+        webTestClient.post().uri("/carparks/south/parking/bill")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BillRequest("ABC123"))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Car park south not found");
+    }
+}
@@ -0,0 +1,197 @@
+package com.carpark.controller;
+
+import com.carpark.config.BinaryContentConfiguration;
+import com.carpark.dto.*;
+import com.carpark.exception.VehicleAlreadyParkedException;
+import com.carpark.exception.VehicleNotFoundException;
+import com.carpark.service.ParkingStatusSnapshot;
+import com.carpark.service.ParkingStatusStream;
+import com.carpark.service.ReactiveParkingService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveParkingController.class)
+@Import(BinaryContentConfiguration.class)
+class ReactiveParkingControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveParkingService parkingService;
+
+    @MockBean
+    private ParkingStatusStream parkingStatusStream;
+
+    @Test
+    void getParkingStatus_ShouldReturnStatus() {
+        // Given
+        when(parkingService.getParkingStatusSnapshot())
+                .thenReturn(Mono.just(new ParkingStatusSnapshot("\"a-7\"", new ParkingStatusResponse(45, 5))));
+
+        // When & Then
+        webTestClient.get().uri("/parking")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"a-7\"")
+                .expectHeader().valueEquals("Vary", "Accept")
+                .expectBody()
+                .jsonPath("$.availableSpaces").isEqualTo(45)
+                .jsonPath("$.occupiedSpaces").isEqualTo(5);
+    }
+
+    @Test
+    void getParkingStatus_ShouldReturnNotModified_WhenETagMatches() {
+        // Given
+        when(parkingService.getParkingStatusSnapshot())
+                .thenReturn(Mono.just(new ParkingStatusSnapshot("\"a-7\"", new ParkingStatusResponse(45, 5))));
+
+        // When & Then
+        webTestClient.get().uri("/parking")
+                .header("If-None-Match", "\"a-7\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void streamParkingStatus_ShouldSendServerSentEvents() {
+        // Given
+        when(parkingStatusStream.events(null)).thenReturn(Flux.just(
+                ServerSentEvent.builder(new ParkingStatusResponse(45, 5)).id("\"a-7\"").event("status").build()));
+
+        // When & Then
+        webTestClient.get().uri("/parking/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .value(body -> {
+                    assertTrue(body.contains("event:status"));
+                    assertTrue(body.contains("\"availableSpaces\""));
+                });
+    }
+
+    @Test
+    void parkVehicle_ShouldExchangeCbor_WhenNegotiated() throws Exception {
+        // Given
+        CBORMapper cbor = new CBORMapper();
+        when(parkingService.parkVehicle(any(ParkVehicleRequest.class)))
+                .thenReturn(Mono.just(new ParkVehicleResponse("ABC123", 1, LocalDateTime.of(2024, 3, 9, 7, 5, 3))));
+
+        // When
+        byte[] body = webTestClient.post().uri("/parking")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(cbor.writeValueAsBytes(new ParkVehicleRequest("ABC123", 1)))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        // Then
+        JsonNode response = cbor.readTree(body);
+        assertEquals("ABC123", response.get("vehicleReg").asText());
+        assertEquals("2024-03-09T07:05:03", response.get("timeIn").asText());
+    }
+
+    @Test
+    void parkVehicle_ShouldReturnCreated_WhenSuccessful() {
+        // Given
+        when(parkingService.parkVehicle(any(ParkVehicleRequest.class)))
+                .thenReturn(Mono.just(new ParkVehicleResponse("ABC123", 1, LocalDateTime.now())));
+
+        // When & Then
+        webTestClient.post().uri("/parking")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ParkVehicleRequest("ABC123", 1))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.vehicleReg").isEqualTo("ABC123")
+                .jsonPath("$.spaceNumber").isEqualTo(1)
+                .jsonPath("$.timeIn").exists();
+    }
+
+    @Test
+    void parkVehicle_ShouldReturnConflict_WhenVehicleAlreadyParked() {
+        // Given
+        when(parkingService.parkVehicle(any(ParkVehicleRequest.class)))
+                .thenReturn(Mono.error(new VehicleAlreadyParkedException("Vehicle ABC123 is already parked")));
+
+        // When & Then
+        webTestClient.post().uri("/parking")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ParkVehicleRequest("ABC123", 1))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Vehicle ABC123 is already parked");
+    }
+
+    @Test
+    void parkVehicle_ShouldReturnBadRequest_WhenVehicleRegMissing() {
+        // When & Then
+        webTestClient.post().uri("/parking")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ParkVehicleRequest(null, 1))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.vehicleReg").exists();
+        verify(parkingService, never()).parkVehicle(any());
+    }
+
+    @Test
+    void generateBill_ShouldReturnBill_WhenSuccessful() {
+        // Given
+        when(parkingService.generateBillAndExit(any(BillRequest.class)))
+                .thenReturn(Mono.just(new BillResponse("bill-123", "ABC123", 5.50,
+                        LocalDateTime.now().minusMinutes(10), LocalDateTime.now())));
+
+        // When & Then
+        webTestClient.post().uri("/parking/bill")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BillRequest("ABC123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.billId").isEqualTo("bill-123")
+                .jsonPath("$.vehicleCharge").isEqualTo(5.50);
+    }
+
+    @Test
+    void generateBill_ShouldReturnNotFound_WhenVehicleNotParked() {
+        // Given
+        when(parkingService.generateBillAndExit(any(BillRequest.class)))
+                .thenReturn(Mono.error(new VehicleNotFoundException("Vehicle NOTFOUND not found in car park")));
+
+        // When & Then
+        webTestClient.post().uri("/parking/bill")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BillRequest("NOTFOUND"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
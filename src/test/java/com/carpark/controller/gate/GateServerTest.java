@@ -0,0 +1,245 @@
+package com.carpark.controller.gate;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.dto.BillRequest;
+import com.carpark.dto.BillResponse;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.dto.ParkVehicleResponse;
+import com.carpark.exception.CarParkFullException;
+import com.carpark.exception.VehicleNotFoundException;
+import com.carpark.service.ParkingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class GateServerTest {
+
+    private static final LocalDateTime TIME_IN = LocalDateTime.of(2024, 3, 9, 7, 5, 3);
+
+    private ParkingService parkingService;
+    private GateServer server;
+    private SocketChannel client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        parkingService = mock(ParkingService.class);
+        start(256);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void park_ShouldAnswerWithSpaceAndEntryTime_WhenParked() throws IOException {
+        // Given
+        when(parkingService.parkVehicleAsync(new ParkVehicleRequest("ABC123", 2, "B")))
+                .thenReturn(CompletableFuture.completedFuture(new ParkVehicleResponse("ABC123", 26, TIME_IN)));
+        ByteBuffer request = ByteBuffer.allocate(64);
+        GateProtocol.putPark(request, 7, "ABC123", 2, "B");
+
+        // When
+        send(request);
+        ByteBuffer response = receive();
+
+        // Then
+        assertEquals(7, response.getInt());
+        assertEquals(GateProtocol.OK, response.get());
+        assertEquals(26, response.getInt());
+        assertEquals(TIME_IN.toInstant(ZoneOffset.UTC).toEpochMilli(), response.getLong());
+        assertFalse(response.hasRemaining());
+    }
+
+    @Test
+    void bill_ShouldAnswerWithChargeInPence_WhenVehicleParked() throws IOException {
+        // Given
+        when(parkingService.generateBillAndExitAsync(new BillRequest("ABC123")))
+                .thenReturn(CompletableFuture.completedFuture(new BillResponse(
+                        "bill-1", "ABC123", 12.35, TIME_IN, TIME_IN.plusMinutes(95))));
+        ByteBuffer request = ByteBuffer.allocate(64);
+        GateProtocol.putBill(request, 8, "ABC123");
+
+        // When
+        send(request);
+        ByteBuffer response = receive();
+
+        // Then
+        assertEquals(8, response.getInt());
+        assertEquals(GateProtocol.OK, response.get());
+        assertEquals("bill-1", string(response));
+        assertEquals(1235, response.getLong());
+        assertEquals(TIME_IN.toInstant(ZoneOffset.UTC).toEpochMilli(), response.getLong());
+        assertEquals(TIME_IN.plusMinutes(95).toInstant(ZoneOffset.UTC).toEpochMilli(), response.getLong());
+    }
+
+    @Test
+    void requests_ShouldAllBeAnswered_WhenPipelinedInOneWrite() throws IOException {
+        // Given
+        when(parkingService.parkVehicleAsync(any(ParkVehicleRequest.class))).thenAnswer(invocation -> {
+            ParkVehicleRequest request = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(new ParkVehicleResponse(request.getVehicleReg(), 1, TIME_IN));
+        });
+        ByteBuffer requests = ByteBuffer.allocate(1024);
+        for (int id = 1; id <= 20; id++) {
+            GateProtocol.putPark(requests, id, "CAR" + id, 1, null);
+        }
+
+        // When
+        send(requests);
+        Set<Integer> answered = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            ByteBuffer response = receive();
+            answered.add(response.getInt());
+            assertEquals(GateProtocol.OK, response.get());
+        }
+
+        // Then
+        assertEquals(20, answered.size());
+        verify(parkingService, times(20)).parkVehicleAsync(any(ParkVehicleRequest.class));
+    }
+
+    @Test
+    void requests_ShouldBeAnsweredWithRejectionStatus_WhenRefused() throws IOException {
+        // Given
+        when(parkingService.parkVehicleAsync(any(ParkVehicleRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new CarParkFullException("No available parking spaces")));
+        when(parkingService.generateBillAndExitAsync(any(BillRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new VehicleNotFoundException("Vehicle XYZ789 not found in car park")));
+        ByteBuffer requests = ByteBuffer.allocate(64);
+        GateProtocol.putPark(requests, 1, "ABC123", 1, null);
+        GateProtocol.putBill(requests, 2, "XYZ789");
+
+        // When
+        send(requests);
+        ByteBuffer full = receive();
+        ByteBuffer notFound = receive();
+
+        // Then
+        assertEquals(1, full.getInt());
+        assertEquals(GateProtocol.CAR_PARK_FULL, full.get());
+        assertEquals("No available parking spaces", string(full));
+        assertEquals(2, notFound.getInt());
+        assertEquals(GateProtocol.VEHICLE_NOT_FOUND, notFound.get());
+        assertEquals("Vehicle XYZ789 not found in car park", string(notFound));
+    }
+
+    @Test
+    void request_ShouldGetBadRequest_WhenMalformed() throws IOException {
+        // Given
+        ByteBuffer requests = ByteBuffer.allocate(64);
+        requests.putInt(5).putInt(1).put((byte) 9);
+        GateProtocol.putBill(requests, 2, " ");
+
+        // When
+        send(requests);
+        ByteBuffer unknownOpcode = receive();
+        ByteBuffer blankRegistration = receive();
+
+        // Then
+        assertEquals(1, unknownOpcode.getInt());
+        assertEquals(GateProtocol.BAD_REQUEST, unknownOpcode.get());
+        assertEquals("Unknown opcode: 9", string(unknownOpcode));
+        assertEquals(2, blankRegistration.getInt());
+        assertEquals(GateProtocol.BAD_REQUEST, blankRegistration.get());
+        verifyNoInteractions(parkingService);
+    }
+
+    @Test
+    void connection_ShouldBeClosed_WhenFrameLengthInvalid() throws IOException {
+        // Given
+        ByteBuffer request = ByteBuffer.allocate(8).putInt(GateProtocol.MAX_REQUEST_LENGTH + 1).putInt(1);
+
+        // When
+        send(request);
+
+        // Then
+        assertEquals(-1, client.read(ByteBuffer.allocate(16)));
+    }
+
+    @Test
+    void requests_ShouldNotBeRead_WhileInFlightLimitReached() throws IOException {
+        // Given
+        client.close();
+        server.close();
+        start(2);
+        CompletableFuture<ParkVehicleResponse> pending = new CompletableFuture<>();
+        when(parkingService.parkVehicleAsync(any(ParkVehicleRequest.class)))
+                .thenReturn(pending)
+                .thenReturn(new CompletableFuture<>())
+                .thenReturn(CompletableFuture.completedFuture(new ParkVehicleResponse("CAR3", 3, TIME_IN)));
+        ByteBuffer requests = ByteBuffer.allocate(256);
+        for (int id = 1; id <= 3; id++) {
+            GateProtocol.putPark(requests, id, "CAR" + id, 1, null);
+        }
+
+        // When
+        send(requests);
+        verify(parkingService, timeout(1000).times(2)).parkVehicleAsync(any(ParkVehicleRequest.class));
+        verify(parkingService, after(100).times(2)).parkVehicleAsync(any(ParkVehicleRequest.class));
+        new Thread(() -> pending.complete(new ParkVehicleResponse("CAR1", 1, TIME_IN))).start();
+        ByteBuffer first = receive();
+        ByteBuffer third = receive();
+
+        // Then
+        assertEquals(1, first.getInt());
+        assertEquals(3, third.getInt());
+        verify(parkingService, times(3)).parkVehicleAsync(any(ParkVehicleRequest.class));
+    }
+
+    private void start(int maxInFlight) throws IOException {
+        CarParkProperties properties = new CarParkProperties();
+        properties.getGate().setAddress("127.0.0.1");
+        properties.getGate().setPort(0);
+        properties.getGate().setMaxInFlight(maxInFlight);
+        server = new GateServer(parkingService, properties, new SimpleMeterRegistry());
+        client = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.port()));
+    }
+
+    private void send(ByteBuffer frames) throws IOException {
+        frames.flip();
+        while (frames.hasRemaining()) {
+            client.write(frames);
+        }
+    }
+
+    /**
+     * Reads one response frame and returns its body, after the length.
+     */
+    private ByteBuffer receive() throws IOException {
+        ByteBuffer length = readFully(4);
+        return readFully(length.getInt());
+    }
+
+    private ByteBuffer readFully(int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (client.read(buffer) < 0) {
+                fail("Connection closed by the server");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static String string(ByteBuffer in) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(in.get())];
+        in.get(bytes);
+        return new String(bytes);
+    }
+}
@@ -0,0 +1,114 @@
+package com.carpark.dto.json;
+
+import com.carpark.dto.BillResponse;
+import com.carpark.dto.CarParkStatusResponse;
+import com.carpark.dto.CarParksStatusResponse;
+import com.carpark.dto.ParkVehicleResponse;
+import com.carpark.dto.ParkingStatusResponse;
+import com.carpark.dto.ZoneStatusResponse;
+import com.carpark.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingJsonSerializersTest {
+
+    // What Spring's ObjectMapper wrote before the serializers were registered
+    private final ObjectMapper reflective = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final ObjectMapper handWritten = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new SimpleModule()
+                    .addSerializer(new ParkingJsonSerializers.ParkVehicleResponseSerializer())
+                    .addSerializer(new ParkingJsonSerializers.BillResponseSerializer())
+                    .addSerializer(new ParkingJsonSerializers.ParkingStatusResponseSerializer())
+                    .addSerializer(new ParkingJsonSerializers.CarParksStatusResponseSerializer())
+                    .addSerializer(new ParkingJsonSerializers.ErrorResponseSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void parkVehicleResponse_ShouldMatchReflectiveOutput() throws Exception {
+        // Given
+        ParkVehicleResponse response = new ParkVehicleResponse("AB12 CDE", 17,
+                LocalDateTime.of(2024, 3, 9, 7, 5, 3, 123_456_789));
+
+        // When
+        String json = handWritten.writeValueAsString(response);
+
+        // Then
+        assertEquals(reflective.writeValueAsString(response), json);
+        assertEquals("{\"vehicleReg\":\"AB12 CDE\",\"spaceNumber\":17,\"timeIn\":\"2024-03-09T07:05:03\"}", json);
+    }
+
+    @Test
+    void billResponse_ShouldMatchReflectiveOutput() throws Exception {
+        // Given
+        BillResponse response = new BillResponse("018f2b6c-0d1e-7a2b-8c3d-4e5f60718293", "ABC\"123", 12.35,
+                LocalDateTime.of(2024, 12, 31, 23, 59, 59), LocalDateTime.of(2025, 1, 1, 0, 0));
+
+        // Then
+        assertEquals(reflective.writeValueAsString(response), handWritten.writeValueAsString(response));
+    }
+
+    @Test
+    void parkingStatusResponse_ShouldMatchReflectiveOutput() throws Exception {
+        // Given
+        ParkingStatusResponse response = new ParkingStatusResponse(40, 10, List.of(
+                new ZoneStatusResponse("A", 0, 15, 10),
+                new ZoneStatusResponse("B", 1, 25, 0)));
+
+        // Then
+        assertEquals(reflective.writeValueAsString(response), handWritten.writeValueAsString(response));
+    }
+
+    @Test
+    void carParksStatusResponse_ShouldMatchReflectiveOutput() throws Exception {
+        // Given
+        CarParksStatusResponse response = new CarParksStatusResponse(65, 10, List.of(
+                new CarParkStatusResponse("default", 40, 10),
+                new CarParkStatusResponse("north-1", 25, 0)));
+
+        // Then
+        assertEquals(reflective.writeValueAsString(response), handWritten.writeValueAsString(response));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 120_000_000, 123_456_789, 5_000})
+    void errorResponse_ShouldMatchReflectiveOutput(int nanos) throws Exception {
+        // Given
+        ErrorResponse response = new ErrorResponse(409, "No available parking spaces",
+                LocalDateTime.of(2024, 6, 1, 12, 30, 0, nanos));
+
+        // Then
+        assertEquals(reflective.writeValueAsString(response), handWritten.writeValueAsString(response));
+    }
+
+    @Test
+    void nullFields_ShouldMatchReflectiveOutput() throws Exception {
+        // Given
+        BillResponse bill = new BillResponse(null, null, 0.0, null, LocalDateTime.of(12_345, 1, 1, 0, 0));
+        ParkingStatusResponse status = new ParkingStatusResponse(0, 0, null);
+        CarParksStatusResponse carParks = new CarParksStatusResponse(0, 0, null);
+        ErrorResponse error = new ErrorResponse(500, null, null);
+
+        // Then
+        assertEquals(reflective.writeValueAsString(bill), handWritten.writeValueAsString(bill));
+        assertEquals(reflective.writeValueAsString(status), handWritten.writeValueAsString(status));
+        assertEquals(reflective.writeValueAsString(carParks), handWritten.writeValueAsString(carParks));
+        assertEquals(reflective.writeValueAsString(error), handWritten.writeValueAsString(error));
+    }
+}
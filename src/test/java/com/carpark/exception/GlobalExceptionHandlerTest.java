@@ -4,6 +4,7 @@ import com.carpark.controller.ParkingController;
 import com.carpark.dto.BillRequest;
 import com.carpark.dto.ParkVehicleRequest;
 import com.carpark.service.ParkingService;
+import com.carpark.service.ParkingStatusStream;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +33,9 @@ class GlobalExceptionHandlerTest {
     @MockBean
     private ParkingService parkingService;
 
+    @MockBean
+    private ParkingStatusStream parkingStatusStream;
+
     @Test
     void handleCarParkFull_ShouldReturn409Conflict() throws Exception {
         // Given
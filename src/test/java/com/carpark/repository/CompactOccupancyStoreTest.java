@@ -0,0 +1,110 @@
+package com.carpark.repository;
+
+import com.carpark.model.Occupancy;
+import com.carpark.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactOccupancyStoreTest {
+
+    @Test
+    void put_ShouldRoundTripOccupancyExactly() {
+        // Given
+        CompactOccupancyStore store = new CompactOccupancyStore(4);
+        Occupancy occupancy = new Occupancy("ab12 cde", VehicleType.LARGE,
+                LocalDateTime.of(2024, 2, 29, 23, 59, 59, 987_654_321));
+
+        // When
+        store.put(2, occupancy);
+
+        // Then
+        assertEquals(occupancy, store.get(2));
+        assertNull(store.get(1));
+        assertTrue(holds(store, 2, "AB12CDE"));
+        assertFalse(holds(store, 2, "ab12 cd"));
+    }
+
+    @Test
+    void put_ShouldOverflowRegistrationsThatCannotBePacked() {
+        // Given
+        CompactOccupancyStore store = new CompactOccupancyStore(3);
+        Occupancy longReg = new Occupancy("A-VERY-LONG-DIPLOMATIC-PLATE", VehicleType.SMALL, LocalDateTime.now());
+        Occupancy unicodeReg = new Occupancy("ÄB 123", VehicleType.MEDIUM, LocalDateTime.now());
+
+        // When
+        store.put(0, longReg);
+        store.put(1, unicodeReg);
+
+        // Then
+        assertEquals(longReg, store.get(0));
+        assertEquals(unicodeReg, store.get(1));
+        assertTrue(holds(store, 1, "äb123"));
+        assertEquals(unicodeReg, vacateIf(store, 1, "ÄB 123"));
+        assertNull(store.get(1));
+
+        store.put(0, new Occupancy("SHORT1", VehicleType.SMALL, LocalDateTime.now()));
+        assertEquals("SHORT1", store.get(0).vehicleReg());
+        store.put(2, new Occupancy("ab12 cde", VehicleType.SMALL, LocalDateTime.now()));
+        assertTrue(holds(store, 2, "AB12CDE"));
+        assertEquals("ab12 cde", store.get(2).vehicleReg());
+    }
+
+    @Test
+    void parkIfFree_ShouldRejectOccupiedSpace() {
+        // Given
+        CompactOccupancyStore store = new CompactOccupancyStore(1);
+        LocalDateTime timeIn = LocalDateTime.now();
+        assertTrue(store.parkIfFree(0, new Occupancy("ABC123", VehicleType.SMALL, timeIn)));
+
+        // When & Then
+        assertFalse(store.parkIfFree(0, new Occupancy("XYZ789", VehicleType.SMALL, timeIn)));
+        assertNull(vacateIf(store, 0, "XYZ789"));
+        assertEquals("ABC123", store.clear(0).vehicleReg());
+        assertNull(store.clear(0));
+    }
+
+    @Test
+    void get_ShouldNeverSeeTornOccupancy_UnderConcurrentWrites() throws Exception {
+        // Given - a writer alternates between two occupancies that share no field
+        CompactOccupancyStore store = new CompactOccupancyStore(1);
+        Occupancy first = new Occupancy("AAAA1111", VehicleType.SMALL, LocalDateTime.of(2024, 1, 1, 8, 0));
+        Occupancy second = new Occupancy("BB22", VehicleType.LARGE, LocalDateTime.of(2025, 6, 30, 18, 30));
+        store.put(0, first);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> writer = executor.submit(() -> {
+                while (running.get()) {
+                    store.put(0, second);
+                    store.put(0, first);
+                }
+            });
+
+            // When & Then
+            for (int i = 0; i < 50_000; i++) {
+                Occupancy seen = store.get(0);
+                assertTrue(seen.equals(first) || seen.equals(second), () -> "torn read: " + seen);
+            }
+            running.set(false);
+            writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean holds(OccupancyStore store, int index, String vehicleReg) {
+        return store.holds(index, RegistrationCodec.key(vehicleReg), vehicleReg);
+    }
+
+    private static Occupancy vacateIf(OccupancyStore store, int index, String vehicleReg) {
+        return store.vacateIf(index, RegistrationCodec.key(vehicleReg), vehicleReg);
+    }
+}
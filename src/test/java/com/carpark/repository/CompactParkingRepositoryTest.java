@@ -0,0 +1,15 @@
+package com.carpark.repository;
+
+import com.carpark.config.CarParkProperties;
+
+/**
+ * Runs every repository test against the compact, struct-of-arrays storage.
+ */
+class CompactParkingRepositoryTest extends ParkingRepositoryTest {
+
+    @Override
+    ParkingRepository newRepository(CarParkProperties properties) {
+        properties.getStorage().setMode(CarParkProperties.StorageMode.COMPACT);
+        return new ParkingRepository(properties);
+    }
+}
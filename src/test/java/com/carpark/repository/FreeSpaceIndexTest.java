@@ -0,0 +1,151 @@
+package com.carpark.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeSpaceIndexTest {
+
+    @Test
+    void constructor_ShouldMarkAllSpacesFree() {
+        // When
+        FreeSpaceIndex index = new FreeSpaceIndex(130);
+
+        // Then
+        assertEquals(130, index.freeCount());
+        assertEquals(0, index.occupiedCount());
+        assertEquals(0, index.firstFree());
+        assertTrue(index.isFree(129));
+    }
+
+    @Test
+    void firstFree_ShouldReturnMinusOne_WhenEmptyCapacity() {
+        // When
+        FreeSpaceIndex index = new FreeSpaceIndex(0);
+
+        // Then
+        assertEquals(-1, index.firstFree());
+        assertEquals(0, index.freeCount());
+    }
+
+    @Test
+    void firstFree_ShouldSkipClaimedWords() {
+        // Given - fill the first two words and part of the third
+        FreeSpaceIndex index = new FreeSpaceIndex(200);
+        for (int i = 0; i < 140; i++) {
+            assertTrue(index.claim(i));
+        }
+
+        // When & Then
+        assertEquals(140, index.firstFree());
+        assertEquals(60, index.freeCount());
+        assertEquals(140, index.occupiedCount());
+    }
+
+    @Test
+    void firstFree_ShouldReturnLowestReleasedIndex_AfterCursorHasMovedPast() {
+        // Given
+        FreeSpaceIndex index = new FreeSpaceIndex(10_000);
+        for (int i = 0; i < 9_000; i++) {
+            index.claim(i);
+        }
+        assertEquals(9_000, index.firstFree());
+
+        // When
+        index.release(4_321);
+        index.release(77);
+
+        // Then
+        assertEquals(77, index.firstFree());
+        index.claim(77);
+        assertEquals(4_321, index.firstFree());
+    }
+
+    @Test
+    void firstFree_ShouldReturnMinusOne_WhenAllClaimed() {
+        // Given
+        FreeSpaceIndex index = new FreeSpaceIndex(64 * 64 + 1);
+        for (int i = 0; i < index.capacity(); i++) {
+            index.claim(i);
+        }
+
+        // When & Then
+        assertEquals(-1, index.firstFree());
+        assertEquals(0, index.freeCount());
+
+        index.release(64 * 64);
+        assertEquals(64 * 64, index.firstFree());
+    }
+
+    @Test
+    void claimAndRelease_ShouldOnlyCountTransitions() {
+        // Given
+        FreeSpaceIndex index = new FreeSpaceIndex(50);
+
+        // When & Then
+        assertTrue(index.claim(3));
+        assertFalse(index.claim(3));
+        assertEquals(49, index.freeCount());
+
+        assertTrue(index.release(3));
+        assertFalse(index.release(3));
+        assertEquals(50, index.freeCount());
+    }
+
+    @Test
+    void claimFirst_ShouldReturnLowestFreeIndex() {
+        // Given
+        FreeSpaceIndex index = new FreeSpaceIndex(100);
+        index.claim(0);
+        index.claim(2);
+
+        // When & Then
+        assertEquals(1, index.claimFirst());
+        assertEquals(3, index.claimFirst());
+        assertEquals(96, index.freeCount());
+    }
+
+    @Test
+    void claimFirst_ShouldNeverHandOutAnIndexTwice_UnderConcurrency() throws Exception {
+        // Given
+        int capacity = 64 * 64 * 3;
+        FreeSpaceIndex index = new FreeSpaceIndex(capacity);
+        ConcurrentHashMap<Integer, Boolean> claimed = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When - every thread claims until full, releasing every third claim
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                int n = 0;
+                int i;
+                while ((i = index.claimFirst()) >= 0) {
+                    if (++n % 3 == 0) {
+                        index.release(i);
+                    } else if (claimed.putIfAbsent(i, Boolean.TRUE) != null) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(0, duplicates.get());
+        assertEquals(capacity, claimed.size());
+        assertEquals(0, index.freeCount());
+        assertEquals(-1, index.firstFree());
+    }
+}
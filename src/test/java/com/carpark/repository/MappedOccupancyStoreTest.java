@@ -0,0 +1,96 @@
+package com.carpark.repository;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.Occupancy;
+import com.carpark.model.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedOccupancyStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void repository_ShouldKeepOccupancy_AcrossReopen() {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.of(2024, 3, 1, 9, 15, 30, 500);
+        ParkingRepository repository = new ParkingRepository(properties(10));
+        repository.park("ABC123", VehicleType.SMALL, timeIn);
+        repository.park("XYZ 789", VehicleType.LARGE, timeIn);
+        repository.vacate("ABC123");
+        repository.close();
+
+        // When
+        ParkingRepository reopened = new ParkingRepository(properties(10));
+
+        // Then
+        assertEquals(1, reopened.countOccupiedSpaces());
+        assertFalse(reopened.isVehicleParked("ABC123"));
+        assertEquals(2, reopened.findByVehicleReg("xyz789").orElseThrow().getSpaceNumber());
+        assertEquals("XYZ 789", reopened.findByVehicleReg("XYZ789").orElseThrow().getVehicleReg());
+        assertEquals(timeIn, reopened.findByVehicleReg("XYZ789").orElseThrow().getTimeIn());
+        assertEquals(1, reopened.findFirstAvailableSpace().orElseThrow().getSpaceNumber());
+    }
+
+    @Test
+    void constructor_ShouldThrow_WhenTableHasDifferentCapacity() {
+        // Given
+        new ParkingRepository(properties(10)).close();
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> new ParkingRepository(properties(20)));
+    }
+
+    @Test
+    void constructor_ShouldClearRecordLeftMidWrite() throws IOException {
+        // Given - a crash left space 1's version stamp odd
+        Path table = directory.resolve("occupancy.table");
+        MappedOccupancyStore store = new MappedOccupancyStore(table, 2);
+        store.put(0, new Occupancy("ABC123", VehicleType.SMALL, LocalDateTime.now()));
+        store.put(1, new Occupancy("XYZ789", VehicleType.SMALL, LocalDateTime.now()));
+        store.close();
+        try (FileChannel channel = FileChannel.open(table, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, 3), 64);
+        }
+
+        // When
+        MappedOccupancyStore reopened = new MappedOccupancyStore(table, 2);
+
+        // Then
+        assertNull(reopened.get(0));
+        assertEquals("XYZ789", reopened.get(1).vehicleReg());
+        assertTrue(reopened.parkIfFree(0, new Occupancy("NEW1", VehicleType.MEDIUM, LocalDateTime.now())));
+    }
+
+    @Test
+    void park_ShouldRejectRegistrationTooLongForRecord_BeforeClaimingSpace() {
+        // Given
+        ParkingRepository repository = new ParkingRepository(properties(10));
+        String reg = "X".repeat(MappedOccupancyStore.MAX_REG_BYTES + 1);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.park(reg, VehicleType.SMALL, LocalDateTime.now()));
+        assertEquals(0, repository.countOccupiedSpaces());
+        assertFalse(repository.isVehicleParked(reg));
+    }
+
+    private CarParkProperties properties(int spaces) {
+        CarParkProperties properties = new CarParkProperties();
+        properties.getZones().add(new CarParkProperties.Zone("A", 0, spaces));
+        properties.getStorage().setMode(CarParkProperties.StorageMode.MAPPED);
+        properties.getStorage().setPath(directory.resolve("occupancy.table").toString());
+        return properties;
+    }
+}
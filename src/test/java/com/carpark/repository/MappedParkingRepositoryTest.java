@@ -0,0 +1,24 @@
+package com.carpark.repository;
+
+import com.carpark.config.CarParkProperties;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+/**
+ * Runs every repository test against the memory-mapped occupancy table.
+ */
+class MappedParkingRepositoryTest extends ParkingRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private int tables;
+
+    @Override
+    ParkingRepository newRepository(CarParkProperties properties) {
+        properties.getStorage().setMode(CarParkProperties.StorageMode.MAPPED);
+        properties.getStorage().setPath(directory.resolve("occupancy-" + tables++ + ".table").toString());
+        return new ParkingRepository(properties);
+    }
+}
@@ -1,12 +1,25 @@
 package com.carpark.repository;
 
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.Occupancy;
+import com.carpark.model.ParkingEntry;
 import com.carpark.model.ParkingSpace;
 import com.carpark.model.VehicleType;
+import com.carpark.model.ZoneOccupancy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,7 +29,15 @@ class ParkingRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        parkingRepository = new ParkingRepository();
+        parkingRepository = newRepository(CarParkProperties.defaults());
+    }
+
+    /**
+     * Creates the repository under test; subclasses run the same tests against other
+     * storage modes.
+     */
+    ParkingRepository newRepository(CarParkProperties properties) {
+        return new ParkingRepository(properties);
     }
 
     @Test
@@ -176,6 +197,62 @@ class ParkingRepositoryTest {
         assertEquals(2, foundSpace2.get().getSpaceNumber());
     }
 
+    @Test
+    void findByVehicleReg_ShouldIgnoreWhitespace() {
+        // Given
+        ParkingSpace space = parkingRepository.findFirstAvailableSpace().get();
+        space.park("AB12 CDE", VehicleType.SMALL, LocalDateTime.now());
+
+        // When & Then
+        assertTrue(parkingRepository.findByVehicleReg("AB12CDE").isPresent());
+        assertTrue(parkingRepository.findByVehicleReg(" ab12 cde ").isPresent());
+        assertTrue(parkingRepository.isVehicleParked("ab12cde"));
+    }
+
+    @Test
+    void park_ShouldMatchRegistrationsThatCannotBePacked() {
+        // Given
+        String diplomatic = "CD-123-A-VERY-LONG";
+        parkingRepository.park("Ä 12", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.park(diplomatic, VehicleType.MEDIUM, LocalDateTime.now());
+
+        // When & Then
+        assertEquals(ParkResult.ALREADY_PARKED,
+                parkingRepository.park("ä12", VehicleType.SMALL, LocalDateTime.now()));
+        assertEquals("Ä 12", parkingRepository.findByVehicleReg("ä 1 2").orElseThrow().getVehicleReg());
+        assertEquals(diplomatic, parkingRepository.vacate("cd-123-a-very-long").orElseThrow().vehicleReg());
+        assertFalse(parkingRepository.isVehicleParked(diplomatic));
+        assertTrue(parkingRepository.isVehicleParked("Ä12"));
+    }
+
+    @Test
+    void findByVehicleReg_ShouldReturnEmpty_AfterVehicleExits() {
+        // Given
+        ParkingSpace space = parkingRepository.findFirstAvailableSpace().get();
+        space.park("ABC123", VehicleType.SMALL, LocalDateTime.now());
+
+        // When
+        space.vacate();
+
+        // Then
+        assertFalse(parkingRepository.findByVehicleReg("ABC123").isPresent());
+    }
+
+    @Test
+    void findByVehicleReg_ShouldFollowSpace_WhenReparkedWithAnotherVehicle() {
+        // Given
+        ParkingSpace space = parkingRepository.findFirstAvailableSpace().get();
+        space.park("OLD123", VehicleType.SMALL, LocalDateTime.now());
+
+        // When
+        space.park("NEW456", VehicleType.MEDIUM, LocalDateTime.now());
+
+        // Then
+        assertFalse(parkingRepository.isVehicleParked("OLD123"));
+        assertEquals(1, parkingRepository.findByVehicleReg("NEW456").get().getSpaceNumber());
+        assertEquals(1, parkingRepository.countOccupiedSpaces());
+    }
+
     @Test
     void countAvailableSpaces_ShouldReturn50_WhenNoneOccupied() {
         // When
@@ -409,4 +486,507 @@ class ParkingRepositoryTest {
         assertEquals(1, parkingRepository.countAvailableSpaces());
         assertEquals(49, parkingRepository.countOccupiedSpaces());
     }
-}
\ No newline at end of file
+
+    @Test
+    void park_ShouldAssignLowestFreeSpace() {
+        // Given
+        parkingRepository.park("CAR1", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.park("CAR2", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.vacate("CAR1");
+
+        // When
+        ParkResult result = parkingRepository.park("CAR3", VehicleType.LARGE, LocalDateTime.now());
+
+        // Then
+        assertTrue(result.isParked());
+        assertEquals(1, result.space().getSpaceNumber());
+        assertEquals("CAR3", result.space().getVehicleReg());
+        assertEquals(VehicleType.LARGE, result.space().getVehicleType());
+    }
+
+    @Test
+    void park_ShouldReturnAlreadyParked_WhenVehicleIsParked() {
+        // Given
+        parkingRepository.park("ABC123", VehicleType.SMALL, LocalDateTime.now());
+
+        // When
+        ParkResult result = parkingRepository.park("abc 123", VehicleType.SMALL, LocalDateTime.now());
+
+        // Then
+        assertEquals(ParkResult.Status.ALREADY_PARKED, result.status());
+        assertEquals(1, parkingRepository.countOccupiedSpaces());
+    }
+
+    @Test
+    void park_ShouldReturnFull_WhenAllSpacesOccupied() {
+        // Given
+        for (int i = 1; i <= 50; i++) {
+            assertTrue(parkingRepository.park("CAR" + i, VehicleType.SMALL, LocalDateTime.now()).isParked());
+        }
+
+        // When
+        ParkResult result = parkingRepository.park("LATE1", VehicleType.SMALL, LocalDateTime.now());
+
+        // Then
+        assertEquals(ParkResult.Status.FULL, result.status());
+        assertFalse(parkingRepository.isVehicleParked("LATE1"));
+    }
+
+    @Test
+    void park_ShouldRefuseWithoutScanning_WhenFull() {
+        // Given
+        for (int i = 1; i <= 50; i++) {
+            parkingRepository.park("CAR" + i, VehicleType.SMALL, LocalDateTime.now());
+        }
+        List<Integer> scans = new ArrayList<>();
+        parkingRepository.setMetrics(new RepositoryMetrics() {
+            @Override
+            public void allocationScanned(int words) {
+                scans.add(words);
+            }
+        });
+
+        // When
+        ParkResult anywhere = parkingRepository.park("LATE1", VehicleType.SMALL, LocalDateTime.now());
+        ParkResult inZone = parkingRepository.park("LATE2", VehicleType.SMALL, LocalDateTime.now(), "A");
+
+        // Then
+        assertEquals(ParkResult.Status.FULL, anywhere.status());
+        assertEquals(ParkResult.Status.FULL, inZone.status());
+        assertTrue(scans.isEmpty());
+    }
+
+    @Test
+    void vacate_ShouldReturnOccupancyAndFreeSpace() {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.now();
+        parkingRepository.park("ABC123", VehicleType.MEDIUM, timeIn);
+
+        // When
+        Optional<Occupancy> occupancy = parkingRepository.vacate("abc123");
+
+        // Then
+        assertTrue(occupancy.isPresent());
+        assertEquals("ABC123", occupancy.get().vehicleReg());
+        assertEquals(VehicleType.MEDIUM, occupancy.get().vehicleType());
+        assertEquals(timeIn, occupancy.get().timeIn());
+        assertEquals(50, parkingRepository.countAvailableSpaces());
+        assertFalse(parkingRepository.isVehicleParked("ABC123"));
+    }
+
+    @Test
+    void vacate_ShouldReturnEmpty_WhenVehicleNotParked() {
+        // When & Then
+        assertFalse(parkingRepository.vacate("NOTFOUND").isPresent());
+        assertFalse(parkingRepository.vacate(null).isPresent());
+    }
+
+    @Test
+    void park_ShouldGiveEveryVehicleItsOwnSpace_UnderConcurrency() throws Exception {
+        // Given - 200 vehicles race for 50 spaces
+        List<Callable<ParkResult>> entries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String reg = "RACE" + i;
+            entries.add(() -> parkingRepository.park(reg, VehicleType.SMALL, LocalDateTime.now()));
+        }
+
+        // When
+        List<ParkResult> results = runConcurrently(entries);
+
+        // Then
+        Set<Integer> spaces = new HashSet<>();
+        for (ParkResult result : results) {
+            if (result.isParked()) {
+                assertTrue(spaces.add(result.space().getSpaceNumber()), "space handed out twice");
+            } else {
+                assertEquals(ParkResult.Status.FULL, result.status());
+            }
+        }
+        assertEquals(50, spaces.size());
+        assertEquals(0, parkingRepository.countAvailableSpaces());
+        assertEquals(50, parkingRepository.countOccupiedSpaces());
+    }
+
+    @Test
+    void park_ShouldAdmitSameVehicleOnce_UnderConcurrency() throws Exception {
+        // Given
+        List<Callable<ParkResult>> entries = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            entries.add(() -> parkingRepository.park("DUP123", VehicleType.SMALL, LocalDateTime.now()));
+        }
+
+        // When
+        List<ParkResult> results = runConcurrently(entries);
+
+        // Then
+        assertEquals(1, results.stream().filter(ParkResult::isParked).count());
+        assertEquals(1, parkingRepository.countOccupiedSpaces());
+    }
+
+    @Test
+    void vacate_ShouldReleaseVehicleOnce_UnderConcurrency() throws Exception {
+        // Given
+        parkingRepository.park("EXIT123", VehicleType.SMALL, LocalDateTime.now());
+        List<Callable<Optional<Occupancy>>> exits = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            exits.add(() -> parkingRepository.vacate("EXIT123"));
+        }
+
+        // When
+        List<Optional<Occupancy>> results = runConcurrently(exits);
+
+        // Then
+        assertEquals(1, results.stream().filter(Optional::isPresent).count());
+        assertEquals(50, parkingRepository.countAvailableSpaces());
+    }
+
+    @Test
+    void zones_ShouldNumberSpacesConsecutivelyInConfiguredOrder() {
+        // Given
+        ParkingRepository zoned = zonedRepository();
+
+        // When
+        ParkResult inB = zoned.park("CAR1", VehicleType.SMALL, LocalDateTime.now(), "B");
+        ParkResult anywhere = zoned.park("CAR2", VehicleType.SMALL, LocalDateTime.now());
+
+        // Then
+        assertEquals(4, inB.space().getSpaceNumber());
+        assertEquals(1, anywhere.space().getSpaceNumber());
+        assertEquals(8, zoned.countAvailableSpaces() + zoned.countOccupiedSpaces());
+    }
+
+    @Test
+    void park_ShouldReturnFull_WhenRequestedZoneIsFull() {
+        // Given
+        ParkingRepository zoned = zonedRepository();
+        for (int i = 0; i < 3; i++) {
+            zoned.park("A" + i, VehicleType.SMALL, LocalDateTime.now(), "A");
+        }
+
+        // When
+        ParkResult result = zoned.park("LATE", VehicleType.SMALL, LocalDateTime.now(), "A");
+        ParkResult overflow = zoned.park("LATE", VehicleType.SMALL, LocalDateTime.now());
+
+        // Then
+        assertEquals(ParkResult.Status.FULL, result.status());
+        assertEquals(4, overflow.space().getSpaceNumber());
+    }
+
+    @Test
+    void park_ShouldRejectUnknownZone() {
+        assertThrows(IllegalArgumentException.class,
+                () -> parkingRepository.park("CAR1", VehicleType.SMALL, LocalDateTime.now(), "Z"));
+    }
+
+    @Test
+    void zoneOccupancy_ShouldReportEachZone() {
+        // Given
+        ParkingRepository zoned = zonedRepository();
+        zoned.park("CAR1", VehicleType.SMALL, LocalDateTime.now(), "B");
+        zoned.park("CAR2", VehicleType.SMALL, LocalDateTime.now(), "B");
+        zoned.vacate("CAR1");
+
+        // When
+        List<ZoneOccupancy> zones = zoned.zoneOccupancy();
+
+        // Then
+        assertEquals(List.of(
+                new ZoneOccupancy("A", 0, 3, 0),
+                new ZoneOccupancy("B", 1, 4, 1)), zones);
+    }
+
+    @Test
+    void parkAll_ShouldAllocateInOrderAndReportRejections() {
+        // Given
+        ParkingRepository zoned = zonedRepository();
+        zoned.park("HERE1", VehicleType.SMALL, LocalDateTime.now());
+        LocalDateTime timeIn = LocalDateTime.now();
+        List<ParkingEntry> entries = new ArrayList<>();
+        entries.add(new ParkingEntry("HERE1", VehicleType.SMALL, null));
+        for (int i = 0; i < 7; i++) {
+            entries.add(new ParkingEntry("NEW" + i, VehicleType.MEDIUM, null));
+        }
+        entries.add(new ParkingEntry("NEW0", VehicleType.MEDIUM, null));
+
+        // When
+        List<ParkResult> results = zoned.parkAll(entries, timeIn);
+
+        // Then
+        assertEquals(9, results.size());
+        assertEquals(ParkResult.Status.ALREADY_PARKED, results.get(0).status());
+        for (int i = 1; i <= 7; i++) {
+            assertEquals(i + 1, results.get(i).space().getSpaceNumber());
+            assertEquals(timeIn, results.get(i).space().getTimeIn());
+        }
+        assertEquals(ParkResult.Status.ALREADY_PARKED, results.get(8).status());
+        assertEquals(0, zoned.countAvailableSpaces());
+    }
+
+    @Test
+    void parkAll_ShouldReportFull_OnceZonesRunOut() {
+        // Given
+        ParkingRepository zoned = zonedRepository();
+        List<ParkingEntry> entries = new ArrayList<>();
+        entries.add(new ParkingEntry("A1", VehicleType.SMALL, "A"));
+        for (int i = 0; i < 10; i++) {
+            entries.add(new ParkingEntry("ANY" + i, VehicleType.SMALL, null));
+        }
+
+        // When
+        List<ParkResult> results = zoned.parkAll(entries, LocalDateTime.now());
+
+        // Then
+        assertEquals(1, results.get(0).space().getSpaceNumber());
+        assertEquals(8, results.stream().filter(ParkResult::isParked).count());
+        assertEquals(ParkResult.Status.FULL, results.get(8).status());
+        assertEquals(ParkResult.Status.FULL, results.get(10).status());
+    }
+
+    @Test
+    void parkAll_ShouldParkNothing_WhenLaterEntryNamesUnknownZone() {
+        // Given
+        ParkingRepository zoned = zonedRepository();
+        List<ParkingEntry> entries = List.of(
+                new ParkingEntry("A1", VehicleType.SMALL, "A"),
+                new ParkingEntry("ANY1", VehicleType.SMALL, null),
+                new ParkingEntry("LOST1", VehicleType.SMALL, "NOWHERE"));
+        long version = zoned.occupancyVersion();
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> zoned.parkAll(entries, LocalDateTime.now()));
+
+        // Then
+        assertEquals(0, zoned.countOccupiedSpaces());
+        assertFalse(zoned.isVehicleParked("A1"));
+        assertFalse(zoned.isVehicleParked("ANY1"));
+        assertEquals(version, zoned.occupancyVersion());
+    }
+
+    @Test
+    void vacateAll_ShouldReturnOccupancyOrNullPerRegistration() {
+        // Given
+        parkingRepository.park("CAR1", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.park("CAR2", VehicleType.LARGE, LocalDateTime.now());
+
+        // When
+        List<Occupancy> departed = parkingRepository.vacateAll(List.of("car2", "GHOST", "CAR1", "CAR1"));
+
+        // Then
+        assertEquals(VehicleType.LARGE, departed.get(0).vehicleType());
+        assertNull(departed.get(1));
+        assertEquals("CAR1", departed.get(2).vehicleReg());
+        assertNull(departed.get(3));
+        assertEquals(50, parkingRepository.countAvailableSpaces());
+    }
+
+    @Test
+    void restore_ShouldRebuildSpacesAndIndexes() {
+        // Given
+        Occupancy[] state = new Occupancy[50];
+        state[0] = new Occupancy("AB12 CDE", VehicleType.SMALL, LocalDateTime.now());
+        state[2] = new Occupancy("XYZ789", VehicleType.LARGE, LocalDateTime.now());
+
+        // When
+        parkingRepository.restore(state);
+
+        // Then
+        assertEquals(2, parkingRepository.countOccupiedSpaces());
+        assertTrue(parkingRepository.isVehicleParked("ab12cde"));
+        assertEquals(3, parkingRepository.findByVehicleReg("XYZ789").orElseThrow().getSpaceNumber());
+        assertEquals(2, parkingRepository.findFirstAvailableSpace().orElseThrow().getSpaceNumber());
+    }
+
+    @Test
+    void restore_ShouldThrow_WhenRepositoryInUse() {
+        // Given
+        parkingRepository.park("ABC123", VehicleType.SMALL, LocalDateTime.now());
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> parkingRepository.restore(new Occupancy[50]));
+    }
+
+    @Test
+    void observer_ShouldSeeVacateBeforeSpaceIsReused() {
+        // Given
+        List<String> events = new ArrayList<>();
+        parkingRepository.setObserver(new OccupancyObserver() {
+            @Override
+            public void parked(int spaceNumber, Occupancy occupancy) {
+                events.add("park " + spaceNumber + " " + occupancy.vehicleReg());
+            }
+
+            @Override
+            public void vacated(int spaceNumber) {
+                events.add("vacate " + spaceNumber);
+            }
+        });
+
+        // When
+        parkingRepository.park("ABC123", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.vacate("ABC123");
+        parkingRepository.park("XYZ789", VehicleType.SMALL, LocalDateTime.now());
+
+        // Then
+        assertEquals(List.of("park 1 ABC123", "vacate 1", "park 1 XYZ789"), events);
+    }
+
+    @Test
+    void vacate_ShouldStillFreeSpace_WhenObserverFails() {
+        // Given
+        parkingRepository.park("ABC123", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.setObserver(failingObserver());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> parkingRepository.vacate("ABC123"));
+
+        // Then
+        assertFalse(parkingRepository.isVehicleParked("ABC123"));
+        assertEquals(0, parkingRepository.countOccupiedSpaces(VehicleType.SMALL));
+        assertEquals(50, parkingRepository.countAvailableSpaces());
+        assertEquals(1, parkingRepository.findFirstAvailableSpace().orElseThrow().getSpaceNumber());
+    }
+
+    @Test
+    void park_ShouldLeaveNothingBehind_WhenObserverFails() {
+        // Given
+        parkingRepository.setObserver(failingObserver());
+        long version = parkingRepository.occupancyVersion();
+
+        // When
+        assertThrows(IllegalStateException.class,
+                () -> parkingRepository.park("ABC123", VehicleType.SMALL, LocalDateTime.now()));
+
+        // Then
+        assertFalse(parkingRepository.isVehicleParked("ABC123"));
+        assertEquals(0, parkingRepository.countOccupiedSpaces());
+        assertEquals(50, parkingRepository.countAvailableSpaces());
+        assertNull(parkingRepository.findFirstAvailableSpace().orElseThrow().getOccupancy());
+        assertTrue(parkingRepository.occupancyVersion() > version);
+        parkingRepository.setObserver(null);
+        assertEquals(1, parkingRepository.park("ABC123", VehicleType.SMALL, LocalDateTime.now())
+                .space().getSpaceNumber());
+    }
+
+    @Test
+    void spaceView_ShouldKeepIndexesInStep_WhenObserverFails() {
+        // Given
+        ParkingSpace space = parkingRepository.findFirstAvailableSpace().orElseThrow();
+        parkingRepository.setObserver(failingObserver());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> space.park("ABC123", VehicleType.SMALL, LocalDateTime.now()));
+        assertTrue(parkingRepository.isVehicleParked("ABC123"));
+        assertEquals(49, parkingRepository.countAvailableSpaces());
+        assertThrows(IllegalStateException.class, space::vacate);
+
+        // Then
+        assertFalse(parkingRepository.isVehicleParked("ABC123"));
+        assertEquals(0, parkingRepository.countOccupiedSpaces(VehicleType.SMALL));
+        assertEquals(50, parkingRepository.countAvailableSpaces());
+    }
+
+    @Test
+    void countOccupiedSpaces_ShouldCountEachVehicleType() {
+        // Given
+        parkingRepository.park("SMALL1", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.park("SMALL2", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.park("LARGE1", VehicleType.LARGE, LocalDateTime.now());
+        ParkingSpace space = parkingRepository.findByVehicleReg("SMALL2").orElseThrow();
+
+        // When
+        parkingRepository.vacate("SMALL1");
+        space.park("MEDIUM1", VehicleType.MEDIUM, LocalDateTime.now());
+
+        // Then
+        assertEquals(0, parkingRepository.countOccupiedSpaces(VehicleType.SMALL));
+        assertEquals(1, parkingRepository.countOccupiedSpaces(VehicleType.MEDIUM));
+        assertEquals(1, parkingRepository.countOccupiedSpaces(VehicleType.LARGE));
+    }
+
+    @Test
+    void occupancyVersion_ShouldAdvanceOnlyWhenSpacesChange() {
+        // Given
+        long initial = parkingRepository.occupancyVersion();
+
+        // When
+        parkingRepository.park("ABC123", VehicleType.SMALL, LocalDateTime.now());
+        long parked = parkingRepository.occupancyVersion();
+        parkingRepository.park("ABC123", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.vacate("XYZ789");
+        parkingRepository.countAvailableSpaces();
+        long rejected = parkingRepository.occupancyVersion();
+        parkingRepository.vacate("ABC123");
+
+        // Then
+        assertTrue(parked > initial);
+        assertEquals(parked, rejected);
+        assertTrue(parkingRepository.occupancyVersion() > rejected);
+    }
+
+    @Test
+    void metrics_ShouldReceiveScanAndLookupLengths() {
+        // Given
+        List<String> events = new ArrayList<>();
+        parkingRepository.setMetrics(new RepositoryMetrics() {
+            @Override
+            public void allocationScanned(int words) {
+                events.add("scan " + words);
+            }
+
+            @Override
+            public void lookupProbed(int slots) {
+                events.add("lookup " + slots);
+            }
+        });
+
+        // When
+        parkingRepository.park("ABC123", VehicleType.SMALL, LocalDateTime.now());
+        parkingRepository.vacate("ABC123");
+
+        // Then
+        assertEquals(List.of("lookup 1", "scan 1", "lookup 1"), events);
+    }
+
+    private ParkingRepository zonedRepository() {
+        CarParkProperties properties = new CarParkProperties();
+        properties.getZones().add(new CarParkProperties.Zone("A", 0, 3));
+        properties.getZones().add(new CarParkProperties.Zone("B", 1, 5));
+        return newRepository(properties);
+    }
+
+    private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static OccupancyObserver failingObserver() {
+        return new OccupancyObserver() {
+            @Override
+            public void parked(int spaceNumber, Occupancy occupancy) {
+                throw new IllegalStateException("Journal is closed");
+            }
+
+            @Override
+            public void vacated(int spaceNumber) {
+                throw new IllegalStateException("Journal is closed");
+            }
+        };
+    }
+}
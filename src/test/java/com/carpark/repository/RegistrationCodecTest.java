@@ -0,0 +1,62 @@
+package com.carpark.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistrationCodecTest {
+
+    @Test
+    void key_ShouldIgnoreCaseAndWhitespace() {
+        // When
+        long key = RegistrationCodec.key("AB12CDE");
+
+        // Then
+        assertNotEquals(RegistrationCodec.UNPACKABLE, key);
+        assertEquals(key, RegistrationCodec.key("ab12 cde"));
+        assertEquals(key, RegistrationCodec.key(" Ab12\tCdE "));
+        assertNotEquals(key, RegistrationCodec.key("AB12CD"));
+        assertNotEquals(key, RegistrationCodec.key("0AB12CDE"));
+    }
+
+    @Test
+    void key_ShouldBeUnpackable_WhenRegistrationIsTooLongOrHasOtherCharacters() {
+        // When & Then
+        assertNotEquals(RegistrationCodec.UNPACKABLE, RegistrationCodec.key("ZZZZZZZZZZZZ"));
+        assertEquals(RegistrationCodec.UNPACKABLE, RegistrationCodec.key("ZZZZZZZZZZZZZ"));
+        assertEquals(RegistrationCodec.UNPACKABLE, RegistrationCodec.key("AB-12"));
+        assertEquals(RegistrationCodec.UNPACKABLE, RegistrationCodec.key("ÄB12"));
+    }
+
+    @Test
+    void pack_ShouldRoundTripRegistrationAsEntered() {
+        // Given
+        String[] registrations = {"AB12 CDE", "0", "ZZZZZZZZZZZZ", "  9 9  ", ""};
+
+        for (String reg : registrations) {
+            // When
+            long packed = RegistrationCodec.pack(reg);
+
+            // Then
+            assertEquals(reg, RegistrationCodec.unpack(packed));
+            assertEquals(RegistrationCodec.key(reg), RegistrationCodec.keyOf(packed));
+        }
+    }
+
+    @Test
+    void pack_ShouldBeUnpackable_WhenRegistrationIsNotUpperCaseAlphanumeric() {
+        // When & Then
+        assertEquals(RegistrationCodec.UNPACKABLE, RegistrationCodec.pack("ab12 cde"));
+        assertEquals(RegistrationCodec.UNPACKABLE, RegistrationCodec.pack("AB12\tCDE"));
+        assertEquals(RegistrationCodec.UNPACKABLE, RegistrationCodec.pack("ABCDEFGHIJKLM"));
+    }
+
+    @Test
+    void matches_ShouldCompareNormalizedRegistrations() {
+        // When & Then
+        assertTrue(RegistrationCodec.matches(RegistrationCodec.key("ab12cde"), "ab12cde", "AB12 CDE"));
+        assertFalse(RegistrationCodec.matches(RegistrationCodec.key("ab12cd"), "ab12cd", "AB12 CDE"));
+        assertTrue(RegistrationCodec.matches(RegistrationCodec.UNPACKABLE, "äb-12", "ÄB -12"));
+        assertFalse(RegistrationCodec.matches(RegistrationCodec.UNPACKABLE, "äb-12", "ÄB-1"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.carpark.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistrationIndexTest {
+
+    @Test
+    void putIfAbsent_ShouldAdmitEachVehicleOnce() {
+        // Given
+        RegistrationIndex index = new RegistrationIndex(10);
+
+        // When & Then
+        assertTrue(index.putIfAbsent(RegistrationCodec.key("AB12CDE"), "AB12CDE", 3));
+        assertFalse(index.putIfAbsent(RegistrationCodec.key("ab12 cde"), "ab12 cde", 4));
+        assertEquals(3, index.get(RegistrationCodec.key("ab12cde"), "ab12cde"));
+        assertTrue(index.putIfAbsent(RegistrationCodec.UNPACKABLE, "ÄB-12", 5));
+        assertFalse(index.putIfAbsent(RegistrationCodec.UNPACKABLE, "äb-12", 6));
+        assertEquals(5, index.get(RegistrationCodec.UNPACKABLE, "Äb -12"));
+    }
+
+    @Test
+    void get_ShouldReportSlotsExamined() {
+        // Given
+        RegistrationIndex index = new RegistrationIndex(1000);
+        int[] probes = new int[1];
+        RepositoryMetrics metrics = new RepositoryMetrics() {
+            @Override
+            public void lookupProbed(int slots) {
+                probes[0] = slots;
+            }
+        };
+        for (int i = 0; i < 500; i++) {
+            index.put("CAR" + i, i);
+        }
+
+        // When & Then
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, index.get(RegistrationCodec.key("CAR" + i), "CAR" + i, metrics));
+            assertTrue(probes[0] >= 1 && probes[0] <= 500);
+        }
+        assertEquals(-1, index.get(RegistrationCodec.key("MISSING"), "MISSING", metrics));
+        assertTrue(probes[0] >= 1);
+    }
+
+    @Test
+    void remove_ShouldOnlyRemoveMappingToThatSpace() {
+        // Given
+        RegistrationIndex index = new RegistrationIndex(10);
+        index.put("AB12CDE", 3);
+
+        // When & Then
+        assertFalse(index.remove("AB12CDE", 4));
+        assertTrue(index.contains(RegistrationCodec.key("AB12CDE"), "AB12CDE"));
+        assertTrue(index.remove("ab12 cde", 3));
+        assertFalse(index.contains(RegistrationCodec.key("AB12CDE"), "AB12CDE"));
+        assertEquals(-1, index.get(RegistrationCodec.key("AB12CDE"), "AB12CDE"));
+    }
+
+    @Test
+    void index_ShouldMatchHashMap_UnderGrowthAndRandomRemovals() {
+        // Given - sized far below what is inserted, so every stripe grows
+        RegistrationIndex index = new RegistrationIndex(16);
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 50_000; i++) {
+            String reg = "R" + random.nextInt(20_000);
+            if (expected.containsKey(reg) && random.nextBoolean()) {
+                assertTrue(index.remove(reg, expected.remove(reg)));
+            } else if (!expected.containsKey(reg)) {
+                assertTrue(index.putIfAbsent(RegistrationCodec.key(reg), reg, i));
+                expected.put(reg, i);
+            }
+        }
+
+        // Then
+        for (int r = 0; r < 20_000; r++) {
+            String reg = "R" + r;
+            assertEquals(expected.getOrDefault(reg, -1), index.get(RegistrationCodec.key(reg), reg), reg);
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.carpark.repository.journal;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.Occupancy;
+import com.carpark.model.VehicleType;
+import com.carpark.repository.OccupancyObserver;
+import com.carpark.repository.ParkResult;
+import com.carpark.repository.ParkingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyJournalTest {
+
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SEGMENT_BYTES = 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recover_ShouldReturnEmptyState_WhenJournalIsNew() throws IOException {
+        // Given
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            // When
+            Occupancy[] state = journal.recover(10);
+
+            // Then
+            assertEquals(10, state.length);
+            assertTrue(Stream.of(state).allMatch(occupancy -> occupancy == null));
+        }
+    }
+
+    @Test
+    void recover_ShouldRebuildRepository_FromParksAndVacates() throws IOException {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123_456_789);
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            ParkingRepository repository = new ParkingRepository();
+            repository.restore(journal.recover(repository.capacity()));
+            repository.setObserver(journal);
+
+            repository.park("ABC123", VehicleType.SMALL, timeIn);
+            repository.park("XYZ789", VehicleType.LARGE, timeIn);
+            repository.park("DEF456", VehicleType.MEDIUM, timeIn);
+            repository.vacate("abc123");
+            repository.findFirstAvailableSpace().orElseThrow().park("GHI000", VehicleType.LARGE, timeIn);
+            repository.awaitDurable();
+        }
+
+        // When
+        ParkingRepository restored = new ParkingRepository();
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            restored.restore(journal.recover(restored.capacity()));
+        }
+
+        // Then
+        assertEquals(3, restored.countOccupiedSpaces());
+        assertFalse(restored.isVehicleParked("ABC123"));
+        assertEquals(1, restored.findByVehicleReg("GHI000").orElseThrow().getSpaceNumber());
+        assertEquals(2, restored.findByVehicleReg("xyz789").orElseThrow().getSpaceNumber());
+        assertEquals(VehicleType.MEDIUM, restored.findByVehicleReg("DEF456").orElseThrow().getVehicleType());
+        assertEquals(timeIn, restored.findByVehicleReg("DEF456").orElseThrow().getTimeIn());
+        assertEquals(4, restored.findFirstAvailableSpace().orElseThrow().getSpaceNumber());
+    }
+
+    @Test
+    void recover_ShouldContinueSequence_AcrossRestarts() throws IOException {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.now();
+        for (int restart = 0; restart < 3; restart++) {
+            try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+                Occupancy[] state = journal.recover(10);
+                journal.parked(restart + 1, new Occupancy("CAR" + restart, VehicleType.SMALL, timeIn));
+                if (restart > 0) {
+                    assertNotNull(state[restart - 1]);
+                    journal.vacated(restart);
+                }
+            }
+        }
+
+        // When
+        Occupancy[] state;
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            state = journal.recover(10);
+        }
+
+        // Then
+        assertNull(state[0]);
+        assertNull(state[1]);
+        assertEquals("CAR2", state[2].vehicleReg());
+    }
+
+    @Test
+    void recover_ShouldDropTornRecord_AtEndOfSegment() throws IOException {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.now();
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            journal.recover(10);
+            journal.parked(1, new Occupancy("ABC123", VehicleType.SMALL, timeIn));
+            journal.parked(2, new Occupancy("XYZ789", VehicleType.SMALL, timeIn));
+        }
+        Path segment = segmentFiles().get(0);
+        long intactSize = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(intactSize - 3);
+        }
+
+        // When
+        Occupancy[] state;
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            state = journal.recover(10);
+        }
+
+        // Then
+        assertEquals("ABC123", state[0].vehicleReg());
+        assertNull(state[1]);
+        assertTrue(Files.size(segment) < intactSize - 3);
+    }
+
+    @Test
+    void recover_ShouldKeepJournaling_WhenLastSegmentHoldsOnlyItsHeader() throws IOException {
+        // Given a crash right after rolling to the segment for sequence 3
+        LocalDateTime timeIn = LocalDateTime.now();
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            journal.recover(10);
+            journal.parked(1, new Occupancy("ABC123", VehicleType.SMALL, timeIn));
+            journal.parked(2, new Occupancy("XYZ789", VehicleType.SMALL, timeIn));
+        }
+        ByteBuffer header = ByteBuffer.allocate(JournalCodec.HEADER_BYTES);
+        JournalCodec.writeHeader(header);
+        Files.write(directory.resolve(String.format("%020d.journal", 3)),
+                Arrays.copyOf(header.array(), header.position()));
+
+        // When
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            Occupancy[] state = journal.recover(10);
+            journal.parked(3, new Occupancy("DEF456", VehicleType.SMALL, timeIn));
+            journal.sync();
+            assertEquals("XYZ789", state[1].vehicleReg());
+        }
+
+        // Then
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            Occupancy[] state = journal.recover(10);
+            assertEquals("ABC123", state[0].vehicleReg());
+            assertEquals("DEF456", state[2].vehicleReg());
+        }
+    }
+
+    @Test
+    void recover_ShouldKeepJournaling_WhenOnlyRecordOfSegmentWasTorn() throws IOException {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.now();
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            journal.recover(10);
+            journal.parked(1, new Occupancy("ABC123", VehicleType.SMALL, timeIn));
+        }
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(segment) - 3);
+        }
+
+        // When
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            Occupancy[] state = journal.recover(10);
+            journal.parked(1, new Occupancy("XYZ789", VehicleType.SMALL, timeIn));
+            journal.sync();
+            assertNull(state[0]);
+        }
+
+        // Then
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            assertEquals("XYZ789", journal.recover(10)[0].vehicleReg());
+        }
+    }
+
+    @Test
+    void append_ShouldRollSegments_WhenSegmentIsFull() throws IOException {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.now();
+        try (OccupancyJournal journal = newJournal(256)) {
+            journal.recover(100);
+
+            // When
+            for (int i = 1; i <= 100; i++) {
+                journal.parked(i, new Occupancy("CAR" + i, VehicleType.SMALL, timeIn));
+                journal.sync();
+            }
+        }
+
+        // Then
+        assertTrue(segmentFiles().size() > 1);
+        try (OccupancyJournal journal = newJournal(256)) {
+            Occupancy[] state = journal.recover(100);
+            assertTrue(Stream.of(state).allMatch(occupancy -> occupancy != null));
+            assertEquals("CAR100", state[99].vehicleReg());
+        }
+    }
+
+    @Test
+    void sync_ShouldMakeConcurrentAppendsDurable() throws Exception {
+        // Given
+        int threads = 8;
+        int perThread = 500;
+        LocalDateTime timeIn = LocalDateTime.now();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            journal.recover(threads * perThread);
+
+            // When
+            for (int t = 0; t < threads; t++) {
+                int first = t * perThread + 1;
+                executor.submit(() -> {
+                    start.await();
+                    for (int space = first; space < first + perThread; space++) {
+                        journal.parked(space, new Occupancy("CAR" + space, VehicleType.MEDIUM, timeIn));
+                        journal.sync();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        // Then
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            Occupancy[] state = journal.recover(threads * perThread);
+            for (int i = 0; i < state.length; i++) {
+                assertEquals("CAR" + (i + 1), state[i].vehicleReg());
+            }
+        }
+    }
+
+    @Test
+    void whenDurable_ShouldCompleteOnceAppendsAreWritten() throws Exception {
+        // Given
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            journal.recover(10);
+            assertTrue(journal.whenDurable().isDone());
+            journal.parked(3, new Occupancy("ABC123", VehicleType.SMALL, LocalDateTime.now()));
+
+            // When
+            journal.whenDurable().get(5, TimeUnit.SECONDS);
+
+            // Then - a second reader already sees the event, before the writer closes
+            try (OccupancyJournal reader = newJournal(SEGMENT_BYTES)) {
+                assertEquals("ABC123", reader.recover(10)[2].vehicleReg());
+            }
+        }
+    }
+
+    @Test
+    void checkpoint_ShouldDeleteCoveredSegments_AndRecoverFromSnapshotPlusTail() throws IOException {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.now();
+        ParkingRepository repository = new ParkingRepository();
+        try (OccupancyJournal journal = newJournal(256)) {
+            repository.restore(journal.recover(repository.capacity()));
+            repository.setObserver(journal);
+            for (int i = 0; i < 40; i++) {
+                repository.park("CAR" + i, VehicleType.SMALL, timeIn);
+                repository.awaitDurable();
+            }
+            for (int i = 0; i < 40; i += 2) {
+                repository.vacate("CAR" + i);
+                repository.awaitDurable();
+            }
+            int segmentsBefore = segmentFiles().size();
+
+            // When
+            assertTrue(journal.checkpoint(repository::occupancySnapshot));
+            repository.park("TAIL1", VehicleType.LARGE, timeIn);
+            repository.vacate("CAR1");
+            repository.awaitDurable();
+
+            // Then
+            assertTrue(segmentFiles().size() < segmentsBefore);
+        }
+        ParkingRepository restored = new ParkingRepository();
+        try (OccupancyJournal journal = newJournal(256)) {
+            restored.restore(journal.recover(restored.capacity()));
+        }
+        assertArrayEquals(repository.occupancySnapshot(), restored.occupancySnapshot());
+        assertEquals(1, restored.findByVehicleReg("TAIL1").orElseThrow().getSpaceNumber());
+    }
+
+    @Test
+    void checkpoint_ShouldKeepOnlyLatestSnapshot_AndSkipWhenNothingChanged() throws IOException {
+        // Given
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            Occupancy[] state = journal.recover(10);
+            journal.parked(1, new Occupancy("ABC123", VehicleType.SMALL, LocalDateTime.now()));
+            state[0] = new Occupancy("ABC123", VehicleType.SMALL, LocalDateTime.now());
+            assertTrue(journal.checkpoint(() -> state));
+            journal.vacated(1);
+            state[0] = null;
+
+            // When & Then
+            assertTrue(journal.checkpoint(() -> state));
+            assertFalse(journal.checkpoint(() -> state));
+            assertEquals(1, segmentFiles().stream()
+                    .filter(path -> path.toString().endsWith(SnapshotFile.SUFFIX)).count());
+        }
+    }
+
+    @Test
+    void checkpoint_ShouldRecoverExactState_WhenTakenDuringConcurrentTraffic() throws Exception {
+        // Given
+        CarParkProperties properties = new CarParkProperties();
+        properties.getZones().add(new CarParkProperties.Zone("A", 0, 200));
+        ParkingRepository repository = new ParkingRepository(properties);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (OccupancyJournal journal = newJournal(4 * 1024)) {
+            repository.restore(journal.recover(repository.capacity()));
+            repository.setObserver(journal);
+
+            // When - vehicles churn while snapshots are taken
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                executor.submit(() -> {
+                    start.await();
+                    LocalDateTime timeIn = LocalDateTime.now();
+                    for (int i = 0; i < 2_000; i++) {
+                        String reg = "T" + thread + "-" + (i % 60);
+                        if (repository.isVehicleParked(reg)) {
+                            repository.vacate(reg);
+                        } else {
+                            repository.park(reg, VehicleType.MEDIUM, timeIn);
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+                journal.checkpoint(repository::occupancySnapshot);
+            }
+            repository.awaitDurable();
+        }
+
+        // Then
+        ParkingRepository restored = new ParkingRepository(properties);
+        try (OccupancyJournal journal = newJournal(4 * 1024)) {
+            restored.restore(journal.recover(restored.capacity()));
+        }
+        assertArrayEquals(repository.occupancySnapshot(), restored.occupancySnapshot());
+    }
+
+    @Test
+    void recover_ShouldNotBringBackBilledVehicle_WhenBillRacesPark() throws Exception {
+        // Given - the park stalls while being recorded, and a bill arrives meanwhile
+        CountDownLatch recording = new CountDownLatch(1);
+        CountDownLatch billed = new CountDownLatch(1);
+        ParkingRepository repository = new ParkingRepository();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            repository.restore(journal.recover(repository.capacity()));
+            repository.setObserver(new OccupancyObserver() {
+                @Override
+                public void parked(int spaceNumber, Occupancy occupancy) {
+                    recording.countDown();
+                    awaitUninterruptibly(billed);
+                    journal.parked(spaceNumber, occupancy);
+                }
+
+                @Override
+                public void vacated(int spaceNumber) {
+                    journal.vacated(spaceNumber);
+                }
+            });
+            Future<ParkResult> park = executor.submit(
+                    () -> repository.park("ABC123", VehicleType.SMALL, LocalDateTime.now()));
+            assertTrue(recording.await(5, TimeUnit.SECONDS));
+
+            // When
+            boolean billedEarly = repository.vacate("ABC123").isPresent();
+            billed.countDown();
+            assertTrue(park.get(5, TimeUnit.SECONDS).isParked());
+            assertTrue(repository.vacate("ABC123").isPresent());
+            repository.awaitDurable();
+
+            // Then
+            assertFalse(billedEarly);
+        } finally {
+            executor.shutdownNow();
+        }
+        ParkingRepository restored = new ParkingRepository();
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            restored.restore(journal.recover(restored.capacity()));
+        }
+        assertFalse(restored.isVehicleParked("ABC123"));
+        assertEquals(0, restored.countOccupiedSpaces());
+    }
+
+    @Test
+    void recover_ShouldMatchRepository_WhenParksAndBillsRaceOnSameVehicles() throws Exception {
+        // Given
+        ParkingRepository repository = new ParkingRepository();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            repository.restore(journal.recover(repository.capacity()));
+            repository.setObserver(journal);
+
+            // When - two threads park the vehicles that two others bill
+            for (int t = 0; t < 4; t++) {
+                boolean parker = t % 2 == 0;
+                executor.submit(() -> {
+                    start.await();
+                    LocalDateTime timeIn = LocalDateTime.now();
+                    for (int i = 0; i < 5_000; i++) {
+                        String reg = "CAR" + (i % 20);
+                        if (parker) {
+                            repository.park(reg, VehicleType.SMALL, timeIn);
+                        } else {
+                            repository.vacate(reg);
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            repository.awaitDurable();
+        }
+
+        // Then
+        ParkingRepository restored = new ParkingRepository();
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            restored.restore(journal.recover(restored.capacity()));
+        }
+        assertArrayEquals(repository.occupancySnapshot(), restored.occupancySnapshot());
+    }
+
+    @Test
+    void parked_ShouldThrow_WhenJournalNotRecovered() throws IOException {
+        // Given
+        try (OccupancyJournal journal = newJournal(SEGMENT_BYTES)) {
+            // When & Then
+            assertThrows(IllegalStateException.class,
+                    () -> journal.parked(1, new Occupancy("ABC123", VehicleType.SMALL, LocalDateTime.now())));
+        }
+    }
+
+    private OccupancyJournal newJournal(long segmentBytes) {
+        return new OccupancyJournal(directory, false, FLUSH_INTERVAL_NANOS, segmentBytes);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.carpark.service;
+
+import com.carpark.dto.CarParkStatusResponse;
+import com.carpark.dto.CarParksStatusResponse;
+import com.carpark.dto.ParkingStatusResponse;
+import com.carpark.exception.CarParkNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarParkSitesTest {
+
+    @Mock
+    private ParkingService defaultSite;
+
+    @Mock
+    private ParkingService northSite;
+
+    private CarParkSites carParkSites;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, ParkingService> services = new LinkedHashMap<>();
+        services.put("default", defaultSite);
+        services.put("north", northSite);
+        carParkSites = new CarParkSites(services);
+    }
+
+    @Test
+    void get_ShouldReturnTheCarParksOwnService() {
+        // Then
+        assertSame(northSite, carParkSites.get("north"));
+        assertSame(defaultSite, carParkSites.get("default"));
+        assertEquals(List.of("default", "north"), List.copyOf(carParkSites.ids()));
+    }
+
+    @Test
+    void get_ShouldThrowCarParkNotFound_WhenIdUnknown() {
+        // When & Then
+        CarParkNotFoundException exception = assertThrows(CarParkNotFoundException.class,
+                () -> carParkSites.get("south"));
+        assertEquals("Car park south not found", exception.getMessage());
+    }
+
+    @Test
+    void getStatus_ShouldReportEachCarParkAndTotals() {
+        // Given
+        when(defaultSite.currentStatus())
+                .thenReturn(new ParkingStatusSnapshot("\"a-1\"", new ParkingStatusResponse(45, 5)));
+        when(northSite.currentStatus())
+                .thenReturn(new ParkingStatusSnapshot("\"b-9\"", new ParkingStatusResponse(10, 90)));
+
+        // When
+        CarParksStatusResponse status = carParkSites.getStatus();
+
+        // Then
+        assertEquals(55, status.getAvailableSpaces());
+        assertEquals(95, status.getOccupiedSpaces());
+        assertEquals(List.of(new CarParkStatusResponse("default", 45, 5), new CarParkStatusResponse("north", 10, 90)),
+                status.getCarParks());
+        verify(northSite, never()).getParkingStatusSnapshot();
+    }
+}
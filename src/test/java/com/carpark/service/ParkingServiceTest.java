@@ -1,24 +1,40 @@
 package com.carpark.service;
 
+import com.carpark.config.CarParkProperties;
 import com.carpark.dto.*;
 import com.carpark.exception.CarParkFullException;
 import com.carpark.exception.VehicleAlreadyParkedException;
 import com.carpark.exception.VehicleNotFoundException;
+import com.carpark.model.Occupancy;
 import com.carpark.model.ParkingSpace;
 import com.carpark.model.VehicleType;
+import com.carpark.model.ZoneOccupancy;
+import com.carpark.repository.ParkResult;
 import com.carpark.repository.ParkingRepository;
+import com.carpark.service.tariff.CompiledTariff;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,13 +43,22 @@ class ParkingServiceTest {
     @Mock
     private ParkingRepository parkingRepository;
 
-    @InjectMocks
+    @Spy
+    private BillIdGenerator billIdGenerator = new TimeOrderedBillIdGenerator(0);
+
+    @Spy
+    private CompiledTariff tariff = CompiledTariff.compile(new CarParkProperties.Tariff());
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private ParkingService parkingService;
 
     private ParkingSpace mockSpace;
 
     @BeforeEach
     void setUp() {
+        parkingService = new ParkingService(parkingRepository, billIdGenerator, tariff, meterRegistry);
         mockSpace = new ParkingSpace(1);
     }
 
@@ -53,12 +78,68 @@ class ParkingServiceTest {
         verify(parkingRepository).countOccupiedSpaces();
     }
 
+    @Test
+    void getParkingStatus_ShouldIncludePerZoneCounts() {
+        // Given
+        when(parkingRepository.countAvailableSpaces()).thenReturn(40L);
+        when(parkingRepository.countOccupiedSpaces()).thenReturn(10L);
+        when(parkingRepository.zoneOccupancy()).thenReturn(List.of(
+                new ZoneOccupancy("A", 0, 15, 10),
+                new ZoneOccupancy("B", 1, 25, 0)));
+
+        // When
+        ParkingStatusResponse response = parkingService.getParkingStatus();
+
+        // Then
+        assertEquals(40, response.getAvailableSpaces());
+        assertEquals(2, response.getZones().size());
+        assertEquals("A", response.getZones().get(0).getZone());
+        assertEquals(10, response.getZones().get(0).getOccupiedSpaces());
+        assertEquals(1, response.getZones().get(1).getLevel());
+        assertEquals(25, response.getZones().get(1).getAvailableSpaces());
+    }
+
+    @Test
+    void getParkingStatusSnapshot_ShouldReuseStatus_UntilOccupancyVersionChanges() {
+        // Given
+        when(parkingRepository.occupancyVersion()).thenReturn(3L, 3L, 4L);
+        when(parkingRepository.countAvailableSpaces()).thenReturn(45L, 44L);
+        when(parkingRepository.countOccupiedSpaces()).thenReturn(5L, 6L);
+
+        // When
+        ParkingStatusSnapshot first = parkingService.getParkingStatusSnapshot();
+        ParkingStatusSnapshot unchanged = parkingService.getParkingStatusSnapshot();
+        ParkingStatusSnapshot changed = parkingService.getParkingStatusSnapshot();
+
+        // Then
+        assertSame(first, unchanged);
+        assertEquals(45, first.status().getAvailableSpaces());
+        assertEquals(44, changed.status().getAvailableSpaces());
+        assertNotEquals(first.etag(), changed.etag());
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("-3\""));
+        verify(parkingRepository, times(2)).countAvailableSpaces();
+    }
+
+    @Test
+    void parkVehicle_ShouldParkInRequestedZone() {
+        // Given
+        ParkVehicleRequest request = new ParkVehicleRequest("ABC123", 2, "B");
+        when(parkingRepository.park(eq("ABC123"), eq(VehicleType.MEDIUM), any(LocalDateTime.class), eq("B")))
+                .thenReturn(new ParkResult(ParkResult.Status.PARKED, new ParkingSpace(26)));
+
+        // When
+        ParkVehicleResponse response = parkingService.parkVehicle(request);
+
+        // Then
+        assertEquals(26, response.getSpaceNumber());
+    }
+
     @Test
     void parkVehicle_ShouldParkSuccessfully_WhenSpaceAvailable() {
         // Given
         ParkVehicleRequest request = new ParkVehicleRequest("ABC123", 1);
-        when(parkingRepository.isVehicleParked(anyString())).thenReturn(false);
-        when(parkingRepository.findFirstAvailableSpace()).thenReturn(Optional.of(mockSpace));
+        when(parkingRepository.park(eq("ABC123"), eq(VehicleType.SMALL), any(LocalDateTime.class), isNull()))
+                .thenReturn(new ParkResult(ParkResult.Status.PARKED, mockSpace));
 
         // When
         ParkVehicleResponse response = parkingService.parkVehicle(request);
@@ -68,41 +149,178 @@ class ParkingServiceTest {
         assertEquals("ABC123", response.getVehicleReg());
         assertEquals(1, response.getSpaceNumber());
         assertNotNull(response.getTimeIn());
-        assertTrue(mockSpace.isOccupied());
-        assertEquals("ABC123", mockSpace.getVehicleReg());
+        verify(parkingRepository).awaitDurable();
     }
 
     @Test
     void parkVehicle_ShouldThrowException_WhenVehicleAlreadyParked() {
         // Given
         ParkVehicleRequest request = new ParkVehicleRequest("ABC123", 1);
-        when(parkingRepository.isVehicleParked("ABC123")).thenReturn(true);
+        when(parkingRepository.park(eq("ABC123"), any(), any(), any()))
+                .thenReturn(new ParkResult(ParkResult.Status.ALREADY_PARKED, null));
 
         // When & Then
         assertThrows(VehicleAlreadyParkedException.class, 
             () -> parkingService.parkVehicle(request));
-        verify(parkingRepository, never()).findFirstAvailableSpace();
     }
 
     @Test
     void parkVehicle_ShouldThrowException_WhenNoSpaceAvailable() {
         // Given
         ParkVehicleRequest request = new ParkVehicleRequest("ABC123", 1);
-        when(parkingRepository.isVehicleParked(anyString())).thenReturn(false);
-        when(parkingRepository.findFirstAvailableSpace()).thenReturn(Optional.empty());
+        when(parkingRepository.park(anyString(), any(), any(), any()))
+                .thenReturn(new ParkResult(ParkResult.Status.FULL, null));
 
         // When & Then
         assertThrows(CarParkFullException.class, 
             () -> parkingService.parkVehicle(request));
+        verify(parkingRepository, never()).awaitDurable();
+    }
+
+    @Test
+    void parkVehicle_ShouldThrowSharedStacklessException_WhenNoSpaceAvailable() {
+        // Given
+        when(parkingRepository.park(anyString(), any(), any(), any()))
+                .thenReturn(new ParkResult(ParkResult.Status.FULL, null));
+
+        // When
+        CarParkFullException first = assertThrows(CarParkFullException.class,
+                () -> parkingService.parkVehicle(new ParkVehicleRequest("ABC123", 1)));
+        CarParkFullException second = assertThrows(CarParkFullException.class,
+                () -> parkingService.parkVehicle(new ParkVehicleRequest("XYZ789", 2)));
+
+        // Then
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals("No available parking spaces", first.getMessage());
+    }
+
+    @Test
+    void parkVehicle_ShouldTimeAndCountRejection_WhenNoSpaceAvailable() {
+        // Given
+        ParkVehicleRequest request = new ParkVehicleRequest("ABC123", 1);
+        when(parkingRepository.park(anyString(), any(), any(), any()))
+                .thenReturn(new ParkResult(ParkResult.Status.FULL, null));
+
+        // When
+        assertThrows(CarParkFullException.class, () -> parkingService.parkVehicle(request));
+
+        // Then
+        assertEquals(1, meterRegistry.get("carpark.operations").tag("operation", "park").timer().count());
+        assertEquals(1.0, meterRegistry.get("carpark.rejections").tag("reason", "full").counter().count());
+        assertEquals(0.0, meterRegistry.get("carpark.rejections").tag("reason", "already_parked").counter().count());
+    }
+
+    @Test
+    void parkVehicleAsync_ShouldCompleteOnceEntryIsDurable() {
+        // Given
+        ParkVehicleRequest request = new ParkVehicleRequest("ABC123", 1);
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        when(parkingRepository.park(eq("ABC123"), eq(VehicleType.SMALL), any(LocalDateTime.class), isNull()))
+                .thenReturn(new ParkResult(ParkResult.Status.PARKED, mockSpace));
+        when(parkingRepository.whenDurable()).thenReturn(durable);
+
+        // When
+        CompletableFuture<ParkVehicleResponse> response = parkingService.parkVehicleAsync(request);
+
+        // Then
+        assertFalse(response.isDone());
+        durable.complete(null);
+        assertEquals(1, response.join().getSpaceNumber());
+        verify(parkingRepository, never()).awaitDurable();
+        assertEquals(1, meterRegistry.get("carpark.operations").tag("operation", "park").timer().count());
+    }
+
+    @Test
+    void generateBillAndExit_ShouldTakeExitTimeBeforeWaitingForDurability() {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.now().minusMinutes(10);
+        when(parkingRepository.vacate("ABC123"))
+                .thenReturn(Optional.of(new Occupancy("ABC123", VehicleType.SMALL, timeIn)));
+        LocalDateTime[] waitStarted = new LocalDateTime[1];
+        doAnswer(invocation -> {
+            waitStarted[0] = LocalDateTime.now();
+            Thread.sleep(20);
+            return null;
+        }).when(parkingRepository).awaitDurable();
+
+        // When
+        BillResponse response = parkingService.generateBillAndExit(new BillRequest("ABC123"));
+
+        // Then
+        assertFalse(response.getTimeOut().isAfter(waitStarted[0]));
+    }
+
+    @Test
+    void generateBillAndExitAsync_ShouldTakeExitTimeBeforeEntryIsDurable() throws InterruptedException {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.now().minusMinutes(10);
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        when(parkingRepository.vacate("ABC123"))
+                .thenReturn(Optional.of(new Occupancy("ABC123", VehicleType.SMALL, timeIn)));
+        when(parkingRepository.whenDurable()).thenReturn(durable);
+
+        // When
+        CompletableFuture<BillResponse> response = parkingService.generateBillAndExitAsync(new BillRequest("ABC123"));
+        LocalDateTime requested = LocalDateTime.now();
+        Thread.sleep(20);
+        durable.complete(null);
+
+        // Then
+        assertFalse(response.join().getTimeOut().isAfter(requested));
+    }
+
+    @Test
+    void generateBillAndExitAsync_ShouldFail_WhenVehicleNotFound() {
+        // Given
+        when(parkingRepository.vacate("NOTFOUND")).thenReturn(Optional.empty());
+
+        // When
+        CompletableFuture<BillResponse> response = parkingService.generateBillAndExitAsync(new BillRequest("NOTFOUND"));
+
+        // Then
+        CompletionException failure = assertThrows(CompletionException.class, response::join);
+        assertInstanceOf(VehicleNotFoundException.class, failure.getCause());
+        verify(parkingRepository, never()).whenDurable();
+    }
+
+    @Test
+    void parkVehicles_ShouldReportEachOutcomeInline() {
+        // Given
+        List<ParkVehicleRequest> requests = List.of(
+                new ParkVehicleRequest("CAR1", 1),
+                new ParkVehicleRequest("CAR2", 1, "Z"),
+                new ParkVehicleRequest("CAR3", 2),
+                new ParkVehicleRequest("CAR4", 3));
+        when(parkingRepository.hasZone("Z")).thenReturn(false);
+        when(parkingRepository.parkAll(anyList(), any(LocalDateTime.class))).thenReturn(List.of(
+                new ParkResult(ParkResult.Status.PARKED, mockSpace),
+                new ParkResult(ParkResult.Status.ALREADY_PARKED, null),
+                new ParkResult(ParkResult.Status.FULL, null)));
+
+        // When
+        List<BatchItemResponse<ParkVehicleResponse>> responses = parkingService.parkVehicles(requests);
+
+        // Then
+        assertEquals(4, responses.size());
+        assertEquals(201, responses.get(0).getStatus());
+        assertEquals(1, responses.get(0).getResult().getSpaceNumber());
+        assertEquals(400, responses.get(1).getStatus());
+        assertEquals("UNKNOWN_ZONE", responses.get(1).getError());
+        assertEquals("VEHICLE_ALREADY_PARKED", responses.get(2).getError());
+        assertEquals("CAR3", responses.get(2).getVehicleReg());
+        assertEquals(409, responses.get(3).getStatus());
+        assertEquals("CAR_PARK_FULL", responses.get(3).getError());
+        verify(parkingRepository).parkAll(argThat(entries -> entries.size() == 3), any(LocalDateTime.class));
     }
 
     @Test
     void generateBillAndExit_ShouldCalculateCorrectly_ForSmallCar() {
         // Given
         LocalDateTime timeIn = LocalDateTime.now().minusMinutes(10);
-        mockSpace.park("ABC123", VehicleType.SMALL, timeIn);
         BillRequest request = new BillRequest("ABC123");
-        when(parkingRepository.findByVehicleReg("ABC123")).thenReturn(Optional.of(mockSpace));
+        when(parkingRepository.vacate("ABC123"))
+                .thenReturn(Optional.of(new Occupancy("ABC123", VehicleType.SMALL, timeIn)));
 
         // When
         BillResponse response = parkingService.generateBillAndExit(request);
@@ -113,16 +331,16 @@ class ParkingServiceTest {
         assertNotNull(response.getBillId());
         // 10 minutes * £0.10 = £1.00 + 2 blocks of 5 minutes * £1 = £3.00 total
         assertEquals(3.0, response.getVehicleCharge(), 0.01);
-        assertFalse(mockSpace.isOccupied());
+        assertEquals(timeIn, response.getTimeIn());
     }
 
     @Test
     void generateBillAndExit_ShouldCalculateCorrectly_ForMediumCar() {
         // Given
         LocalDateTime timeIn = LocalDateTime.now().minusMinutes(25);
-        mockSpace.park("XYZ789", VehicleType.MEDIUM, timeIn);
         BillRequest request = new BillRequest("XYZ789");
-        when(parkingRepository.findByVehicleReg("XYZ789")).thenReturn(Optional.of(mockSpace));
+        when(parkingRepository.vacate("XYZ789"))
+                .thenReturn(Optional.of(new Occupancy("XYZ789", VehicleType.MEDIUM, timeIn)));
 
         // When
         BillResponse response = parkingService.generateBillAndExit(request);
@@ -138,9 +356,9 @@ class ParkingServiceTest {
     void generateBillAndExit_ShouldCalculateCorrectly_ForLargeCar() {
         // Given
         LocalDateTime timeIn = LocalDateTime.now().minusMinutes(15);
-        mockSpace.park("DEF456", VehicleType.LARGE, timeIn);
         BillRequest request = new BillRequest("DEF456");
-        when(parkingRepository.findByVehicleReg("DEF456")).thenReturn(Optional.of(mockSpace));
+        when(parkingRepository.vacate("DEF456"))
+                .thenReturn(Optional.of(new Occupancy("DEF456", VehicleType.LARGE, timeIn)));
 
         // When
         BillResponse response = parkingService.generateBillAndExit(request);
@@ -156,27 +374,53 @@ class ParkingServiceTest {
     void generateBillAndExit_ShouldThrowException_WhenVehicleNotFound() {
         // Given
         BillRequest request = new BillRequest("NOTFOUND");
-        when(parkingRepository.findByVehicleReg("NOTFOUND")).thenReturn(Optional.empty());
+        when(parkingRepository.vacate("NOTFOUND")).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(VehicleNotFoundException.class, 
             () -> parkingService.generateBillAndExit(request));
+        assertEquals(1.0, meterRegistry.get("carpark.rejections").tag("reason", "not_found").counter().count());
+        assertEquals(1, meterRegistry.get("carpark.operations").tag("operation", "bill").timer().count());
     }
 
     @Test
     void generateBillAndExit_ShouldVacateSpace_AfterBilling() {
         // Given
         LocalDateTime timeIn = LocalDateTime.now().minusMinutes(5);
-        mockSpace.park("ABC123", VehicleType.SMALL, timeIn);
         BillRequest request = new BillRequest("ABC123");
-        when(parkingRepository.findByVehicleReg("ABC123")).thenReturn(Optional.of(mockSpace));
+        when(parkingRepository.vacate("ABC123"))
+                .thenReturn(Optional.of(new Occupancy("ABC123", VehicleType.SMALL, timeIn)));
 
         // When
         parkingService.generateBillAndExit(request);
 
         // Then
-        assertFalse(mockSpace.isOccupied());
-        assertNull(mockSpace.getVehicleReg());
-        assertNull(mockSpace.getTimeIn());
+        verify(parkingRepository).vacate("ABC123");
+        verify(parkingRepository, never()).findByVehicleReg(anyString());
+    }
+
+    @Test
+    void generateBillsAndExit_ShouldBillParkedVehiclesAndReportMissingOnes() {
+        // Given
+        LocalDateTime timeIn = LocalDateTime.now().minusMinutes(10);
+        List<BillRequest> requests = List.of(
+                new BillRequest("ABC123"), new BillRequest("NOTFOUND"), new BillRequest("XYZ789"));
+        when(parkingRepository.vacateAll(List.of("ABC123", "NOTFOUND", "XYZ789"))).thenReturn(Arrays.asList(
+                new Occupancy("ABC123", VehicleType.SMALL, timeIn),
+                null,
+                new Occupancy("XYZ789", VehicleType.MEDIUM, timeIn)));
+
+        // When
+        List<BatchItemResponse<BillResponse>> responses = parkingService.generateBillsAndExit(requests);
+
+        // Then
+        assertEquals(3, responses.size());
+        assertEquals(200, responses.get(0).getStatus());
+        assertEquals(3.0, responses.get(0).getResult().getVehicleCharge(), 0.01);
+        assertEquals(404, responses.get(1).getStatus());
+        assertEquals("VEHICLE_NOT_FOUND", responses.get(1).getError());
+        assertEquals("Vehicle NOTFOUND not found in car park", responses.get(1).getMessage());
+        assertEquals(4.0, responses.get(2).getResult().getVehicleCharge(), 0.01);
+        assertEquals(responses.get(0).getResult().getTimeOut(), responses.get(2).getResult().getTimeOut());
     }
 }
@@ -0,0 +1,122 @@
+package com.carpark.service;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.dto.ParkingStatusResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ParkingStatusStreamTest {
+
+    private final AtomicInteger version = new AtomicInteger();
+    private ParkingStatusStream stream;
+
+    @BeforeEach
+    void setUp() {
+        ParkingService parkingService = mock(ParkingService.class);
+        when(parkingService.currentStatus()).thenAnswer(invocation -> {
+            int v = version.get();
+            return new ParkingStatusSnapshot("\"t-" + v + "\"", new ParkingStatusResponse(50 - v, v));
+        });
+        CarParkProperties properties = new CarParkProperties();
+        properties.getStream().setInterval(Duration.ofMillis(20));
+        properties.getStream().setHeartbeat(Duration.ofMillis(50));
+        stream = new ParkingStatusStream(parkingService, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    void updates_ShouldSendCurrentStatusThenEachChangeOnce() throws InterruptedException {
+        // Given
+        List<String> received = new CopyOnWriteArrayList<>();
+        stream.updates(null).subscribe(snapshot -> received.add(snapshot.etag()));
+
+        // When
+        Thread.sleep(100);
+        version.set(1);
+        version.set(2);
+        version.set(3);
+        Thread.sleep(100);
+
+        // Then
+        assertEquals(List.of("\"t-0\"", "\"t-3\""), received);
+    }
+
+    @Test
+    void updates_ShouldSkipCurrentStatus_WhenSubscriberAlreadyHasIt() throws InterruptedException {
+        // Given
+        List<String> received = new CopyOnWriteArrayList<>();
+        stream.updates("\"t-0\"").subscribe(snapshot -> received.add(snapshot.etag()));
+
+        // When
+        Thread.sleep(100);
+        version.set(1);
+        Thread.sleep(100);
+
+        // Then
+        assertEquals(List.of("\"t-1\""), received);
+    }
+
+    @Test
+    void updates_ShouldKeepOnlyLatestStatus_ForSlowSubscriber() throws InterruptedException {
+        // Given
+        List<String> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<ParkingStatusSnapshot> slow = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(ParkingStatusSnapshot snapshot) {
+                received.add(snapshot.etag());
+            }
+        };
+        stream.updates(null).subscribe(slow);
+
+        // When
+        for (int v = 1; v <= 5; v++) {
+            version.set(v);
+            Thread.sleep(60);
+        }
+        slow.request(10);
+        Thread.sleep(60);
+        slow.dispose();
+
+        // Then
+        assertEquals(List.of("\"t-0\"", "\"t-5\""), received);
+    }
+
+    @Test
+    void events_ShouldSendHeartbeats_WhileNothingChanges() {
+        // When
+        List<ServerSentEvent<ParkingStatusResponse>> events = stream.events(null)
+                .take(3)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertNotNull(events);
+        assertEquals("status", events.get(0).event());
+        assertEquals("\"t-0\"", events.get(0).id());
+        assertEquals(50, events.get(0).data().getAvailableSpaces());
+        assertEquals("keep-alive", events.get(1).comment());
+        assertEquals("keep-alive", events.get(2).comment());
+    }
+}
@@ -0,0 +1,64 @@
+package com.carpark.service;
+
+import com.carpark.dto.BillRequest;
+import com.carpark.dto.ParkVehicleRequest;
+import com.carpark.dto.ParkVehicleResponse;
+import com.carpark.exception.VehicleNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveParkingServiceTest {
+
+    @Mock
+    private ParkingService parkingService;
+
+    @InjectMocks
+    private ReactiveParkingService reactiveParkingService;
+
+    @Test
+    void parkVehicle_ShouldEmitResponse_OnceDurable() {
+        // Given
+        ParkVehicleRequest request = new ParkVehicleRequest("ABC123", 1);
+        CompletableFuture<ParkVehicleResponse> durable = new CompletableFuture<>();
+        when(parkingService.parkVehicleAsync(request)).thenReturn(durable);
+
+        // When
+        Mono<ParkVehicleResponse> response = reactiveParkingService.parkVehicle(request);
+        CompletableFuture.runAsync(() -> durable.complete(new ParkVehicleResponse("ABC123", 7, LocalDateTime.now())));
+
+        // Then
+        assertEquals(7, response.block().getSpaceNumber());
+    }
+
+    @Test
+    void parkVehicle_ShouldNotStart_UntilSubscribed() {
+        // When
+        reactiveParkingService.parkVehicle(new ParkVehicleRequest("ABC123", 1));
+
+        // Then
+        verifyNoInteractions(parkingService);
+    }
+
+    @Test
+    void generateBillAndExit_ShouldEmitRejectionUnwrapped() {
+        // Given
+        BillRequest request = new BillRequest("NOTFOUND");
+        when(parkingService.generateBillAndExitAsync(request)).thenReturn(
+                CompletableFuture.<Void>completedFuture(null)
+                        .thenApply(done -> { throw new VehicleNotFoundException("Vehicle NOTFOUND not found in car park"); }));
+
+        // When & Then
+        assertThrows(VehicleNotFoundException.class, () -> reactiveParkingService.generateBillAndExit(request).block());
+    }
+}
@@ -0,0 +1,117 @@
+package com.carpark.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedBillIdGeneratorTest {
+
+    @Test
+    void next_ShouldEncodeTimeAndNodeAsVersion7Uuid() {
+        // Given
+        long millis = 1_700_000_000_123L;
+        TimeOrderedBillIdGenerator generator = new TimeOrderedBillIdGenerator(42, () -> millis);
+
+        // When
+        UUID id = generator.next();
+
+        // Then
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(millis, id.getMostSignificantBits() >>> 16);
+        assertEquals(42, id.getMostSignificantBits() & 0xFFF);
+        assertEquals(id, UUID.fromString(id.toString()));
+    }
+
+    @Test
+    void nextId_ShouldSortByIssueTime_EvenWhenClockStepsBack() {
+        // Given
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        TimeOrderedBillIdGenerator generator = new TimeOrderedBillIdGenerator(0, clock::get);
+        List<String> ids = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            ids.add(generator.nextId());
+            if (i % 10 == 0) {
+                clock.addAndGet(i % 30 == 0 ? -5 : 3);
+            }
+        }
+
+        // Then
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, ids.get(i - 1) + " >= " + ids.get(i));
+        }
+    }
+
+    @Test
+    void next_ShouldCountUpWithinMillisecond_FromRandomStartPerThread() throws Exception {
+        // Given
+        long millis = 1_700_000_000_123L;
+        TimeOrderedBillIdGenerator generator = new TimeOrderedBillIdGenerator(0, () -> millis);
+        Set<Long> starts = new HashSet<>();
+
+        // When
+        UUID first = generator.next();
+        UUID second = generator.next();
+        for (int t = 0; t < 1_000; t++) {
+            Thread thread = new Thread(() -> starts.add(generator.next().getLeastSignificantBits()));
+            thread.start();
+            thread.join();
+        }
+
+        // Then
+        assertEquals(first.getLeastSignificantBits() + 1, second.getLeastSignificantBits());
+        assertEquals(first.getMostSignificantBits(), second.getMostSignificantBits());
+        assertEquals(1_000, starts.size());
+        assertTrue(starts.stream().allMatch(bits -> (bits & 0x3FFF_FFFF_FFFF_FFFFL) < 1L << 61));
+    }
+
+    @Test
+    void nextId_ShouldBeUnique_AcrossThreads() throws Exception {
+        // Given
+        TimeOrderedBillIdGenerator generator = new TimeOrderedBillIdGenerator(0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> batches = new ArrayList<>();
+
+        try {
+            // When
+            for (int t = 0; t < 8; t++) {
+                batches.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                    return ids;
+                }));
+            }
+
+            // Then
+            Set<String> unique = new HashSet<>();
+            for (Future<List<String>> batch : batches) {
+                unique.addAll(batch.get());
+            }
+            assertEquals(8 * 20_000, unique.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void constructor_ShouldRejectNodeIdOutOfRange() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedBillIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimeOrderedBillIdGenerator(TimeOrderedBillIdGenerator.MAX_NODE_ID + 1));
+    }
+}
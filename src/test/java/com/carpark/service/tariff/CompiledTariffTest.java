@@ -0,0 +1,160 @@
+package com.carpark.service.tariff;
+
+import com.carpark.config.CarParkProperties;
+import com.carpark.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledTariffTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2024, 1, 18, 7, 30, 45);
+
+    @Test
+    void charge_ShouldMatchPerMinuteRatePlusBlockCharge_ByDefault() {
+        // Given
+        CompiledTariff tariff = CompiledTariff.compile(new CarParkProperties.Tariff());
+
+        for (VehicleType type : VehicleType.values()) {
+            long ratePence = Math.round(type.getRatePerMinute() * 100);
+            for (int minutes = 0; minutes <= 3 * CompiledTariff.MINUTES_PER_DAY; minutes += 7) {
+                // When
+                long charge = tariff.charge(type, MORNING, MORNING.plusMinutes(minutes).plusSeconds(59));
+
+                // Then
+                assertEquals(minutes * ratePence + minutes / 5 * 100L, charge, type + " for " + minutes + " minutes");
+            }
+        }
+    }
+
+    @Test
+    void charge_ShouldBeFree_WhenStayEndsWithinGracePeriodOrBeforeItStarts() {
+        // Given
+        CarParkProperties.Tariff rules = new CarParkProperties.Tariff();
+        rules.setGracePeriod(Duration.ofMinutes(10));
+        CompiledTariff tariff = CompiledTariff.compile(rules);
+
+        // When & Then
+        assertEquals(0, tariff.charge(VehicleType.LARGE, MORNING, MORNING.plusMinutes(10)));
+        assertEquals(11 * 40 + 2 * 100, tariff.charge(VehicleType.LARGE, MORNING, MORNING.plusMinutes(11)));
+        assertEquals(0, tariff.charge(VehicleType.LARGE, MORNING, MORNING.minusHours(1)));
+    }
+
+    @Test
+    void charge_ShouldPriceEachMinuteByItsBand_WrappingPastMidnight() {
+        // Given - day rate from 08:00, night rate from 18:00 until 08:00
+        CarParkProperties.Tariff rules = new CarParkProperties.Tariff();
+        rules.setBlockCharge(BigDecimal.ZERO);
+        rules.getBands().add(band(LocalTime.of(18, 0), "0.05"));
+        rules.getBands().add(band(LocalTime.of(8, 0), "0.30"));
+        CompiledTariff tariff = CompiledTariff.compile(rules);
+
+        // When & Then
+        // 07:30 to 08:30: 30 night minutes, 30 day minutes
+        assertEquals(30 * 5 + 30 * 30, tariff.charge(VehicleType.SMALL, MORNING, MORNING.plusHours(1)));
+        // 17:00 to 09:00 next day: 1 day hour, 14 night hours, 1 day hour
+        LocalDateTime evening = LocalDateTime.of(2024, 1, 18, 17, 0);
+        assertEquals(120 * 30 + 840 * 5, tariff.charge(VehicleType.SMALL, evening, evening.plusHours(16)));
+        // Whole days cost the same wherever they start
+        assertEquals(3 * (600 * 30 + 840 * 5), tariff.charge(VehicleType.SMALL, evening, evening.plusDays(3)));
+    }
+
+    @Test
+    void charge_ShouldCapEach24HoursFromEntry() {
+        // Given
+        CarParkProperties.Tariff rules = new CarParkProperties.Tariff();
+        rules.setDailyCap(new BigDecimal("20.00"));
+        CompiledTariff tariff = CompiledTariff.compile(rules);
+
+        // When & Then
+        assertEquals(10 * 10 + 2 * 100, tariff.charge(VehicleType.SMALL, MORNING, MORNING.plusMinutes(10)));
+        assertEquals(2000, tariff.charge(VehicleType.SMALL, MORNING, MORNING.plusHours(5)));
+        assertEquals(2 * 2000 + 10 * 10 + 2 * 100,
+                tariff.charge(VehicleType.SMALL, MORNING, MORNING.plusDays(2).plusMinutes(10)));
+    }
+
+    @Test
+    void charge_ShouldApplyPerTypeOverrides() {
+        // Given
+        CarParkProperties.Tariff rules = new CarParkProperties.Tariff();
+        CarParkProperties.TypeTariff large = new CarParkProperties.TypeTariff();
+        large.setRatePerMinute(new BigDecimal("0.55"));
+        large.setBlockCharge(new BigDecimal("2"));
+        rules.getTypes().put(VehicleType.LARGE, large);
+        CompiledTariff tariff = CompiledTariff.compile(rules);
+
+        // When & Then
+        assertEquals(10 * 55 + 2 * 200, tariff.charge(VehicleType.LARGE, MORNING, MORNING.plusMinutes(10)));
+        assertEquals(10 * 20 + 2 * 100, tariff.charge(VehicleType.MEDIUM, MORNING, MORNING.plusMinutes(10)));
+    }
+
+    @Test
+    void compile_ShouldRejectInvalidRules() {
+        // Given
+        CarParkProperties.Tariff fractionalPence = new CarParkProperties.Tariff();
+        fractionalPence.setBlockCharge(new BigDecimal("0.005"));
+        CarParkProperties.Tariff negativeCap = new CarParkProperties.Tariff();
+        negativeCap.setDailyCap(new BigDecimal("-1"));
+        CarParkProperties.Tariff duplicateBands = new CarParkProperties.Tariff();
+        duplicateBands.getBands().add(band(LocalTime.NOON, "0.10"));
+        duplicateBands.getBands().add(band(LocalTime.NOON, "0.20"));
+        CarParkProperties.Tariff noBlocks = new CarParkProperties.Tariff();
+        noBlocks.setBlockMinutes(0);
+        CarParkProperties.Tariff cappedOddBlocks = new CarParkProperties.Tariff();
+        cappedOddBlocks.setBlockMinutes(7);
+        cappedOddBlocks.getTypes().put(VehicleType.LARGE, typeTariffWithCap("30.00"));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> CompiledTariff.compile(fractionalPence));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTariff.compile(negativeCap));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTariff.compile(duplicateBands));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTariff.compile(noBlocks));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTariff.compile(cappedOddBlocks));
+    }
+
+    @Test
+    void charge_ShouldCountBlocksAcrossWholeStay_WhenUncappedBlocksDoNotDivideDay() {
+        // Given
+        CarParkProperties.Tariff rules = new CarParkProperties.Tariff();
+        rules.setBlockMinutes(7);
+        CompiledTariff tariff = CompiledTariff.compile(rules);
+
+        // When
+        long charge = tariff.charge(VehicleType.SMALL, MORNING, MORNING.plusMinutes(1442));
+
+        // Then - 206 blocks, the one spanning the end of the first day included
+        assertEquals(1442 * 10 + 206 * 100, charge);
+    }
+
+    @Test
+    void charge_ShouldChargeEveryBlockOnce_WhenCappedBlocksDivideDay() {
+        // Given
+        CarParkProperties.Tariff rules = new CarParkProperties.Tariff();
+        rules.setBlockMinutes(9);
+        rules.setDailyCap(new BigDecimal("1000.00"));
+        CompiledTariff tariff = CompiledTariff.compile(rules);
+
+        // When
+        long charge = tariff.charge(VehicleType.SMALL, MORNING, MORNING.plusMinutes(1449));
+
+        // Then - 160 blocks in the first day and one in the second
+        assertEquals(1449 * 10 + 161 * 100, charge);
+    }
+
+    private static CarParkProperties.TypeTariff typeTariffWithCap(String cap) {
+        CarParkProperties.TypeTariff overrides = new CarParkProperties.TypeTariff();
+        overrides.setDailyCap(new BigDecimal(cap));
+        return overrides;
+    }
+
+    private static CarParkProperties.Band band(LocalTime start, String smallRate) {
+        return new CarParkProperties.Band(start, new EnumMap<>(Map.of(VehicleType.SMALL, new BigDecimal(smallRate))));
+    }
+}